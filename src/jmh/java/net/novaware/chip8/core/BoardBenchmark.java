@@ -0,0 +1,141 @@
+package net.novaware.chip8.core;
+
+import net.novaware.chip8.core.clock.ClockGenerator;
+import net.novaware.chip8.core.config.CpuEngine;
+import net.novaware.chip8.core.config.MutableConfig;
+import net.novaware.chip8.core.port.DisplayPort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static net.novaware.chip8.core.BoardFactory.newBoardFactory;
+
+/**
+ * Whole board running a {@link SyntheticRom} for a fixed number of CPU cycles, timers tick proportionally.
+ * <p>
+ * Score is in instructions per second (1 per cycle), run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardBenchmark {
+
+    private static final int CYCLES = 10_000;
+
+    @Param({"ALU", "SPRITES", "MEMORY", "CALLS"})
+    public SyntheticRom rom;
+
+    @Param({"INTERPRETER", "THREADED", "RECOMPILER"})
+    public CpuEngine engine;
+
+    private SteppedClock clock;
+
+    @Setup
+    public void setUp() {
+        final MutableConfig config = new MutableConfig();
+        config.setCpuEngine(engine);
+
+        clock = new SteppedClock();
+
+        final Random random = new Random(8);
+        final Board board = newBoardFactory(config, clock, random::nextInt).newBoard();
+
+        board.getStoragePort().connect(() -> rom);
+        board.getKeyPort().connect(packet -> {});
+        board.getAudioPort().connect(packet -> {});
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect(packet -> {});
+
+        board.powerOn();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES)
+    public void run() {
+        clock.advance(CYCLES);
+    }
+
+    /**
+     * Runs the targets on the calling thread, the CPU one every cycle and the rest according to their frequency
+     */
+    private static final class SteppedClock implements ClockGenerator {
+
+        private Runnable cpu = () -> {};
+        private IntSupplier cpuFrequency = () -> 1;
+
+        private final List<Runnable> timers = new ArrayList<>();
+        private final List<Integer> frequencies = new ArrayList<>();
+
+        private long cycle;
+
+        void advance(final int cycles) {
+            final int count = timers.size();
+            final int[] periods = new int[count];
+
+            for (int t = 0; t < count; ++t) {
+                periods[t] = Math.max(1, cpuFrequency.getAsInt() / frequencies.get(t));
+            }
+
+            for (int i = 0; i < cycles; ++i) {
+                cpu.run();
+                ++cycle;
+
+                for (int t = 0; t < count; ++t) {
+                    if (cycle % periods[t] == 0) {
+                        timers.get(t).run();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Handle schedule(final Runnable target, final int frequency) {
+            timers.add(target);
+            frequencies.add(frequency);
+            return mayInterrupt -> true;
+        }
+
+        @Override
+        public Handle schedule(final Runnable target, final IntSupplier frequency) {
+            cpu = target;
+            cpuFrequency = frequency;
+            return mayInterrupt -> true;
+        }
+
+        @Override
+        public Handle schedule(final Runnable target) {
+            target.run();
+            return mayInterrupt -> true;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return false;
+        }
+
+        @Override
+        public void setPaused(final boolean paused) {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.novaware.chip8.core;
+
+import net.novaware.chip8.core.clock.VirtualClockGenerator;
+import net.novaware.chip8.core.config.MutableConfig;
+import net.novaware.chip8.core.port.DisplayPort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static net.novaware.chip8.core.BoardFactory.newBoardFactory;
+
+/**
+ * Snapshot / restore of a board running a {@link SyntheticRom}, into a reused direct buffer.
+ * <p>
+ * Score is in microseconds per operation, run with {@code -prof gc} to confirm there are no allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardSnapshotBenchmark {
+
+    private Board board;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        final VirtualClockGenerator clock = new VirtualClockGenerator();
+
+        final Random random = new Random(8);
+        board = newBoardFactory(new MutableConfig(), clock, random::nextInt).newBoard();
+
+        board.getStoragePort().connect(() -> SyntheticRom.SPRITES);
+        board.getKeyPort().connect(packet -> {});
+        board.getAudioPort().connect(packet -> {});
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect(packet -> {});
+
+        board.powerOn();
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(100));
+
+        buffer = ByteBuffer.allocateDirect(Board.SNAPSHOT_SIZE);
+    }
+
+    @Benchmark
+    public ByteBuffer snapshot() {
+        buffer.clear();
+        board.snapshot(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public void snapshotAndRestore() {
+        buffer.clear();
+        board.snapshot(buffer);
+        buffer.flip();
+        board.restore(buffer);
+    }
+}
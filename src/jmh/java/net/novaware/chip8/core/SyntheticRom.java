@@ -0,0 +1,86 @@
+package net.novaware.chip8.core;
+
+import net.novaware.chip8.core.port.StoragePort;
+
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+
+/**
+ * Programs generated for the benchmarks, each one loops forever without waiting for the input or timers
+ */
+public enum SyntheticRom implements StoragePort.Packet {
+
+    ALU(
+            0x6001, // 200: V0 = 1
+            0x6103, // 202: V1 = 3
+            0x8014, // 204: V0 += V1
+            0x8125, // 206: V1 -= V2
+            0x8203, // 208: V2 ^= V0
+            0x8306, // 20A: V3 >>= 1
+            0x7401, // 20C: V4 += 1
+            0x8E4E, // 20E: VE <<= 1
+            0x3400, // 210: skip if V4 == 0
+            0x1204, // 212: jump 204
+            0x1200  // 214: jump 200
+    ),
+
+    SPRITES(
+            0x00E0, // 200: clear screen
+            0xA220, // 202: I = 220
+            0x6000, // 204: V0 = 0
+            0x6100, // 206: V1 = 0
+            0xD015, // 208: draw 5 rows at V0, V1
+            0x7009, // 20A: V0 += 9
+            0x7104, // 20C: V1 += 4
+            0x7201, // 20E: V2 += 1
+            0x3240, // 210: skip if V2 == 40
+            0x1208, // 212: jump 208
+            0x6200, // 214: V2 = 0
+            0x1200, // 216: jump 200
+            0x0000, // 218: padding
+            0x0000,
+            0x0000,
+            0x0000,
+            0xF090, // 220: sprite
+            0xF090,
+            0xF000
+    ),
+
+    MEMORY(
+            0xA300, // 200: I = 300
+            0xC0FF, // 202: V0 = random
+            0xF033, // 204: BCD of V0 at I
+            0xF265, // 206: load V0 - V2 from I
+            0xF355, // 208: store V0 - V3 at I
+            0xF11E, // 20A: I += V1
+            0x1200  // 20C: jump 200
+    ),
+
+    CALLS(
+            0x2206, // 200: call 206
+            0x7001, // 202: V0 += 1
+            0x1200, // 204: jump 200
+            0x7101, // 206: V1 += 1
+            0x00EE  // 208: return
+    );
+
+    private final byte[] data;
+
+    SyntheticRom(final int... words) {
+        data = new byte[words.length * 2];
+
+        for (int i = 0; i < words.length; ++i) {
+            data[2 * i] = (byte) (words[i] >>> 8);
+            data[2 * i + 1] = (byte) words[i];
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return data.length;
+    }
+
+    @Override
+    public byte getByte(final short address) {
+        return data[uint(address)];
+    }
+}
@@ -0,0 +1,63 @@
+package net.novaware.chip8.core.cpu.instruction;
+
+import net.novaware.chip8.core.cpu.register.BenchmarkRegisters;
+import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.cpu.register.WordRegister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a mix covering every instruction type
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructionDecoderBenchmark {
+
+    private static final short[] INSTRUCTIONS = {
+            0x00E0, 0x00EE, 0x0123, 0x1234, 0x2345, 0x3A12, 0x4B34, 0x5CD0, 0x6E56, 0x7F78,
+            (short) 0x8120, (short) 0x8231, (short) 0x8342, (short) 0x8453, (short) 0x8564,
+            (short) 0x8675, (short) 0x8786, (short) 0x8897, (short) 0x89AE, (short) 0x9AB0,
+            (short) 0xA456, (short) 0xB567, (short) 0xC1FF, (short) 0xD125, (short) 0xE19E,
+            (short) 0xE2A1, (short) 0xF307, (short) 0xF40A, (short) 0xF515, (short) 0xF618,
+            (short) 0xF71E, (short) 0xF829, (short) 0xF933, (short) 0xFA55, (short) 0xFB65,
+    };
+
+    private WordRegister currentInstruction;
+    private WordRegister[] decodedInstruction;
+    private InstructionDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        final RegisterFile registers = BenchmarkRegisters.newRegisters();
+
+        currentInstruction = registers.getCurrentInstruction();
+        decodedInstruction = registers.getDecodedInstruction();
+        decoder = new InstructionDecoder(currentInstruction, decodedInstruction);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(35)
+    public void decode(final Blackhole blackhole) {
+        for (short instruction : INSTRUCTIONS) {
+            currentInstruction.set(instruction);
+            decoder.decode();
+            blackhole.consume(decodedInstruction[1].get());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.novaware.chip8.core.cpu.register;
+
+import static net.novaware.chip8.core.cpu.register.RegisterModule.*;
+
+/**
+ * Wires the register file the same way as the {@link RegisterModule} does
+ */
+public final class BenchmarkRegisters {
+
+    private BenchmarkRegisters() {
+    }
+
+    public static RegisterFile newRegisters() {
+        final byte[] variableStore = provideVariableStore();
+        final short[] wordStore = provideWordStore();
+
+        return new RegisterFile(
+                variableStore,
+                wordStore,
+                provideCpuState(),
+                provideVariables(variableStore),
+                provideStatusType(),
+                provideIndex(wordStore),
+                provideMemoryAddress(wordStore),
+                provideProgramCounter(wordStore),
+                provideStackSegment(),
+                provideStackPointer(wordStore),
+                provideFontSegment(),
+                provideGraphicSegment(),
+                provideGraphicChange(),
+                provideInput(),
+                provideInputCheck(),
+                provideOutput(),
+                provideStorage(),
+                provideDelay(),
+                provideSound(),
+                provideSoundOn(),
+                provideCurrentInstruction(wordStore),
+                provideDecodedInstruction(wordStore)
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package net.novaware.chip8.core.gpu;
+
+import net.novaware.chip8.core.config.MutableConfig;
+import net.novaware.chip8.core.cpu.register.BenchmarkRegisters;
+import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.memory.BenchmarkMemory;
+import net.novaware.chip8.core.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.novaware.chip8.core.memory.MemoryModule.BOOTLOADER_RAM_START;
+import static net.novaware.chip8.core.memory.MemoryModule.DISPLAY_IO_START;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Sprite drawing at byte aligned and unaligned positions, including the ones wrapping around the screen edges
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpuBenchmark {
+
+    private static final int SPRITES = 64;
+
+    private static final short X = 0x0;
+    private static final short Y = 0x1;
+
+    @Param({"5", "15"})
+    public int height;
+
+    private RegisterFile registers;
+    private Gpu gpu;
+
+    @Setup
+    public void setUp() {
+        registers = BenchmarkRegisters.newRegisters();
+        final Memory mmu = BenchmarkMemory.newMmu(registers.getVariables());
+
+        for (int i = 0; i < 16; ++i) {
+            mmu.setByte(ushort(BOOTLOADER_RAM_START + i), (byte) (0xA5 ^ i * 0x11));
+        }
+
+        registers.getGraphicSegment().set(DISPLAY_IO_START);
+        registers.getIndex().set(BOOTLOADER_RAM_START);
+
+        gpu = new Gpu(new MutableConfig(), registers, mmu);
+        gpu.reset();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SPRITES)
+    public void drawSprite() {
+        final short h = ushort(height);
+
+        for (int i = 0; i < SPRITES; ++i) {
+            registers.getVariable(X).set(i * 7);
+            registers.getVariable(Y).set(i * 3);
+
+            gpu.drawSprite(X, Y, h);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package net.novaware.chip8.core.memory;
+
+import net.novaware.chip8.core.cpu.register.ByteRegister;
+
+import static net.novaware.chip8.core.memory.MemoryModule.*;
+
+/**
+ * Wires the memory map the same way as the {@link MemoryModule} does
+ */
+public final class BenchmarkMemory {
+
+    private BenchmarkMemory() {
+    }
+
+    public static Memory newMmu(final ByteRegister[] variables) {
+        final Memory ram = provideRam(
+                provideBootloaderRom(),
+                provideProgram(),
+                provideStack(),
+                provideBootloaderRam(),
+                provideVariables(variables),
+                provideDisplayIo()
+        );
+
+        return provideMmu(ram, provideOsRom(), provideStorageRom());
+    }
+}
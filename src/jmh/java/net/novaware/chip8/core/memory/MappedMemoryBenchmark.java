@@ -0,0 +1,80 @@
+package net.novaware.chip8.core.memory;
+
+import net.novaware.chip8.core.cpu.register.BenchmarkRegisters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static net.novaware.chip8.core.memory.MemoryModule.*;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Word reads through the MMU, sequential ones like instruction fetch and scattered ones across the regions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedMemoryBenchmark {
+
+    private static final int ADDRESSES = 1024;
+
+    private Memory mmu;
+
+    private final short[] sequential = new short[ADDRESSES];
+    private final short[] scattered = new short[ADDRESSES];
+
+    @Setup
+    public void setUp() {
+        mmu = BenchmarkMemory.newMmu(BenchmarkRegisters.newRegisters().getVariables());
+
+        final short[][] regions = {
+                {BOOTLOADER_ROM_START, BOOTLOADER_ROM_END},
+                {PROGRAM_START, PROGRAM_END},
+                {STACK_START, STACK_END},
+                {DISPLAY_IO_START, DISPLAY_IO_END},
+                {BOOTLOADER_RAM_START, BOOTLOADER_RAM_END},
+        };
+
+        final Random random = new Random(8);
+
+        for (int i = 0; i < ADDRESSES; ++i) {
+            sequential[i] = ushort(uint(PROGRAM_START) + 2 * i);
+
+            final short[] region = regions[random.nextInt(regions.length)];
+            final int words = (uint(region[1]) - uint(region[0]) + 1) / 2;
+            scattered[i] = ushort(uint(region[0]) + 2 * random.nextInt(words));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ADDRESSES)
+    public void getWordSequential(final Blackhole blackhole) {
+        for (short address : sequential) {
+            blackhole.consume(mmu.getWord(address));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ADDRESSES)
+    public void getWordScattered(final Blackhole blackhole) {
+        for (short address : scattered) {
+            blackhole.consume(mmu.getWord(address));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.novaware.chip8.core.port.impl;
+
+import net.novaware.chip8.core.cpu.register.ByteRegister;
+import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.memory.PhysicalMemory;
+import net.novaware.chip8.core.memory.RowTrackingMemory;
+import net.novaware.chip8.core.port.DisplayPort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static net.novaware.chip8.core.cpu.register.RegisterFile.GC_DRAW;
+import static net.novaware.chip8.core.memory.MemoryModule.DISPLAY_IO_ROW_SIZE;
+import static net.novaware.chip8.core.memory.MemoryModule.DISPLAY_IO_SIZE;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Conversion of the display memory into the frame buffers, done on every graphic change.
+ * <p>
+ * Each change writes the given number of rows first (a sprite is up to 15), 32 rescans the whole display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayPortImplBenchmark {
+
+    @Param({"DIRECT", "MERGE_FRAME"})
+    public DisplayPort.Mode mode;
+
+    @Param({"5", "32"})
+    public int dirtyRows;
+
+    private Memory displayIo;
+    private DisplayPortImpl displayPort;
+    private int row;
+
+    private DisplayPort.Packet frame;
+
+    @Setup
+    public void setUp() {
+        displayIo = new RowTrackingMemory(new PhysicalMemory("Display IO", DISPLAY_IO_SIZE), DISPLAY_IO_ROW_SIZE);
+        final Random random = new Random(8);
+
+        for (int i = 0; i < DISPLAY_IO_SIZE; ++i) {
+            displayIo.setByte(ushort(i), (byte) random.nextInt());
+        }
+
+        final ByteRegister graphicChange = new ByteRegister("GC");
+        graphicChange.set(GC_DRAW); // stays set, the port is not attached to the register
+
+        displayPort = new DisplayPortImpl(graphicChange, displayIo);
+        displayPort.setMode(mode);
+        displayPort.connect(packet -> frame = packet);
+    }
+
+    @Benchmark
+    public void onGraphicChange(final Blackhole blackhole) {
+        for (int i = 0; i < dirtyRows; ++i) {
+            final int address = row * DISPLAY_IO_ROW_SIZE;
+            displayIo.setByte(ushort(address), (byte) ~displayIo.getByte(ushort(address)));
+            row = (row + 1) % (DISPLAY_IO_SIZE / DISPLAY_IO_ROW_SIZE);
+        }
+
+        displayPort.onGraphicChange();
+        blackhole.consume(frame);
+    }
+}
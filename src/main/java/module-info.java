@@ -9,10 +9,14 @@ module net.novaware.chip8.core {
 
     requires org.apache.logging.log4j;
 
+    requires jdk.jfr;
+
     exports net.novaware.chip8.core;
+    exports net.novaware.chip8.core.batch;
     exports net.novaware.chip8.core.clock;
     exports net.novaware.chip8.core.config;
     exports net.novaware.chip8.core.port;
+    exports net.novaware.chip8.core.rewind;
     exports net.novaware.chip8.core.util;
 
     uses net.novaware.chip8.core.clock.ClockGenerator;
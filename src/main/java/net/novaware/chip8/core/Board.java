@@ -3,7 +3,10 @@ package net.novaware.chip8.core;
 import net.novaware.chip8.core.clock.ClockGenerator;
 import net.novaware.chip8.core.clock.ClockGenerator.Handle;
 import net.novaware.chip8.core.cpu.Cpu;
+import net.novaware.chip8.core.cpu.CpuState;
 import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.jfr.BoardLifecycleEvent;
+import net.novaware.chip8.core.jfr.ThroughputEvent;
 import net.novaware.chip8.core.memory.Memory;
 import net.novaware.chip8.core.memory.MemoryModule;
 import net.novaware.chip8.core.memory.ReadOnlyMemory;
@@ -11,6 +14,7 @@ import net.novaware.chip8.core.memory.SplittableMemory;
 import net.novaware.chip8.core.port.*;
 import net.novaware.chip8.core.port.impl.*;
 import net.novaware.chip8.core.storage.Bootloader;
+import net.novaware.chip8.core.util.ExecutionTrace;
 import net.novaware.chip8.core.util.FrequencyCounter;
 import net.novaware.chip8.core.util.di.BoardScope;
 import net.novaware.chip8.core.util.uml.Owned;
@@ -20,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,6 +33,8 @@ import static net.novaware.chip8.core.cpu.register.RegisterFile.GC_IDLE;
 import static net.novaware.chip8.core.memory.MemoryModule.*;
 import static net.novaware.chip8.core.port.impl.PortModule.PRIMARY;
 import static net.novaware.chip8.core.port.impl.PortModule.SECONDARY;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.AssertUtil.assertState;
 import static net.novaware.chip8.core.util.HexUtil.toHexString;
 import static net.novaware.chip8.core.util.UnsignedUtil.uint;
 import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
@@ -37,6 +44,20 @@ public class Board {
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private static final byte[] ZEROS = new byte[PROGRAM_SIZE]; // largest memory written at once
+
+    public static final int SNAPSHOT_MAGIC = 0x43385353; // C8SS
+    public static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Header, registers, program split, checked keys, program, stack, bootloader RAM and display IO
+     */
+    public static final int SNAPSHOT_SIZE = Integer.BYTES + Short.BYTES
+            + RegisterFile.SNAPSHOT_SIZE
+            + Integer.BYTES
+            + Short.BYTES
+            + PROGRAM_SIZE + STACK_SIZE + BOOTLOADER_RAM_SIZE + DISPLAY_IO_SIZE;
+
     public interface Config {
 
         /**
@@ -106,6 +127,10 @@ public class Board {
 
     private final FrequencyCounter frequencyCounter = new FrequencyCounter(200, 0.1);
 
+    private boolean wired = false;
+
+    private final byte[] scratch = new byte[PROGRAM_SIZE]; // largest memory copied at once
+
     @Inject
     /* package */ Board(
         final Board.Config config,
@@ -140,8 +165,12 @@ public class Board {
     }
 
     private void powerOn0() {
+        final BoardLifecycleEvent event = BoardLifecycleEvent.start(BoardLifecycleEvent.POWER_ON);
+
         initialize();
         start();
+
+        event.finish(this);
     }
 
     private void initialize() {
@@ -159,6 +188,19 @@ public class Board {
 
         loadProgram();
 
+        if (wired) {
+            cpu.reset(); // recycled, see recycle()
+        } else {
+            wire(registers);
+        }
+
+        LOG.traceExit();
+    }
+
+    /**
+     * Subscriptions between the components, made once per board
+     */
+    private void wire(final RegisterFile registers) {
         cpu.initialize();
 
         registers.getOutput().subscribe(out -> {
@@ -179,13 +221,66 @@ public class Board {
         });
 
         frequencyCounter.initialize();
-        frequencyCounter.subscribe(fc -> debugPort.onCpuFrequencyChange(fc.getFrequency()));
+        frequencyCounter.subscribe(fc -> {
+            debugPort.onCpuFrequencyChange(fc.getFrequency());
+            ThroughputEvent.emit(this, fc.getFrequency());
+        });
 
         audioPort.attachToRegister();
         keyPort.attachToRegister();
         debugPort.attachToRegister();
 
-        LOG.traceExit();
+        wired = true;
+    }
+
+    /**
+     * Brings back the state of a freshly built board: memory, registers, units, caches and ports. Subscriptions
+     * between the components stay, the ones of the outside world are dropped. Board has to be powered off.
+     *
+     * @param clock replaces the one shut down by the power off
+     */
+    /* package */ void recycle(final ClockGenerator clock) {
+        assertState(clockHandles.isEmpty(), "board must be powered off");
+
+        final BoardLifecycleEvent event = BoardLifecycleEvent.start(BoardLifecycleEvent.RECYCLE);
+
+        primaryDisplayPort.disconnect();
+        secondaryDisplayPort.disconnect();
+        audioPort.disconnect();
+        keyPort.disconnect();
+        storagePort.disconnect();
+        debugPort.disconnect();
+
+        cpu.recycle();
+        clearMemory();
+
+        primaryDisplayPort.reset();
+        secondaryDisplayPort.reset();
+        keyPort.reset();
+        debugPort.reset();
+
+        frequencyCounter.reset();
+
+        this.clock = requireNonNull(clock, "clock must not be null");
+
+        event.finish(this);
+    }
+
+    private void clearMemory() {
+        ((ReadOnlyMemory) bootloaderRom).setReadOnly(false);
+        bootloaderRom.setBytes(ushort(0), ZEROS, BOOTLOADER_ROM_SIZE);
+
+        final SplittableMemory programMemory = (SplittableMemory) program;
+        programMemory.setStrict(false);
+        program.setBytes(ushort(0), ZEROS, PROGRAM_SIZE);
+        programMemory.setSplit(0);
+        programMemory.setStrict(true);
+
+        for (int offset = 0; offset < STACK_SIZE; offset += STACK_FRAME_SIZE) {
+            mmu.setWord(ushort(STACK_START + offset), ushort(0));
+        }
+
+        mmu.clear(); // physical ones
     }
 
     private void loadProgram(){
@@ -206,13 +301,21 @@ public class Board {
     }
 
     /* package */ void softReset0() {
+        final BoardLifecycleEvent event = BoardLifecycleEvent.start(BoardLifecycleEvent.SOFT_RESET);
+
         cpu.reset();
+
+        event.finish(this);
     }
 
     /* package */ void hardReset0() {
+        final BoardLifecycleEvent event = BoardLifecycleEvent.start(BoardLifecycleEvent.HARD_RESET);
+
         mmu.clear();
         loadProgram();
         cpu.reset();
+
+        event.finish(this);
     }
 
     private void start() {
@@ -222,6 +325,7 @@ public class Board {
         Handle renderHandle = clock.schedule(() -> {
             primaryDisplayPort.tick();
             secondaryDisplayPort.tick();
+            debugPort.maybeSendProfile();
         }, config.getRenderTimerFrequency());
 
         //TODO: react to cpu state and control the clock properly
@@ -237,15 +341,21 @@ public class Board {
         }, config::getCpuFrequency);
 
         clockHandles.addAll(List.of(cycleHandle, delayHandle, soundHandle, renderHandle));
+
+        debugPort.attachToClock(cycleHandle, delayHandle, soundHandle, renderHandle);
     }
 
     private void powerOff0(boolean force) {
+        final BoardLifecycleEvent event = BoardLifecycleEvent.start(BoardLifecycleEvent.POWER_OFF);
+
         cpu.sleep();
 
         clockHandles.stream().forEach(h -> h.cancel(force));
         clockHandles.clear();
 
         clock.shutdown();
+
+        event.finish(this);
     }
 
     private void scheduleAndHandle(final Runnable target) {
@@ -287,6 +397,36 @@ public class Board {
         return debugPort;
     }
 
+    /**
+     * Last executed instructions, enabled by {@link net.novaware.chip8.core.cpu.unit.ControlUnit.Config#getTraceSize()}
+     *
+     * @see net.novaware.chip8.core.util.TraceDrainer
+     */
+    public ExecutionTrace getExecutionTrace() {
+        return cpu.getExecutionTrace();
+    }
+
+    /**
+     * @return N of the EXIT N machine language subroutine (0x010 / 0x011), -1 if the program didn't exit
+     */
+    public int getExitCode() {
+        final int output = cpu.getRegisters().getOutput().getAsInt();
+
+        return output == 0x10 || output == 0x11 ? output & 0xF : -1;
+    }
+
+    /**
+     * @return true if only an input can restart the CPU, e.g. it waits for a key, jumped in place or polls the keys
+     *         with the delay timer already at 0
+     */
+    public boolean isWaitingForInput() {
+        final RegisterFile registers = cpu.getRegisters();
+        final byte state = registers.getCpuState().get();
+
+        return state == CpuState.HALT.value() || state == CpuState.STOP_CLOCK.value()
+                || (state == CpuState.IDLE.value() && registers.getDelay().getAsInt() == 0);
+    }
+
     // 2. Power ON ------------------------------------------------------------
 
     public void powerOn() {
@@ -320,4 +460,78 @@ public class Board {
     public void powerOff(final boolean force) {
         scheduleAndHandle(() -> powerOff0(force));
     }
+
+    // 7. Snapshot / restore the state ----------------------------------------
+
+    /**
+     * Writes the architectural state, {@link #SNAPSHOT_SIZE} bytes at the buffer position. Doesn't allocate.
+     * <p>
+     * Call on the thread running the board (e.g. from a port receiver) or while the board is paused.
+     * Bootloader ROM is left out, it is the same for every program.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        assertArgument(buffer.remaining() >= SNAPSHOT_SIZE, "buffer needs " + SNAPSHOT_SIZE + " bytes");
+
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putShort((short) SNAPSHOT_VERSION);
+
+        final RegisterFile registers = cpu.getRegisters();
+        registers.snapshot(buffer);
+
+        final SplittableMemory programMemory = (SplittableMemory) program;
+        buffer.putInt(programMemory.getSplit());
+
+        keyPort.snapshot(buffer);
+
+        program.getBytes(ushort(0), scratch, PROGRAM_SIZE);
+        buffer.put(scratch, 0, PROGRAM_SIZE);
+
+        for (int offset = 0; offset < STACK_SIZE; offset += STACK_FRAME_SIZE) {
+            buffer.putShort(mmu.getWord(ushort(STACK_START + offset)));
+        }
+
+        mmu.getBytes(BOOTLOADER_RAM_START, scratch, BOOTLOADER_RAM_SIZE);
+        buffer.put(scratch, 0, BOOTLOADER_RAM_SIZE);
+
+        mmu.getBytes(DISPLAY_IO_START, scratch, DISPLAY_IO_SIZE);
+        buffer.put(scratch, 0, DISPLAY_IO_SIZE);
+    }
+
+    /**
+     * Reads the state written by {@link #snapshot(ByteBuffer)}. Decode caches of the program are invalidated
+     * and the ports refreshed. Same threading rules apply.
+     */
+    public void restore(final ByteBuffer buffer) {
+        assertArgument(buffer.remaining() >= SNAPSHOT_SIZE, "buffer needs " + SNAPSHOT_SIZE + " bytes");
+        assertArgument(buffer.getInt() == SNAPSHOT_MAGIC, "not a snapshot");
+        assertArgument(buffer.getShort() == SNAPSHOT_VERSION, "unsupported snapshot version");
+
+        final RegisterFile registers = cpu.getRegisters();
+        registers.restore(buffer);
+
+        final int split = buffer.getInt();
+
+        keyPort.restore(buffer);
+
+        final SplittableMemory programMemory = (SplittableMemory) program;
+        programMemory.setSplit(0); // whole program writable, the listeners invalidate the caches
+        buffer.get(scratch, 0, PROGRAM_SIZE);
+        program.setBytes(ushort(0), scratch, PROGRAM_SIZE);
+        programMemory.setSplit(split);
+
+        for (int offset = 0; offset < STACK_SIZE; offset += STACK_FRAME_SIZE) {
+            mmu.setWord(ushort(STACK_START + offset), buffer.getShort());
+        }
+
+        buffer.get(scratch, 0, BOOTLOADER_RAM_SIZE);
+        mmu.setBytes(BOOTLOADER_RAM_START, scratch, BOOTLOADER_RAM_SIZE);
+
+        buffer.get(scratch, 0, DISPLAY_IO_SIZE);
+        mmu.setBytes(DISPLAY_IO_START, scratch, DISPLAY_IO_SIZE);
+
+        primaryDisplayPort.refresh();
+        secondaryDisplayPort.refresh();
+        audioPort.refresh();
+        debugPort.refresh();
+    }
 }
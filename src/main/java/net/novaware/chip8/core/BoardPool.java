@@ -0,0 +1,105 @@
+package net.novaware.chip8.core;
+
+import net.novaware.chip8.core.clock.ClockGenerator;
+import net.novaware.chip8.core.config.CoreConfig;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.BoardFactory.newBoardFactory;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Hands out pre-built boards instead of building a new component graph for every session.
+ * <p>
+ * Released boards are recycled to the state of a freshly built one and get a new clock (the old one is shut down
+ * by the power off). Boards over the capacity are left to the GC. Thread safe.
+ */
+public class BoardPool {
+
+    private final CoreConfig config;
+    private final Supplier<? extends ClockGenerator> clocks;
+    private final IntUnaryOperator random;
+    private final int capacity;
+
+    private final Deque<Board> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * @param clocks new clock for every board built or recycled
+     */
+    public BoardPool(
+            final CoreConfig config,
+            final Supplier<? extends ClockGenerator> clocks,
+            final IntUnaryOperator random,
+            final int capacity
+    ) {
+        assertArgument(capacity >= 0, "capacity must not be negative");
+
+        this.config = requireNonNull(config, "config must not be null");
+        this.clocks = requireNonNull(clocks, "clocks must not be null");
+        this.random = requireNonNull(random, "random must not be null");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Builds boards ahead of time, up to the capacity
+     */
+    public void prefill(final int count) {
+        for (int i = 0; i < count && idleCount.get() < capacity; ++i) {
+            push(newBoard());
+        }
+    }
+
+    /**
+     * @return idle board or a new one if there is none
+     */
+    public Board acquire() {
+        final Board board = idle.pollFirst(); // most recently used, likely still in the CPU caches
+
+        if (board == null) {
+            return newBoard();
+        }
+
+        idleCount.decrementAndGet();
+        return board;
+    }
+
+    /**
+     * @param board powered off (the power off has completed), acquired from this pool
+     * @return false if the pool was full and the board was dropped
+     */
+    public boolean release(final Board board) {
+        requireNonNull(board, "board must not be null");
+
+        if (idleCount.get() >= capacity) {
+            return false;
+        }
+
+        board.recycle(clocks.get());
+
+        return push(board);
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    private boolean push(final Board board) {
+        if (idleCount.incrementAndGet() > capacity) {
+            idleCount.decrementAndGet();
+            return false;
+        }
+
+        idle.offerFirst(board);
+        return true;
+    }
+
+    private Board newBoard() {
+        return newBoardFactory(config, clocks.get(), random).newBoard();
+    }
+}
@@ -0,0 +1,52 @@
+package net.novaware.chip8.core.batch;
+
+import net.novaware.chip8.core.config.CoreConfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Single ROM run with a named config variant
+ */
+public final class BatchJob {
+
+    private final Path rom;
+    private final String configName;
+    private final CoreConfig config;
+
+    public BatchJob(final Path rom, final String configName, final CoreConfig config) {
+        this.rom = requireNonNull(rom, "rom must not be null");
+        this.configName = requireNonNull(configName, "configName must not be null");
+        this.config = requireNonNull(config, "config must not be null");
+    }
+
+    /**
+     * @return every ROM with every config variant, grouped by ROM
+     */
+    public static List<BatchJob> combine(final Collection<Path> roms, final Map<String, ? extends CoreConfig> configs) {
+        final List<BatchJob> jobs = new ArrayList<>(roms.size() * configs.size());
+
+        for (Path rom : roms) {
+            configs.forEach((name, config) -> jobs.add(new BatchJob(rom, name, config)));
+        }
+
+        return jobs;
+    }
+
+    public Path getRom() {
+        return rom;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public CoreConfig getConfig() {
+        return config;
+    }
+}
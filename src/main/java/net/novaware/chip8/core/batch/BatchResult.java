@@ -0,0 +1,96 @@
+package net.novaware.chip8.core.batch;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Outcome of a {@link BatchJob}
+ */
+public final class BatchResult {
+
+    public enum StopReason {
+        /**
+         * Program called EXIT N machine language subroutine (0x010 / 0x011)
+         */
+        EXIT,
+
+        /**
+         * Only an input could continue, e.g. key wait or jump in place
+         */
+        IDLE,
+
+        /**
+         * Cycle budget exhausted
+         */
+        BUDGET,
+
+        /**
+         * Reported by the {@link net.novaware.chip8.core.port.DebugPort}
+         */
+        EXCEPTION,
+    }
+
+    private final BatchJob job;
+    private final StopReason reason;
+    private final int exitCode;
+    private final long cycles;
+    private final long framebufferHash;
+    private final @Nullable String exception;
+    private final long wallNanos;
+
+    public BatchResult(
+            final BatchJob job,
+            final StopReason reason,
+            final int exitCode,
+            final long cycles,
+            final long framebufferHash,
+            final @Nullable String exception,
+            final long wallNanos
+    ) {
+        this.job = requireNonNull(job, "job must not be null");
+        this.reason = requireNonNull(reason, "reason must not be null");
+        this.exitCode = exitCode;
+        this.cycles = cycles;
+        this.framebufferHash = framebufferHash;
+        this.exception = exception;
+        this.wallNanos = wallNanos;
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    public StopReason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return N of EXIT N or -1
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * @return CPU clock cycles, including the gated ones
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return FNV-1a hash of the last frame shown on the primary display, 0 if nothing was shown
+     */
+    public long getFramebufferHash() {
+        return framebufferHash;
+    }
+
+    public @Nullable String getException() {
+        return exception;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+}
@@ -0,0 +1,150 @@
+package net.novaware.chip8.core.batch;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streams {@link BatchResult}s one per line, flushing after each so partial reports survive a crash
+ */
+public class BatchResultWriter {
+
+    public enum Format {
+        CSV,
+        JSON_LINES,
+    }
+
+    private static final String[] COLUMNS = {
+            "rom", "config", "reason", "exitCode", "cycles", "framebufferHash", "wallMillis", "exception"
+    };
+
+    private final Writer out;
+    private final Format format;
+
+    private boolean headerWritten = false;
+
+    public BatchResultWriter(final Writer out, final Format format) {
+        this.out = requireNonNull(out, "out must not be null");
+        this.format = requireNonNull(format, "format must not be null");
+    }
+
+    public void write(final BatchResult result) throws IOException {
+        final @Nullable String[] values = {
+                result.getJob().getRom().toString(),
+                result.getJob().getConfigName(),
+                result.getReason().name(),
+                Integer.toString(result.getExitCode()),
+                Long.toString(result.getCycles()),
+                String.format("%016x", result.getFramebufferHash()),
+                Double.toString(result.getWallNanos() / 1_000_000.0),
+                result.getException()
+        };
+
+        final StringBuilder line = new StringBuilder();
+
+        switch (format) {
+            case JSON_LINES:
+                appendJson(line, values);
+                break;
+            case CSV:
+            default:
+                if (!headerWritten) {
+                    appendCsv(line, COLUMNS);
+                    headerWritten = true;
+                }
+                appendCsv(line, values);
+                break;
+        }
+
+        out.write(line.toString());
+        out.flush();
+    }
+
+    private static void appendCsv(final StringBuilder line, final @Nullable String[] values) {
+        for (int i = 0; i < values.length; ++i) {
+            final @Nullable String value = values[i];
+
+            if (i > 0) {
+                line.append(',');
+            }
+
+            if (value == null) {
+                continue;
+            }
+
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+
+        line.append('\n');
+    }
+
+    private static void appendJson(final StringBuilder line, final @Nullable String[] values) {
+        line.append('{');
+
+        for (int i = 0; i < values.length; ++i) {
+            final @Nullable String value = values[i];
+
+            if (i > 0) {
+                line.append(',');
+            }
+
+            line.append('"').append(COLUMNS[i]).append("\":");
+
+            if (value == null) {
+                line.append("null");
+            } else if (isNumeric(COLUMNS[i])) {
+                line.append(value);
+            } else {
+                appendJsonString(line, value);
+            }
+        }
+
+        line.append("}\n");
+    }
+
+    private static boolean isNumeric(final String column) {
+        return column.equals("exitCode") || column.equals("cycles") || column.equals("wallMillis");
+    }
+
+    private static void appendJsonString(final StringBuilder line, final String value) {
+        line.append('"');
+
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                    break;
+            }
+        }
+
+        line.append('"');
+    }
+}
@@ -0,0 +1,217 @@
+package net.novaware.chip8.core.batch;
+
+import net.novaware.chip8.core.Board;
+import net.novaware.chip8.core.batch.BatchResult.StopReason;
+import net.novaware.chip8.core.clock.VirtualClockGenerator;
+import net.novaware.chip8.core.port.DebugPort;
+import net.novaware.chip8.core.port.DisplayPort;
+import net.novaware.chip8.core.port.StoragePort;
+import net.novaware.chip8.core.util.ExecutionTrace;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static net.novaware.chip8.core.BoardFactory.newBoardFactory;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+
+/**
+ * Runs every {@link BatchJob} on its own {@link Board} driven by a {@link VirtualClockGenerator}, so the results
+ * don't depend on the host load, in parallel on a work stealing pool.
+ * <p>
+ * Run stops at the first of: EXIT N subroutine, CPU waiting for an input which never comes in a headless run,
+ * exception or the cycle budget.
+ */
+public class BatchRunner {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    public static final long DEFAULT_CYCLE_BUDGET = 10_000_000;
+
+    /* package */ static final long RANDOM_SEED = 0xC8;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ForkJoinPool pool;
+    private final long cycleBudget;
+
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CYCLE_BUDGET);
+    }
+
+    public BatchRunner(final int parallelism, final long cycleBudget) {
+        assertArgument(cycleBudget > 0, "cycleBudget must be positive");
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.cycleBudget = cycleBudget;
+    }
+
+    /**
+     * Writes the results in the order of completion, on the calling thread
+     */
+    public void run(final List<BatchJob> jobs, final BatchResultWriter out) throws IOException, InterruptedException {
+        final CompletionService<BatchResult> results = new ExecutorCompletionService<>(pool);
+
+        for (BatchJob job : jobs) {
+            results.submit(() -> run(job));
+        }
+
+        for (int i = 0; i < jobs.size(); ++i) {
+            try {
+                out.write(results.take().get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("batch job failed unexpectedly", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Runs a single job on the calling thread
+     */
+    public BatchResult run(final BatchJob job) {
+        final long start = System.nanoTime();
+
+        final VirtualClockGenerator clock = new VirtualClockGenerator();
+        final Random random = new Random(RANDOM_SEED);
+        final Board board = newBoardFactory(job.getConfig(), clock, random::nextInt).newBoard();
+
+        final Frame frame = new Frame();
+        final Failure failure = new Failure();
+
+        try {
+            final byte[] rom = Files.readAllBytes(job.getRom());
+
+            board.getStoragePort().connect(() -> new StoragePort.Packet() {
+                @Override
+                public int getSize() {
+                    return rom.length;
+                }
+
+                @Override
+                public byte getByte(short address) {
+                    return rom[uint(address)];
+                }
+            });
+        } catch (IOException e) {
+            return new BatchResult(job, StopReason.EXCEPTION, -1, 0, 0, e.toString(), System.nanoTime() - start);
+        }
+
+        board.getKeyPort().connect(packet -> {});
+        board.getAudioPort().connect(packet -> {});
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect(frame);
+        board.getDebugPort().connect(failure);
+
+        board.powerOn();
+
+        final ExecutionTrace trace = board.getExecutionTrace();
+
+        clock.advanceUntil(() -> failure.exception != null
+                || board.getExitCode() >= 0
+                || board.isWaitingForInput()
+                || trace.getCycle() >= cycleBudget,
+                Long.MAX_VALUE
+        );
+
+        clock.shutdown();
+
+        final StopReason reason;
+        if (failure.exception != null) {
+            reason = StopReason.EXCEPTION;
+        } else if (board.getExitCode() >= 0) {
+            reason = StopReason.EXIT;
+        } else if (board.isWaitingForInput()) {
+            reason = StopReason.IDLE;
+        } else {
+            reason = StopReason.BUDGET;
+        }
+
+        final BatchResult result = new BatchResult(
+                job,
+                reason,
+                board.getExitCode(),
+                trace.getCycle(),
+                frame.hash(),
+                failure.exception != null ? failure.exception.toString() : null,
+                System.nanoTime() - start
+        );
+
+        LOG.debug(() -> job.getRom() + " with " + job.getConfigName() + " stopped by " + reason);
+
+        return result;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Keeps the flyweight packet, it reflects the front buffer at the end of the run
+     */
+    private static final class Frame implements Consumer<DisplayPort.Packet> {
+
+        private DisplayPort.@Nullable Packet packet;
+
+        @Override
+        public void accept(final DisplayPort.Packet packet) {
+            this.packet = packet;
+        }
+
+        long hash() {
+            final DisplayPort.@Nullable Packet p = packet;
+
+            if (p == null) {
+                return 0;
+            }
+
+            final ByteBuffer bitmap = p.getBitmap();
+
+            long hash = FNV_OFFSET;
+
+            while (bitmap.hasRemaining()) {
+                hash = (hash ^ uint(bitmap.get())) * FNV_PRIME;
+            }
+
+            return hash;
+        }
+    }
+
+    private static final class Failure implements DebugPort.Receiver {
+
+        private @Nullable Exception exception;
+
+        @Override
+        public void onException(final Exception exception) {
+            if (this.exception == null) {
+                this.exception = exception;
+            }
+        }
+
+        @Override
+        public void onDelayTimerChange(final int value) {
+        }
+
+        @Override
+        public void onSoundTimerChange(final int value) {
+        }
+
+        @Override
+        public void onCpuFrequencyChange(final int value) {
+        }
+
+        @Override
+        public void onStateChange(final boolean paused) {
+        }
+    }
+}
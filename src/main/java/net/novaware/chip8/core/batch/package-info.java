@@ -0,0 +1,4 @@
+/**
+ * Headless runs of many {@link net.novaware.chip8.core.Board}s, e.g. to validate ROM corpora against config variants
+ */
+package net.novaware.chip8.core.batch;
@@ -30,7 +30,27 @@ public interface Bus {
      */
     void writeByte(final @Unsigned byte data);
 
-    //TODO: add methods for word, byte[]
+    /**
+     * Read word (big endian) from memory under address specified using {@link #specify(short)}
+     */
+    short readWord();
 
+    /**
+     * Write word (big endian) into memory under address specified using {@link #specify(short)}
+     */
+    void writeWord(final short data);
 
+    /**
+     * Read consecutive bytes starting at address specified using {@link #specify(short)}
+     * @param destination filled from index 0
+     * @param length number of bytes
+     */
+    void read(byte[] destination, int length);
+
+    /**
+     * Write consecutive bytes starting at address specified using {@link #specify(short)}
+     * @param source read from index 0
+     * @param length number of bytes
+     */
+    void write(byte[] source, int length);
 }
@@ -1,32 +1,116 @@
 package net.novaware.chip8.core.bus;
 
+import net.novaware.chip8.core.memory.MappedMemory;
 import net.novaware.chip8.core.memory.Memory;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signedness.qual.Unsigned;
 
-//TODO: optimize mapped memory access (specify method caches entry)
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Bus remembering the last segment resolved by the {@link MappedMemory}.
+ * <p>
+ * Accesses within that segment (sequential bytes, instruction fetch, stack frames) go directly to the leaf memory
+ * without any translation. Each unit should own its bus, so the segments they work on don't evict each other.
+ */
 public class MemoryBus implements Bus {
 
     private final Memory memory;
 
-    private @Unsigned short currentAddress;
+    private final @Nullable MappedMemory mapped;
+
+    private int currentAddress;
+
+    // Last resolved segment, empty range forces resolution on the first access
+    private Memory segment;
+    private int segmentStart = 1;
+    private int segmentEnd = 0; // inclusive
 
     public MemoryBus(Memory memory) {
         this.memory = memory;
+        this.mapped = memory instanceof MappedMemory ? (MappedMemory) memory : null;
+        this.segment = memory;
     }
 
     @Override
     public void specify(@Unsigned short address) {
-        //TODO: assert within range?
-        currentAddress = address;
+        currentAddress = uint(address);
+    }
+
+    private short resolve(final int address) {
+        if (address < segmentStart || address > segmentEnd) {
+            if (mapped != null) {
+                final MappedMemory.Entry entry = mapped.resolve(ushort(address));
+
+                segment = entry.ref;
+                segmentStart = uint(entry.start);
+                segmentEnd = uint(entry.end);
+            } else {
+                segment = memory;
+                segmentStart = 0;
+                segmentEnd = 0xFFFF;
+            }
+        }
+
+        return ushort(address - segmentStart);
     }
 
     @Override
     public byte readByte() {
-        return memory.getByte(currentAddress);
+        final short local = resolve(currentAddress);
+        return segment.getByte(local);
     }
 
     @Override
     public void writeByte(@Unsigned byte data) {
-        memory.setByte(currentAddress, data);
+        final short local = resolve(currentAddress);
+        segment.setByte(local, data);
+    }
+
+    @Override
+    public short readWord() {
+        final short local = resolve(currentAddress);
+        return segment.getWord(local);
+    }
+
+    @Override
+    public void writeWord(short data) {
+        final short local = resolve(currentAddress);
+        segment.setWord(local, data);
+    }
+
+    @Override
+    public void read(byte[] destination, int length) {
+        final int end = currentAddress + length - 1;
+        if (end <= 0xFFFF && length > 0) {
+            final short local = resolve(currentAddress);
+            if (end <= segmentEnd) {
+                segment.getBytes(local, destination, length);
+                return;
+            }
+        }
+
+        for (int i = 0; i < length; ++i) {
+            final short local = resolve((currentAddress + i) & 0xFFFF);
+            destination[i] = segment.getByte(local);
+        }
+    }
+
+    @Override
+    public void write(byte[] source, int length) {
+        final int end = currentAddress + length - 1;
+        if (end <= 0xFFFF && length > 0) {
+            final short local = resolve(currentAddress);
+            if (end <= segmentEnd) {
+                segment.setBytes(local, source, length);
+                return;
+            }
+        }
+
+        for (int i = 0; i < length; ++i) {
+            final short local = resolve((currentAddress + i) & 0xFFFF);
+            segment.setByte(local, source[i]);
+        }
     }
 }
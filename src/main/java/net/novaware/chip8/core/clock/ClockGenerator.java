@@ -6,6 +6,13 @@ public interface ClockGenerator {
 
     interface Handle {
         boolean cancel(boolean mayInterrupt);
+
+        /**
+         * @return lateness of the ticks so far, readable from any thread
+         */
+        default LatencyHistogram getLateness() {
+            return LatencyHistogram.EMPTY;
+        }
     }
 
     Handle schedule(Runnable target, int frequency);
@@ -0,0 +1,123 @@
+package net.novaware.chip8.core.clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Lateness of the ticks of a single {@link ClockGenerator.Handle}, i.e. actual minus scheduled start time.
+ * <p>
+ * Buckets have fixed, power of 2 bounds: 0 holds the ticks on time, bucket {@code i} the ones late
+ * {@code [2^(i-1), 2^i)} nanoseconds, the last one is open ended. Recording doesn't allocate. There is a single
+ * writer (the clock thread), readers on other threads see each counter consistent, but not all of them at once.
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKETS = 32;
+
+    /**
+     * Shared by the handles which don't measure the lateness, never records anything
+     */
+    public static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong missedTicks = new AtomicLong();
+    private final AtomicLong maxLateness = new AtomicLong();
+
+    /* package */ LatencyHistogram() {
+    }
+
+    /**
+     * Called by the clock thread before running the target
+     *
+     * @param lateness actual minus scheduled start time in nanoseconds
+     */
+    /* package */ void record(final long lateness) {
+        final int bucket = toBucket(lateness);
+
+        // single writer, ordered stores are enough and avoid the locked instructions
+        buckets.lazySet(bucket, buckets.get(bucket) + 1);
+
+        if (lateness > maxLateness.get()) {
+            maxLateness.lazySet(lateness);
+        }
+    }
+
+    /**
+     * Called by the clock thread, every missed deadline has to be added only once
+     */
+    /* package */ void addMissedTicks(final long ticks) {
+        missedTicks.lazySet(missedTicks.get() + ticks);
+    }
+
+    /* package */ static int toBucket(final long lateness) {
+        return lateness <= 0 ? 0 : Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(lateness));
+    }
+
+    /**
+     * @return exclusive upper bound of the bucket in nanoseconds, {@link Long#MAX_VALUE} for the last one
+     */
+    public static long getBucketUpperBound(final int bucket) {
+        assertArgument(bucket >= 0 && bucket < BUCKETS, "bucket must be between 0 and " + (BUCKETS - 1));
+
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public long getBucketCount(final int bucket) {
+        assertArgument(bucket >= 0 && bucket < BUCKETS, "bucket must be between 0 and " + (BUCKETS - 1));
+
+        return buckets.get(bucket);
+    }
+
+    /**
+     * @return number of recorded ticks
+     */
+    public long getCount() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; ++i) {
+            count += buckets.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return number of deadlines which passed without their tick, see the clock generators for the details
+     */
+    public long getMissedTicks() {
+        return missedTicks.get();
+    }
+
+    /**
+     * @return highest lateness in nanoseconds
+     */
+    public long getMaxLateness() {
+        return maxLateness.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile in nanoseconds, capped by the max lateness,
+     *         0 if nothing was recorded
+     */
+    public long getPercentile(final double percentile) {
+        assertArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+
+        final long count = getCount();
+        final long rank = (long) Math.ceil(count * percentile / 100);
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS && count > 0; ++i) {
+            seen += buckets.get(i);
+
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min(getBucketUpperBound(i) - 1, getMaxLateness());
+            }
+        }
+
+        return 0;
+    }
+}
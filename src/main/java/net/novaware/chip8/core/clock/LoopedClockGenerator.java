@@ -1,43 +1,293 @@
 package net.novaware.chip8.core.clock;
 
+import net.novaware.chip8.core.jfr.ClockLatenessEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.IntSupplier;
 
-//TODO: implement using a loop for high frequency tests to get rid of scheduling overhead / delays
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Runs all the targets on a single dedicated thread, in a loop ordered by their deadlines.
+ * <p>
+ * Thread parks until shortly before the next deadline and spins the rest of the time, which keeps the jitter
+ * low without the executor queue and wake up costs on every tick. Periodic targets run at a fixed rate and
+ * pick up frequency changes on every tick. Late ticks are caught up, unless the loop lags more than
+ * {@link #MAX_LAG_NANOS}, then they are dropped and counted as missed in {@link Handle#getLateness()}.
+ */
 public class LoopedClockGenerator implements ClockGenerator {
 
+    private static final Logger LOG = LogManager.getLogger();
+
+    public static final long DEFAULT_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /* package */ static final long MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final class Task implements Handle {
+        private final Runnable target;
+        private final @Nullable IntSupplier frequency; // null for one shot
+
+        private int currentFrequency;
+        private long period;
+        private long deadline;
+
+        private volatile boolean done = false;
+
+        private final LatencyHistogram lateness = new LatencyHistogram();
+
+        private Task(final Runnable target, final @Nullable IntSupplier frequency, final long deadline) {
+            this.target = requireNonNull(target, "target must not be null");
+            this.frequency = frequency;
+            this.deadline = deadline;
+
+            if (frequency != null) {
+                updatePeriod(frequency);
+            }
+        }
+
+        private void updatePeriod(final IntSupplier frequency) {
+            final int current = frequency.getAsInt();
+
+            if (current != currentFrequency && current > 0) {
+                currentFrequency = current;
+                period = TimeUnit.SECONDS.toNanos(1) / current;
+            }
+        }
+
+        /**
+         * Running target is never interrupted, cancelled task is dropped when it reaches the head of the queue
+         */
+        @Override
+        public boolean cancel(final boolean mayInterrupt) {
+            final boolean wasDone = done;
+            done = true;
+
+            return !wasDone;
+        }
+
+        @Override
+        public LatencyHistogram getLateness() {
+            return lateness;
+        }
+    }
+
     private final String name;
+    private final long spinNanos;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile @Nullable Thread thread;
+
+    private final Queue<Task> submitted = new ConcurrentLinkedQueue<>();
+
+    // owned by the loop thread
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(Comparator.comparingLong(t -> t.deadline));
+    private long pausedAt = -1;
+
+    private volatile boolean paused = false;
+    private volatile boolean shutdown = false;
 
     public LoopedClockGenerator(String name) {
+        this(name, DEFAULT_SPIN_NANOS);
+    }
+
+    /**
+     * @param spinNanos how long before the deadline the loop stops parking and starts spinning, 0 disables spinning
+     */
+    public LoopedClockGenerator(String name, long spinNanos) {
+        assertArgument(spinNanos >= 0, "spinNanos must not be negative");
+
         this.name = name;
+        this.spinNanos = spinNanos;
     }
 
     @Override
     public Handle schedule(Runnable target, int frequency) {
-        throw new UnsupportedOperationException("not implemented");
+        return schedule(target, () -> frequency);
     }
 
     @Override
     public Handle schedule(Runnable target, IntSupplier frequency) {
-        throw new UnsupportedOperationException("not implemented");
+        requireNonNull(frequency, "frequency must not be null");
+        return submit(new Task(target, frequency, System.nanoTime()));
     }
 
     @Override
     public Handle schedule(Runnable target) {
-        throw new UnsupportedOperationException("not implemented");
+        return submit(new Task(target, null, System.nanoTime()));
+    }
+
+    private Handle submit(final Task task) {
+        if (shutdown) {
+            task.done = true;
+            LOG.warn(() -> "Clock " + name + " is shut down, target rejected");
+            return task;
+        }
+
+        submitted.add(task);
+
+        if (started.compareAndSet(false, true)) {
+            final Thread loop = new Thread(this::loop, "Chip8-" + name + "-Clock");
+            thread = loop;
+            loop.start();
+        } else {
+            wakeUp();
+        }
+
+        return task;
+    }
+
+    private void wakeUp() {
+        final Thread loop = thread;
+
+        if (loop != null) {
+            LockSupport.unpark(loop);
+        }
     }
 
     @Override
     public boolean isPaused() {
-        throw new UnsupportedOperationException("not implemented");
+        return paused;
     }
 
+    /**
+     * Pausing keeps the targets, after resuming their deadlines are shifted by the paused time
+     */
     @Override
     public void setPaused(boolean paused) {
-        throw new UnsupportedOperationException("not implemented");
+        this.paused = paused;
+        wakeUp();
     }
 
+    /**
+     * Stops the loop after the current target finishes, pending targets are dropped
+     */
     @Override
     public void shutdown() {
-        throw new UnsupportedOperationException("not implemented");
+        shutdown = true;
+        wakeUp();
+    }
+
+    private void loop() {
+        while (!shutdown) {
+            acceptSubmitted();
+
+            if (paused) {
+                if (pausedAt < 0) {
+                    pausedAt = System.nanoTime();
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            if (pausedAt >= 0) {
+                shiftDeadlines(System.nanoTime() - pausedAt);
+                pausedAt = -1;
+            }
+
+            final Task task = tasks.peek();
+
+            if (task == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            if (task.done) {
+                tasks.poll();
+                continue;
+            }
+
+            final long now = System.nanoTime();
+            final long wait = task.deadline - now;
+
+            if (wait > spinNanos) {
+                LockSupport.parkNanos(this, wait - spinNanos);
+                continue; // new targets or state changes may have arrived
+            }
+
+            if (wait > 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            tasks.poll();
+            task.lateness.record(-wait);
+            run(task);
+
+            if (!task.done) {
+                reschedule(task, now);
+
+                if (-wait > task.period) {
+                    ClockLatenessEvent.emit(name, task.currentFrequency, -wait, task.deadline > now);
+                }
+            }
+        }
+
+        tasks.clear();
+        submitted.clear();
+    }
+
+    private void acceptSubmitted() {
+        Task task;
+        while ((task = submitted.poll()) != null) {
+            if (pausedAt >= 0) {
+                task.deadline = pausedAt; // becomes the resume time after the shift
+            }
+            tasks.add(task);
+        }
+    }
+
+    private void shiftDeadlines(final long delta) {
+        final Task[] all = tasks.toArray(new Task[0]);
+        tasks.clear();
+
+        for (Task task : all) {
+            task.deadline += delta;
+            tasks.add(task);
+        }
+    }
+
+    private void run(final Task task) {
+        try {
+            task.target.run();
+        } catch (RuntimeException e) {
+            // same as the executor, further executions are suppressed
+            LOG.error("Clock " + name + " target failed, cancelling it", e);
+            task.done = true;
+        }
+
+        if (task.frequency == null) {
+            task.done = true;
+        }
+    }
+
+    private void reschedule(final Task task, final long now) {
+        task.updatePeriod(requireNonNull(task.frequency));
+
+        if (task.currentFrequency <= 0) {
+            task.done = true; // never had a valid frequency, it would stay at the head of the queue
+            return;
+        }
+
+        task.deadline += task.period;
+
+        if (now - task.deadline > MAX_LAG_NANOS) {
+            // too far behind, drop the ticks whose deadlines passed instead of catching them up
+            task.lateness.addMissedTicks((now - task.deadline) / task.period + 1);
+            task.deadline = now + task.period;
+        }
+
+        tasks.add(task);
     }
 }
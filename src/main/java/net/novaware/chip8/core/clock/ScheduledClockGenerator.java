@@ -1,5 +1,10 @@
 package net.novaware.chip8.core.clock;
 
+import net.novaware.chip8.core.jfr.ClockLatenessEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -8,9 +13,74 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntSupplier;
 
-//FIXME: check errors from futures!
+import static java.util.Objects.requireNonNull;
+
 public class ScheduledClockGenerator implements ClockGenerator {
 
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final long INITIAL_DELAY_NANOS = 1;
+
+    /**
+     * Measures the lateness against the fixed rate schedule and logs the failures, which otherwise stay hidden
+     * in the future. Started again from scratch when the frequency changes.
+     * <p>
+     * Executor catches up the late ticks, a tick late by k periods counts the k deadlines after its own as missed,
+     * the catching up ones add only the deadlines not counted before.
+     */
+    private final class Task implements Runnable {
+        private final Runnable target;
+        private final LatencyHistogram lateness;
+
+        private int frequency;
+        private long period;
+        private long origin; // scheduled start of the first tick
+        private long ticks;
+        private long missedUntil; // last tick whose deadline was counted as missed
+
+        private Task(final Runnable target, final LatencyHistogram lateness) {
+            this.target = requireNonNull(target, "target must not be null");
+            this.lateness = lateness;
+        }
+
+        private ScheduledFuture<?> start(final int frequency) {
+            this.frequency = frequency;
+            period = (long)((double) TimeUnit.SECONDS.toNanos(1) / frequency);
+            origin = System.nanoTime() + INITIAL_DELAY_NANOS;
+            ticks = 0;
+            missedUntil = 0;
+
+            return executor.scheduleAtFixedRate(this, INITIAL_DELAY_NANOS, period, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            final long late = System.nanoTime() - (origin + ticks * period);
+            lateness.record(late);
+
+            if (late > period) {
+                ClockLatenessEvent.emit(name, frequency, late, false); // executor catches up
+            }
+
+            final long passed = ticks + late / period; // last tick whose deadline passed
+
+            if (late >= period && passed > missedUntil) {
+                lateness.addMissedTicks(passed - Math.max(missedUntil, ticks));
+                missedUntil = passed;
+            }
+
+            ++ticks;
+
+            try {
+                target.run();
+            } catch (RuntimeException e) {
+                // executor suppresses further executions
+                LOG.error("Clock " + name + " target failed, cancelling it", e);
+                throw e;
+            }
+        }
+    }
+
     private final String name;
 
     private ScheduledExecutorService executor;
@@ -24,47 +94,67 @@ public class ScheduledClockGenerator implements ClockGenerator {
 
     @Override
     public Handle schedule(Runnable target, int frequency) {
-        final ScheduledFuture<?> future = schedule0(target, frequency);
+        final LatencyHistogram lateness = new LatencyHistogram();
+        final ScheduledFuture<?> future = new Task(target, lateness).start(frequency);
 
-        return future::cancel;
-    }
-
-    private ScheduledFuture<?> schedule0(Runnable target, int frequency) {
-        final long period = (long)((double) TimeUnit.SECONDS.toNanos(1) / frequency);
-
-        return executor.scheduleAtFixedRate(target, 1, period, TimeUnit.NANOSECONDS);
+        return handle(future::cancel, lateness);
     }
 
     //FIXME: rewrite and test!
     @Override
     public Handle schedule(Runnable target, IntSupplier frequency) {
+        final LatencyHistogram lateness = new LatencyHistogram();
+        final Task task = new Task(target, lateness);
+
         final AtomicInteger freq = new AtomicInteger(frequency.getAsInt());
-        final AtomicReference<ScheduledFuture<?>> sfr = new AtomicReference<>();
+        final AtomicReference<@Nullable ScheduledFuture<?>> sfr = new AtomicReference<>();
 
         final ScheduledFuture<?> sf1 = executor.scheduleAtFixedRate(() -> {
             if (freq.get() != frequency.getAsInt()) {
-                sfr.get().cancel(false);
+                requireNonNull(sfr.get()).cancel(false);
 
                 freq.set(frequency.getAsInt());
-                sfr.set(schedule0(target, freq.get()));
+                sfr.set(task.start(freq.get()));
             }
         }, 1, 1, TimeUnit.SECONDS);
 
-        final ScheduledFuture<?> sf2 = schedule0(target, freq.get());
+        final ScheduledFuture<?> sf2 = task.start(freq.get());
         sfr.set(sf2);
 
-        return force -> {
+        return handle(force -> {
             sf1.cancel(force);
-            return sfr.get().cancel(force);
-        };
+            return requireNonNull(sfr.get()).cancel(force);
+        }, lateness);
     }
 
     @Override
     public Handle schedule(Runnable target) {
-        final ScheduledFuture<?> future = executor.schedule(target, 1, TimeUnit.NANOSECONDS);
+        final ScheduledFuture<?> future = executor.schedule(() -> {
+            try {
+                target.run();
+            } catch (RuntimeException e) {
+                LOG.error("Clock " + name + " target failed", e);
+                throw e;
+            }
+        }, INITIAL_DELAY_NANOS, TimeUnit.NANOSECONDS);
+
         return future::cancel;
     }
 
+    private static Handle handle(final Handle cancel, final LatencyHistogram lateness) {
+        return new Handle() {
+            @Override
+            public boolean cancel(boolean mayInterrupt) {
+                return cancel.cancel(mayInterrupt);
+            }
+
+            @Override
+            public LatencyHistogram getLateness() {
+                return lateness;
+            }
+        };
+    }
+
     @Override
     public boolean isPaused() {
         throw new UnsupportedOperationException("not implemented");
@@ -0,0 +1,216 @@
+package net.novaware.chip8.core.clock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Runs the targets in emulated time, on the thread calling {@link #advance(long)}, as fast as the host allows.
+ * <p>
+ * Targets are ordered by their deadlines in virtual nanoseconds, so with the CPU at 600Hz the 60Hz timers fire
+ * exactly every 10 cycles, regardless of the host load. Targets with the same deadline run in the order they
+ * were scheduled, which makes the runs reproducible. Not thread safe, the board should be controlled
+ * from the thread driving the clock.
+ */
+public class VirtualClockGenerator implements ClockGenerator {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final class Task implements Handle {
+        private final Runnable target;
+        private final @Nullable IntSupplier frequency; // null for one shot
+        private final long sequence;
+
+        private int currentFrequency;
+        private long origin; // deadline of the first tick at the current frequency
+        private long ticks;
+        private long deadline;
+
+        private boolean done = false;
+
+        private final LatencyHistogram lateness = new LatencyHistogram();
+
+        private Task(final Runnable target, final @Nullable IntSupplier frequency, final long sequence, final long deadline) {
+            this.target = requireNonNull(target, "target must not be null");
+            this.frequency = frequency;
+            this.sequence = sequence;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterrupt) {
+            final boolean wasDone = done;
+            done = true;
+
+            return !wasDone;
+        }
+
+        /**
+         * Emulated time never runs late, only the ticks are counted
+         */
+        @Override
+        public LatencyHistogram getLateness() {
+            return lateness;
+        }
+    }
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(
+            Comparator.<Task>comparingLong(t -> t.deadline).thenComparingLong(t -> t.sequence)
+    );
+
+    private long sequence = 0;
+    private long nanoTime = 0;
+
+    private boolean paused = false;
+    private boolean shutdown = false;
+
+    @Override
+    public Handle schedule(Runnable target, int frequency) {
+        return schedule(target, () -> frequency);
+    }
+
+    @Override
+    public Handle schedule(Runnable target, IntSupplier frequency) {
+        requireNonNull(frequency, "frequency must not be null");
+        return submit(new Task(target, frequency, sequence++, nanoTime));
+    }
+
+    @Override
+    public Handle schedule(Runnable target) {
+        return submit(new Task(target, null, sequence++, nanoTime));
+    }
+
+    private Handle submit(final Task task) {
+        if (shutdown) {
+            task.done = true;
+            LOG.warn("Virtual clock is shut down, target rejected");
+            return task;
+        }
+
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Paused clock doesn't advance, the targets are kept
+     */
+    @Override
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Pending targets are dropped, scheduling new ones is ignored
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        tasks.clear();
+    }
+
+    /**
+     * @return emulated time elapsed since the clock was created
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Runs all the targets due in the next {@code nanos} of emulated time
+     */
+    public void advance(final long nanos) {
+        advanceUntil(() -> false, nanos);
+    }
+
+    /**
+     * Runs the targets until the condition (checked after each of them) is met or {@code maxNanos} of emulated
+     * time elapses. Clock stays at the deadline of the last target if the condition was met.
+     *
+     * @return true if the condition was met
+     */
+    public boolean advanceUntil(final BooleanSupplier condition, final long maxNanos) {
+        assertArgument(maxNanos >= 0, "maxNanos must not be negative");
+
+        final long end = maxNanos > Long.MAX_VALUE - nanoTime ? Long.MAX_VALUE : nanoTime + maxNanos; // saturated
+
+        while (!paused && !shutdown) {
+            final Task task = tasks.peek();
+
+            if (task == null || task.deadline > end) {
+                break;
+            }
+
+            tasks.poll();
+
+            if (task.done) {
+                continue;
+            }
+
+            nanoTime = task.deadline;
+            task.lateness.record(0);
+            run(task);
+
+            if (!task.done) {
+                reschedule(task);
+            }
+
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+        }
+
+        if (!paused) {
+            nanoTime = end;
+        }
+
+        return condition.getAsBoolean();
+    }
+
+    private void run(final Task task) {
+        try {
+            task.target.run();
+        } catch (RuntimeException e) {
+            LOG.error("Virtual clock target failed, cancelling it", e);
+            task.done = true;
+        }
+
+        if (task.frequency == null) {
+            task.done = true;
+        }
+    }
+
+    private void reschedule(final Task task) {
+        final IntSupplier frequency = requireNonNull(task.frequency);
+        final int current = frequency.getAsInt();
+
+        if (current != task.currentFrequency && current > 0) {
+            task.currentFrequency = current;
+            task.origin = task.deadline;
+            task.ticks = 0;
+        }
+
+        if (task.currentFrequency <= 0) {
+            task.done = true; // never had a valid frequency, it would block the emulated time
+            return;
+        }
+
+        // not accumulating the rounded period keeps 60Hz ticks aligned with every 10th tick at 600Hz
+        ++task.ticks;
+        task.deadline = task.origin + task.ticks * TimeUnit.SECONDS.toNanos(1) / task.currentFrequency;
+        tasks.add(task);
+    }
+}
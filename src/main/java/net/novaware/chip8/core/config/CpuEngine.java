@@ -0,0 +1,27 @@
+package net.novaware.chip8.core.config;
+
+/**
+ * Strategy used by the CPU to run the program
+ */
+public enum CpuEngine {
+    /**
+     * Fetch, decode and execute every instruction, keeps all the CPU registers up to date
+     */
+    INTERPRETER,
+
+    /**
+     * Threaded code, program region is translated into pre-bound handlers on first execution.
+     * <p>
+     * Current and decoded instruction registers are not updated.
+     */
+    THREADED,
+
+    /**
+     * Dynamic recompiler, hot basic blocks of the program region are translated into JVM classes,
+     * cold code runs {@link #THREADED}.
+     * <p>
+     * Block runs at once and then stalls the CPU for the remaining cycles. Current and decoded instruction
+     * registers are not updated.
+     */
+    RECOMPILER,
+}
@@ -21,6 +21,10 @@ public abstract class ImmutableConfig implements CoreConfig {
         abstract Builder setSoundTimerFrequency(int value);
         abstract Builder setRenderTimerFrequency(int value);
         abstract Builder setCpuFrequency(int value);
+        abstract Builder setCpuEngine(CpuEngine value);
+        abstract Builder setDeferredEvents(boolean value);
+        abstract Builder setProfiling(boolean value);
+        abstract Builder setTraceSize(int value);
         abstract Builder setTrimVarForFont(boolean value);
         abstract Builder setClsCollision(boolean value);
         abstract Builder setWrapping(boolean value);
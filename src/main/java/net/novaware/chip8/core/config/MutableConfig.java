@@ -2,6 +2,7 @@ package net.novaware.chip8.core.config;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 //TODO: @ThreadSafe here
 //TODO: allow semi-dynamic changes of frequencies (adjust clocks on change)
@@ -15,8 +16,16 @@ public class MutableConfig implements CoreConfig {
 
     private final AtomicInteger renderTimerFrequency = new AtomicInteger(60); // Hz
 
+    private final AtomicReference<CpuEngine> cpuEngine = new AtomicReference<>(CpuEngine.INTERPRETER);
+
+    private final AtomicBoolean deferredEvents = new AtomicBoolean(false);
+
+    private final AtomicBoolean profiling = new AtomicBoolean(false);
+
     private final AtomicBoolean enforceMemoryRoRwState = new AtomicBoolean(false); //strict
 
+    private final AtomicInteger traceSize = new AtomicInteger(0); // instructions, disabled
+
     private final AtomicBoolean legacyShift = new AtomicBoolean(true);
 
     private final AtomicBoolean legacyLoadStore = new AtomicBoolean(true);
@@ -58,6 +67,26 @@ public class MutableConfig implements CoreConfig {
         return enforceMemoryRoRwState.get();
     }
 
+    @Override
+    public CpuEngine getCpuEngine() {
+        return cpuEngine.get();
+    }
+
+    @Override
+    public boolean isDeferredEvents() {
+        return deferredEvents.get();
+    }
+
+    @Override
+    public boolean isProfiling() {
+        return profiling.get();
+    }
+
+    @Override
+    public int getTraceSize() {
+        return traceSize.get();
+    }
+
     @Override
     public boolean isLegacyShift() {
         return legacyShift.get();
@@ -114,10 +143,26 @@ public class MutableConfig implements CoreConfig {
         this.renderTimerFrequency.set(renderTimerFrequency);
     }
 
+    public void setCpuEngine(CpuEngine cpuEngine) {
+        this.cpuEngine.set(cpuEngine);
+    }
+
+    public void setDeferredEvents(boolean deferredEvents) {
+        this.deferredEvents.set(deferredEvents);
+    }
+
+    public void setProfiling(boolean profiling) {
+        this.profiling.set(profiling);
+    }
+
     public void setEnforceMemoryRoRwState(boolean enforceMemoryRoRwState) {
         this.enforceMemoryRoRwState.set(enforceMemoryRoRwState);
     }
 
+    public void setTraceSize(int traceSize) {
+        this.traceSize.set(traceSize);
+    }
+
     public void setLegacyShift(boolean legacyShift) {
         this.legacyShift.set(legacyShift);
     }
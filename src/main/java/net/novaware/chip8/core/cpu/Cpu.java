@@ -1,188 +1,355 @@
-package net.novaware.chip8.core.cpu;
-
-import net.novaware.chip8.core.cpu.register.RegisterFile;
-import net.novaware.chip8.core.cpu.unit.*;
-import net.novaware.chip8.core.gpu.Gpu;
-import net.novaware.chip8.core.memory.Memory;
-import net.novaware.chip8.core.util.di.BoardScope;
-import net.novaware.chip8.core.util.uml.Owned;
-import net.novaware.chip8.core.util.uml.Used;
-
-import javax.inject.Inject;
-import javax.inject.Named;
-
-import static java.util.Arrays.stream;
-import static net.novaware.chip8.core.cpu.CpuState.OPERATING;
-import static net.novaware.chip8.core.cpu.register.RegisterFile.VF_EMPTY;
-import static net.novaware.chip8.core.cpu.unit.UnitModule.DELAY;
-import static net.novaware.chip8.core.cpu.unit.UnitModule.SOUND;
-import static net.novaware.chip8.core.memory.MemoryModule.MMU;
-
-/**
- * Central Processing Unit (CPU)
- */
-@BoardScope
-public class Cpu implements Unit {
-
-    public interface Config {
-
-    }
-
-    @Owned
-    private final Config config;
-
-    @Owned
-    private final RegisterFile registers;
-
-    @Owned
-    private final ControlUnit controlUnit;
-
-    @Owned
-    private final LoadStore lsu;
-
-    @Owned
-    private final ArithmeticLogic alu;
-
-    @Owned
-    private final AddressGen agu;
-
-    @Owned
-    private final StackEngine stackEngine;
-
-    @Owned
-    private final PowerMgmt powerMgmt;
-
-    @Owned
-    private final Gpu gpu;
-
-    @Owned
-    private final Timer delayTimer;
-
-    @Owned
-    private final Timer soundTimer;
-
-    @Used
-    private final Memory memory;
-
-    @Inject
-    public Cpu(
-        final Config config,
-        @Named(MMU) final Memory memory,
-        final RegisterFile registers,
-
-        final LoadStore lsu,
-        final ArithmeticLogic alu,
-        final AddressGen agu,
-        final StackEngine stackEngine,
-        final PowerMgmt powerMgmt,
-        final Gpu gpu,
-
-        final ControlUnit controlUnit,
-
-        @Named(DELAY) final Timer delayTimer,
-        @Named(SOUND) final Timer soundTimer
-    ) {
-        this.config = config;
-        this.memory = memory;
-        this.registers = registers;
-
-        this.lsu = lsu;
-        this.alu = alu;
-        this.agu = agu;
-        this.stackEngine = stackEngine;
-        this.powerMgmt = powerMgmt;
-        this.gpu = gpu;
-
-        this.controlUnit = controlUnit;
-
-        this.delayTimer = delayTimer;
-        this.soundTimer = soundTimer;
-    }
-
-    @Override
-    public void initialize() {
-        lsu.initialize();
-        alu.initialize();
-        agu.initialize();
-        stackEngine.initialize();
-        powerMgmt.initialize();
-
-        controlUnit.initialize();
-
-        delayTimer.initialize();
-        soundTimer.initialize();
-
-        //unhalt / start clock after input change
-        registers.getInput().subscribe(in -> {
-            powerMgmt.cont();
-            powerMgmt.startClock();
-        });
-    }
-
-    public void sleep() {
-        powerMgmt.sleep();
-    }
-
-    public void wakeUp() {
-        powerMgmt.wakeUp();
-    }
-
-    @Override
-    public void reset() {
-        lsu.reset();
-        alu.reset();
-        agu.reset();
-        stackEngine.reset();
-        powerMgmt.reset();
-        gpu.reset();
-
-        controlUnit.reset();
-
-        delayTimer.reset();
-        soundTimer.reset();
-
-        registers.getStatusType().set(VF_EMPTY);
-    }
-
-    public RegisterFile getRegisters() {
-        return registers;
-    }
-
-    /**
-     * Virtual Chip8 Processor cycle.
-     * <p>
-     * On the original - CDP18S711, single virtual instruction could take
-     * multiple instructions / cycles to complete.
-     * <p>
-     * Supports clock gating
-     */
-    public void cycle() {
-        if (registers.getCpuState().get() == OPERATING.value()) {
-            cycle0();
-        }
-    }
-
-    private void cycle0() {
-        controlUnit.fetch();
-        controlUnit.decode();
-        controlUnit.execute();
-    }
-
-    /**
-     * Supports clock gating
-     */
-    public void delayTick() {
-        if (registers.getCpuState().get() == OPERATING.value()) {
-            delayTimer.tick();
-        }
-    }
-
-    /**
-     * Supports clock gating
-     */
-    public void soundTick() {
-        if (registers.getCpuState().get() == OPERATING.value()) {
-            soundTimer.tick();
-        }
-    }
-}
+package net.novaware.chip8.core.cpu;
+
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
+import net.novaware.chip8.core.config.CpuEngine;
+import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.cpu.unit.*;
+import net.novaware.chip8.core.gpu.Gpu;
+import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.util.DirtySet;
+import net.novaware.chip8.core.util.ExecutionTrace;
+import net.novaware.chip8.core.util.di.BoardScope;
+import net.novaware.chip8.core.util.uml.Owned;
+import net.novaware.chip8.core.util.uml.Used;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import static java.util.Arrays.stream;
+import static net.novaware.chip8.core.cpu.CpuState.IDLE;
+import static net.novaware.chip8.core.cpu.CpuState.OPERATING;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.VF_EMPTY;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_PROGRAM_COUNTER;
+import static net.novaware.chip8.core.cpu.unit.UnitModule.DELAY;
+import static net.novaware.chip8.core.cpu.unit.UnitModule.SOUND;
+import static net.novaware.chip8.core.memory.MemoryModule.MMU;
+
+/**
+ * Central Processing Unit (CPU)
+ */
+@BoardScope
+public class Cpu implements Unit {
+
+    public interface Config {
+
+        /**
+         * Strategy used to run the program
+         */
+        CpuEngine getCpuEngine();
+
+        /**
+         * If true, register change notifications are coalesced and dispatched at the end of the cycle,
+         * otherwise subscribers are called synchronously in the middle of the instruction
+         */
+        boolean isDeferredEvents();
+
+        /**
+         * If true, the engine counts executed instructions and cycles spent in other states in
+         * the {@link ExecutionProfile}. {@link CpuEngine#RECOMPILER} runs {@link CpuEngine#THREADED} then,
+         * as compiled blocks execute many instructions at once
+         */
+        boolean isProfiling();
+    }
+
+    // Engine variants, the profiling ones are separate so the plain ones don't check for it
+    private static final int INTERPRETER = 0;
+    private static final int THREADED = 1;
+    private static final int RECOMPILER = 2;
+    private static final int PROFILED_INTERPRETER = 3;
+    private static final int PROFILED_THREADED = 4;
+
+    @Owned
+    private final Config config;
+
+    @Owned
+    private final RegisterFile registers;
+
+    @Owned
+    private final ControlUnit controlUnit;
+
+    @Owned
+    private final LoadStore lsu;
+
+    @Owned
+    private final ArithmeticLogic alu;
+
+    @Owned
+    private final AddressGen agu;
+
+    @Owned
+    private final StackEngine stackEngine;
+
+    @Owned
+    private final PowerMgmt powerMgmt;
+
+    @Owned
+    private final Gpu gpu;
+
+    @Owned
+    private final Recompiler recompiler;
+
+    @Owned
+    private final Timer delayTimer;
+
+    @Owned
+    private final Timer soundTimer;
+
+    @Owned
+    private final DirtySet events;
+
+    @Owned
+    private final ExecutionTrace trace;
+
+    @Owned
+    private final ExecutionProfile profile;
+
+    @Used
+    private final Memory memory;
+
+    @Owned
+    private final Bus profileBus;
+
+    private int engine = INTERPRETER;
+
+    @Inject
+    public Cpu(
+        final Config config,
+        @Named(MMU) final Memory memory,
+        final RegisterFile registers,
+        final DirtySet events,
+        final ExecutionTrace trace,
+        final ExecutionProfile profile,
+
+        final LoadStore lsu,
+        final ArithmeticLogic alu,
+        final AddressGen agu,
+        final StackEngine stackEngine,
+        final PowerMgmt powerMgmt,
+        final Gpu gpu,
+
+        final ControlUnit controlUnit,
+        final Recompiler recompiler,
+
+        @Named(DELAY) final Timer delayTimer,
+        @Named(SOUND) final Timer soundTimer
+    ) {
+        this.config = config;
+        this.memory = memory;
+        this.registers = registers;
+        this.events = events;
+        this.trace = trace;
+        this.profile = profile;
+        this.profileBus = new MemoryBus(memory);
+
+        this.lsu = lsu;
+        this.alu = alu;
+        this.agu = agu;
+        this.stackEngine = stackEngine;
+        this.powerMgmt = powerMgmt;
+        this.gpu = gpu;
+
+        this.controlUnit = controlUnit;
+        this.recompiler = recompiler;
+
+        this.delayTimer = delayTimer;
+        this.soundTimer = soundTimer;
+    }
+
+    @Override
+    public void initialize() {
+        selectEngine();
+
+        registers.deferTo(events);
+        events.setEnabled(config.isDeferredEvents());
+
+        lsu.initialize();
+        alu.initialize();
+        agu.initialize();
+        stackEngine.initialize();
+        powerMgmt.initialize();
+
+        controlUnit.initialize();
+        recompiler.initialize();
+
+        delayTimer.initialize();
+        soundTimer.initialize();
+
+        //unhalt / start clock / unpark after input change
+        registers.getInput().subscribe(in -> {
+            powerMgmt.cont();
+            powerMgmt.startClock();
+            powerMgmt.unpark();
+        });
+    }
+
+    public void sleep() {
+        powerMgmt.sleep();
+    }
+
+    public void wakeUp() {
+        powerMgmt.wakeUp();
+    }
+
+    private void selectEngine() {
+        final CpuEngine configured = config.getCpuEngine();
+        final boolean profiling = config.isProfiling() && profile.isEnabled();
+
+        if (configured == CpuEngine.THREADED || configured == CpuEngine.RECOMPILER && profiling) {
+            engine = profiling ? PROFILED_THREADED : THREADED;
+        } else if (configured == CpuEngine.RECOMPILER) {
+            engine = RECOMPILER;
+        } else {
+            engine = profiling ? PROFILED_INTERPRETER : INTERPRETER;
+        }
+    }
+
+    @Override
+    public void reset() {
+        selectEngine();
+        events.setEnabled(config.isDeferredEvents());
+
+        lsu.reset();
+        alu.reset();
+        agu.reset();
+        stackEngine.reset();
+        powerMgmt.reset();
+        gpu.reset();
+
+        controlUnit.reset();
+        recompiler.reset();
+
+        delayTimer.reset();
+        soundTimer.reset();
+
+        registers.getStatusType().set(VF_EMPTY);
+    }
+
+    /**
+     * Brings back the state after construction, subscriptions made by {@link #initialize()} stay
+     */
+    public void recycle() {
+        reset();
+        events.setEnabled(false); // dispatches the pending ones
+        trace.clear();
+        profile.clear();
+        registers.clear();
+    }
+
+    public RegisterFile getRegisters() {
+        return registers;
+    }
+
+    public ExecutionTrace getExecutionTrace() {
+        return trace;
+    }
+
+    public ExecutionProfile getExecutionProfile() {
+        return profile;
+    }
+
+    /**
+     * Virtual Chip8 Processor cycle.
+     * <p>
+     * On the original - CDP18S711, single virtual instruction could take
+     * multiple instructions / cycles to complete.
+     * <p>
+     * Supports clock gating, dispatches deferred events even if the CPU is not operating
+     */
+    public void cycle() {
+        trace.tick();
+
+        cycle0(registers.getCpuState().get());
+
+        dispatchEvents();
+    }
+
+    private void dispatchEvents() {
+        if (events.isDirty()) {
+            events.flush();
+        }
+    }
+
+    /**
+     * Runs the instruction if the CPU is operating, the profiled engines count the cycles spent in other states
+     */
+    private void cycle0(final byte state) {
+        final boolean operating = state == OPERATING.value();
+
+        switch (engine) {
+            case RECOMPILER:
+                if (operating && !recompiler.dispatch(controlUnit)) {
+                    controlUnit.dispatch(); // cold code stays threaded
+                }
+                break;
+            case THREADED:
+                if (operating) {
+                    controlUnit.dispatch();
+                }
+                break;
+            case PROFILED_THREADED:
+                if (operating) {
+                    profile();
+                    controlUnit.dispatch();
+                } else {
+                    profile.recordState(state);
+                }
+                break;
+            case PROFILED_INTERPRETER:
+                if (operating) {
+                    profile();
+                    controlUnit.fetch();
+                    controlUnit.decode();
+                    controlUnit.execute();
+                } else {
+                    profile.recordState(state);
+                }
+                break;
+            default:
+                if (operating) {
+                    controlUnit.fetch();
+                    controlUnit.decode();
+                    controlUnit.execute();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Counts the instruction about to be executed, before it can modify itself
+     */
+    private void profile() {
+        final short pc = registers.getWordStore()[WS_PROGRAM_COUNTER];
+
+        profileBus.specify(pc);
+        profile.record(pc, profileBus.readWord());
+    }
+
+    /**
+     * Supports clock gating, unparks the CPU when the timer changes
+     */
+    public void delayTick() {
+        final byte state = registers.getCpuState().get();
+
+        if (state == OPERATING.value()) {
+            delayTimer.tick();
+        } else if (state == IDLE.value() && delayTimer.tick()) {
+            powerMgmt.unpark();
+        }
+
+        dispatchEvents();
+    }
+
+    /**
+     * Supports clock gating
+     */
+    public void soundTick() {
+        final byte state = registers.getCpuState().get();
+
+        if (state == OPERATING.value() || state == IDLE.value()) {
+            soundTimer.tick();
+        }
+
+        dispatchEvents();
+    }
+}
@@ -16,6 +16,13 @@ public enum CpuState {
      * Cpu working normally
      */
     OPERATING(0x00),
+    /**
+     * {@link ClockGenerator} running, CPU parked in a busy waiting loop.
+     * <p>
+     * Triggered by a polling loop which only the delay timer tick or input change can break.
+     * Both bring it back to {@link #OPERATING}
+     */
+    IDLE(0x08),
     /**
      * {@link ClockGenerator} paused, input wakes it up
      * <p>
@@ -0,0 +1,104 @@
+package net.novaware.chip8.core.cpu;
+
+import net.novaware.chip8.core.cpu.instruction.DecodeTable;
+import net.novaware.chip8.core.cpu.instruction.InstructionType;
+import org.checkerframework.checker.signedness.qual.Unsigned;
+
+import static java.util.Arrays.fill;
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+
+/**
+ * Counts executed instructions per {@link InstructionType} and per address, and the cycles spent in each
+ * {@link CpuState} other than {@link CpuState#OPERATING}. Counters are plain primitives written only by the thread
+ * running the board, other threads should read a {@link #copy()} made on that thread.
+ */
+public class ExecutionProfile {
+
+    public static final int ADDRESS_SPACE = 0x1000;
+
+    private static final int TYPE_SLOTS = 64; // DecodeTable type bits, the last one is taken by unknown instructions
+    private static final int UNKNOWN_SLOT = DecodeTable.typeOrdinal(DecodeTable.UNKNOWN);
+
+    private static final int STATE_SHIFT = 3;
+    private static final int STATE_SLOTS = 8;
+
+    private final long[] types;
+    private final long[] addresses;
+    private final long[] states;
+
+    public ExecutionProfile() {
+        this(new long[TYPE_SLOTS], new long[ADDRESS_SPACE], new long[STATE_SLOTS]);
+    }
+
+    private ExecutionProfile(final long[] types, final long[] addresses, final long[] states) {
+        this.types = types;
+        this.addresses = addresses;
+        this.states = states;
+    }
+
+    /**
+     * @return profile which doesn't count anything, not shared as every board owns its own
+     */
+    public static ExecutionProfile disabled() {
+        return new ExecutionProfile(new long[0], new long[0], new long[0]);
+    }
+
+    public boolean isEnabled() {
+        return types.length > 0;
+    }
+
+    /**
+     * Counts the instruction about to be executed at the address
+     */
+    public void record(final @Unsigned short address, final @Unsigned short instruction) {
+        ++types[DecodeTable.typeOrdinal(DecodeTable.getInstance().lookup(instruction))];
+        ++addresses[uint(address) & (ADDRESS_SPACE - 1)];
+    }
+
+    /**
+     * Counts the cycle spent in the state, see {@link CpuState#value()}
+     */
+    public void recordState(final @Unsigned byte state) {
+        ++states[(uint(state) >>> STATE_SHIFT) & (STATE_SLOTS - 1)];
+    }
+
+    public long getInstructionCount(final InstructionType type) {
+        requireNonNull(type, "type must not be null");
+
+        return isEnabled() ? types[type.ordinal()] : 0;
+    }
+
+    public long getUnknownCount() {
+        return isEnabled() ? types[UNKNOWN_SLOT] : 0;
+    }
+
+    public long getAddressHits(final int address) {
+        assertArgument(address >= 0 && address < ADDRESS_SPACE, "address must be between 0 and 0xFFF");
+
+        return isEnabled() ? addresses[address] : 0;
+    }
+
+    public long getStateCycles(final CpuState state) {
+        requireNonNull(state, "state must not be null");
+
+        return isEnabled() ? states[(uint(state.value()) >>> STATE_SHIFT) & (STATE_SLOTS - 1)] : 0;
+    }
+
+    /**
+     * @return detached copy of the counters, safe to hand over to another thread
+     */
+    public ExecutionProfile copy() {
+        return new ExecutionProfile(types.clone(), addresses.clone(), states.clone());
+    }
+
+    /**
+     * Zeroes all the counters
+     */
+    public void clear() {
+        fill(types, 0);
+        fill(addresses, 0);
+        fill(states, 0);
+    }
+}
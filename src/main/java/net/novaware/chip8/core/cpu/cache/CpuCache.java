@@ -1,22 +1,79 @@
 package net.novaware.chip8.core.cpu.cache;
 
+import net.novaware.chip8.core.cpu.instruction.InstructionType;
+import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.memory.SplittableMemory;
+import net.novaware.chip8.core.util.di.BoardScope;
+import net.novaware.chip8.core.util.uml.Used;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signedness.qual.Unsigned;
 
-import java.util.ArrayList;
-import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
-//XXX: WIP, annotates memory locations to speed up execution and display sprites
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM;
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM_END;
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM_START;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+
+/**
+ * Annotates memory locations of the program region to speed up execution.
+ * <p>
+ * Holds an entry per address with a handler pre-bound to the decoded instruction (threaded code).
+ * Entries are invalidated when the program memory gets written to.
+ */
+@BoardScope
 public class CpuCache {
 
-    private class Entry {
-        @Unsigned short address;
-        @Unsigned int size;
-        List<EntryType> types = new ArrayList<>();
-        String label = "";
-        Runnable exec = () -> {};
+    public static final int INSTRUCTION_SIZE = 2;
+
+    public static final class Entry {
+        private final @Unsigned short address;
+        private final @Unsigned int size;
+        private final Set<EntryType> types;
+        private final @Unsigned short instruction;
+        private final String label;
+        private final Runnable exec;
+
+        public Entry(final @Unsigned short address, final @Unsigned int size, final Set<EntryType> types,
+                     final @Unsigned short instruction, final String label, final Runnable exec) {
+            this.address = address;
+            this.size = size;
+            this.types = types;
+            this.instruction = instruction;
+            this.label = label;
+            this.exec = exec;
+        }
+
+        public @Unsigned short getAddress() {
+            return address;
+        }
+
+        public @Unsigned int getSize() {
+            return size;
+        }
+
+        public Set<EntryType> getTypes() {
+            return types;
+        }
+
+        public @Unsigned short getInstruction() {
+            return instruction;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Runnable getExec() {
+            return exec;
+        }
     }
 
-    private enum EntryType {
+    public enum EntryType {
         INSTRUCTION,
         BRANCH,
         JUMP_SOURCE,
@@ -27,6 +84,8 @@ public class CpuCache {
         KEY_CHECK,
         KEY_WAIT,
 
+        //TODO: not assigned yet, entries are made only for executed instructions, data pointed by I would need
+        //      to be annotated by DXYK (sprites), FX33 (BCD) and FX55 / FX65 (variables) to show it in a debugger
         DATA,
         SPRITE,
         VARIABLES,
@@ -34,4 +93,92 @@ public class CpuCache {
 
         UNKNOWN,
     }
+
+    private static final int START = uint(PROGRAM_START);
+    private static final int END = uint(PROGRAM_END) - INSTRUCTION_SIZE + 1; // last address that fits the instruction
+
+    @Used
+    private final Memory program;
+
+    private final @Nullable Entry[] entries;
+
+    @Inject
+    public CpuCache(@Named(PROGRAM) final Memory program) {
+        this.program = program;
+        this.entries = new Entry[END - START + 1];
+    }
+
+    public void initialize() {
+        if (program instanceof SplittableMemory) { //TODO: add check
+            ((SplittableMemory) program).addWriteListener(
+                    (address, length) -> invalidate(uint(address) + START, length)
+            );
+        }
+
+        clear();
+    }
+
+    public void reset() {
+        clear();
+    }
+
+    public boolean isCacheable(final @Unsigned short address) {
+        final int a = uint(address);
+        return a >= START && a <= END;
+    }
+
+    public @Nullable Entry get(final @Unsigned short address) {
+        final int index = uint(address) - START;
+
+        if (index < 0 || index >= entries.length) {
+            return null;
+        }
+
+        return entries[index];
+    }
+
+    public void put(final Entry entry) {
+        if (!isCacheable(entry.getAddress())) {
+            throw new IllegalArgumentException("address outside of the program region");
+        }
+
+        entries[uint(entry.getAddress()) - START] = entry;
+    }
+
+    /**
+     * Drops every entry overlapping given range of absolute addresses
+     */
+    public void invalidate(final int address, final int length) {
+        final int from = Math.max(address - INSTRUCTION_SIZE + 1 - START, 0);
+        final int to = Math.min(address + length - START, entries.length);
+
+        for (int i = from; i < to; ++i) {
+            entries[i] = null;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(entries, null);
+    }
+
+    public static Set<EntryType> typesOf(final InstructionType type) {
+        final Set<EntryType> types = EnumSet.of(EntryType.INSTRUCTION);
+
+        switch (type) {
+            case Ox1MMM:
+            case OxBMMM: types.add(EntryType.JUMP_SOURCE); break;
+            case Ox2MMM: types.add(EntryType.SUBROUTINE_CALL); break;
+            case Ox00EE: types.add(EntryType.SUBROUTINE_END); break;
+            case Ox3XKK:
+            case Ox4XKK:
+            case Ox5XY0:
+            case Ox9XY0: types.add(EntryType.BRANCH); break;
+            case OxEX9E:
+            case OxEXA1: types.add(EntryType.BRANCH); types.add(EntryType.KEY_CHECK); break;
+            case OxFX0A: types.add(EntryType.KEY_WAIT); break;
+            default: break;
+        }
+
+        return types;
+    }
 }
@@ -0,0 +1,119 @@
+package net.novaware.chip8.core.cpu.instruction;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signedness.qual.Unsigned;
+
+import java.util.List;
+
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Flat, precomputed decode table covering the whole 16-bit instruction space.
+ * <p>
+ * Every instruction is decoded once, when the table is built. Each entry packs the instruction type and its
+ * parameters into a single int, so decoding at runtime is one array load and a couple of shifts:
+ * <pre>
+ *  bits 24-29 - {@link InstructionType} ordinal
+ *  bits 20-23 - 3rd param (4 bits, e.g. K in DXYK)
+ *  bits 12-19 - 2nd param (8 bits, e.g. Y or KK)
+ *  bits  0-11 - 1st param (12 bits, e.g. X or MMM)
+ * </pre>
+ * Unsupported instructions are marked with {@link #UNKNOWN}.
+ * <p>
+ * Table is immutable, the default instance is shared between all the boards.
+ */
+public final class DecodeTable {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int SIZE = 0x10000;
+
+    private static final int PARAM_1_MASK = 0xFFF;
+    private static final int PARAM_2_SHIFT = 12;
+    private static final int PARAM_2_MASK = 0xFF;
+    private static final int PARAM_3_SHIFT = 20;
+    private static final int PARAM_3_MASK = 0xF;
+    private static final int TYPE_SHIFT = 24;
+    private static final int TYPE_MASK = 0x3F;
+
+    private static final @Unsigned short[] opcodes = toOpCodes(InstructionType.getInstances());
+
+    private static final class DefaultHolder {
+        private static final DecodeTable INSTANCE = new DecodeTable(new InstructionRegistry());
+    }
+
+    private final int[] entries;
+
+    public DecodeTable(final InstructionRegistry registry) {
+        entries = new int[SIZE];
+
+        for (int i = 0; i < SIZE; ++i) {
+            entries[i] = toEntry(registry.getDefinition(ushort(i)), ushort(i));
+        }
+    }
+
+    public static DecodeTable getInstance() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * @return packed entry or {@link #UNKNOWN} if instruction is not supported
+     */
+    public int lookup(final @Unsigned short instruction) {
+        return entries[uint(instruction)];
+    }
+
+    public static int typeOrdinal(final int entry) {
+        return (entry >>> TYPE_SHIFT) & TYPE_MASK;
+    }
+
+    public static InstructionType type(final int entry) {
+        return InstructionType.getInstances().get(typeOrdinal(entry));
+    }
+
+    public static @Unsigned short opcode(final int entry) {
+        return opcodes[typeOrdinal(entry)];
+    }
+
+    public static @Unsigned short param1(final int entry) {
+        return ushort(entry & PARAM_1_MASK);
+    }
+
+    public static @Unsigned short param2(final int entry) {
+        return ushort((entry >>> PARAM_2_SHIFT) & PARAM_2_MASK);
+    }
+
+    public static @Unsigned short param3(final int entry) {
+        return ushort((entry >>> PARAM_3_SHIFT) & PARAM_3_MASK);
+    }
+
+    private static int toEntry(final @Nullable InstructionDefinition def, final @Unsigned short instruction) {
+        if (def == null) {
+            return UNKNOWN;
+        }
+
+        final int p1 = uint(def.getParam(0, instruction));
+        final int p2 = uint(def.getParam(1, instruction));
+        final int p3 = uint(def.getParam(2, instruction));
+
+        if (p1 > PARAM_1_MASK || p2 > PARAM_2_MASK || p3 > PARAM_3_MASK) {
+            throw new IllegalStateException("params of " + def.getInstructionType() + " do not fit the decode table");
+        }
+
+        return def.getInstructionType().ordinal() << TYPE_SHIFT
+                | p3 << PARAM_3_SHIFT
+                | p2 << PARAM_2_SHIFT
+                | p1;
+    }
+
+    private static @Unsigned short[] toOpCodes(final List<InstructionType> types) {
+        final @Unsigned short[] result = new short[types.size()];
+
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = types.get(i).opcode();
+        }
+
+        return result;
+    }
+}
@@ -4,10 +4,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signedness.qual.Unsigned;
 
 import java.util.List;
-import java.util.Map;
 
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toUnmodifiableMap;
 import static net.novaware.chip8.core.cpu.instruction.InstructionMask.*;
 import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 
@@ -338,9 +335,6 @@ public enum InstructionType {
 
     private static final List<InstructionType> instances = List.of(values());
 
-    private static final Map<Short, InstructionType> byOpCode = getInstances().stream()
-            .collect(toUnmodifiableMap(InstructionType::opcode, identity()));
-
     private final @Unsigned short opcode;
 
     private final @Unsigned short mask;
@@ -364,7 +358,7 @@ public enum InstructionType {
      * @return null if opcode is unrecognized
      */
     public static @Nullable InstructionType valueOf(int opcode) {
-        return byOpCode.get(ushort(opcode));
+        return valueOf(ushort(opcode));
     }
 
     /**
@@ -373,7 +367,13 @@ public enum InstructionType {
      * @return null if opcode is unrecognized
      */
     public static @Nullable InstructionType valueOf(short opcode) {
-        return byOpCode.get(opcode);
+        final int entry = DecodeTable.getInstance().lookup(opcode);
+
+        if (entry == DecodeTable.UNKNOWN || DecodeTable.opcode(entry) != opcode) {
+            return null;
+        }
+
+        return DecodeTable.type(entry);
     }
 
     /**
@@ -8,28 +8,45 @@ import static net.novaware.chip8.core.util.UnsignedUtil.uint;
  */
 public class ByteRegister extends Register<ByteRegister> {
 
-    private byte data;
+    private final byte[] store;
+    private final int offset;
 
     public ByteRegister(String name) {
         super(name);
+
+        this.store = new byte[1];
+        this.offset = 0;
     }
 
     public ByteRegister(String name, boolean preventRecursivePublish) {
         super(name, preventRecursivePublish);
+
+        this.store = new byte[1];
+        this.offset = 0;
+    }
+
+    /**
+     * Not observable view on the shared store
+     */
+    public ByteRegister(String name, byte[] store, int offset) {
+        super(name, false, true);
+
+        this.store = store;
+        this.offset = offset;
     }
 
     public byte get() {
-        return data;
+        return store[offset];
     }
 
     public int getAsInt() {
-        return uint(data);
+        return uint(store[offset]);
     }
 
     public void set(byte data) {
-        this.data = data;
+        store[offset] = data;
 
-        pubSub.publish();
+        publish();
     }
 
     public void set(short data) {
@@ -39,4 +56,18 @@ public class ByteRegister extends Register<ByteRegister> {
     public void set(int data) {
         set(ubyte(data));
     }
+
+    /**
+     * Zeroes the value without notifying the subscribers
+     */
+    public void clear() {
+        store[offset] = 0;
+    }
+
+    /**
+     * Sets the value without notifying the subscribers, e.g. when restoring a snapshot
+     */
+    public void restore(final byte data) {
+        store[offset] = data;
+    }
 }
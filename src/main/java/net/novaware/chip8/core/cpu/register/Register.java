@@ -1,5 +1,6 @@
 package net.novaware.chip8.core.cpu.register;
 
+import net.novaware.chip8.core.util.DirtySet;
 import net.novaware.chip8.core.util.PubSub;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,6 +10,9 @@ import java.util.function.Consumer;
 
 /**
  * Base register class. Contains name property which is only used for debugging
+ * <p>
+ * Registers which are views on a shared primitive store (see {@link RegisterModule}) are not observable,
+ * units write the store directly bypassing {@link PubSub}.
  */
 public abstract class Register<T extends Register<?>> {
 
@@ -16,23 +20,31 @@ public abstract class Register<T extends Register<?>> {
 
     private final String name;
 
-    protected PubSub<T> pubSub;
+    protected final @Nullable PubSub<T> pubSub;
 
     protected Register(String name) {
         this(name, true);
     }
 
-    @SuppressWarnings("unchecked")
     protected Register(String name, boolean preventRecursivePublish) {
+        this(name, true, preventRecursivePublish);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Register(String name, boolean observable, boolean preventRecursivePublish) {
         this.name = name;
 
-        pubSub = new PubSub<>((T) this, preventRecursivePublish);
+        pubSub = observable ? new PubSub<>((T) this, preventRecursivePublish) : null;
     }
 
     public String getName() {
         return name;
     }
 
+    public boolean isObservable() {
+        return pubSub != null;
+    }
+
     /**
      * Will be called after register value change.
      * @param subscriber
@@ -42,8 +54,28 @@ public abstract class Register<T extends Register<?>> {
             return; // ignore null
         }
 
+        if (pubSub == null) {
+            throw new UnsupportedOperationException(name + " register is not observable");
+        }
+
         LOG.info(() -> "Subscribing to " + name + " register events");
 
         this.pubSub.subscribe(subscriber);
     }
+
+    /**
+     * Defers change notifications to the dirty set while it's enabled.
+     * Not observable registers have nothing to defer.
+     */
+    public void deferTo(DirtySet dirtySet) {
+        if (pubSub != null) {
+            pubSub.deferTo(dirtySet);
+        }
+    }
+
+    protected final void publish() {
+        if (pubSub != null) {
+            pubSub.publish();
+        }
+    }
 }
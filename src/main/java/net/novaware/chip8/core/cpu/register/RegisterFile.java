@@ -1,10 +1,13 @@
 package net.novaware.chip8.core.cpu.register;
 
+import net.novaware.chip8.core.util.DirtySet;
 import net.novaware.chip8.core.util.di.BoardScope;
 import net.novaware.chip8.core.util.uml.Owned;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static net.novaware.chip8.core.cpu.register.RegisterModule.*;
 import static net.novaware.chip8.core.util.UnsignedUtil.uint;
@@ -29,6 +32,33 @@ public class RegisterFile {
     public static final byte VF_MSB = 0x05;
     public static final byte VF_COLLISION = 0x06;
 
+    // Offsets of the registers in the word store
+    public static final int WS_INDEX = 0;
+    public static final int WS_MEMORY_ADDRESS = 1;
+    public static final int WS_PROGRAM_COUNTER = 2;
+    public static final int WS_STACK_POINTER = 3;
+    public static final int WS_CURRENT_INSTRUCTION = 4;
+    public static final int WS_DECODED_INSTRUCTION = 5; // 4 consecutive slots
+    public static final int WS_SIZE = 9;
+
+    /**
+     * Variables, word store, 7 byte and 6 word registers
+     */
+    public static final int SNAPSHOT_SIZE = VARIABLES_SIZE + WS_SIZE * Short.BYTES + 7 + 6 * Short.BYTES;
+
+    /**
+     * Backs the variables, hot units index it directly
+     */
+    @Owned
+    private final byte[] variableStore;
+
+    /**
+     * Backs index, memory address, program counter, stack pointer and instruction registers,
+     * hot units index it directly
+     */
+    @Owned
+    private final short[] wordStore;
+
     /**
      * Describes the state of CPU
      */
@@ -160,13 +190,16 @@ public class RegisterFile {
     private final WordRegister currentInstruction;
 
     /**
-     * Currently decoded instruction with parameters (up to 3)
+     * Currently decoded instruction, {@link net.novaware.chip8.core.cpu.instruction.InstructionType#ordinal()}
+     * followed by the parameters (up to 3)
      */
     @Owned
     private final WordRegister[] decodedInstruction;
 
     @Inject
     public RegisterFile(
+        @Named(VARIABLE_STORE) final byte[] variableStore,
+        @Named(WORD_STORE) final short[] wordStore,
         @Named(CPU_STATE) final ByteRegister cpuState,
         @Named(VARIABLES) final ByteRegister[] variables,
         @Named(STATUS_TYPE) final ByteRegister statusType,
@@ -188,6 +221,9 @@ public class RegisterFile {
         @Named(CURRENT_INSTRUCTION) final WordRegister currentInstruction,
         @Named(DECODED_INSTRUCTION) final WordRegister[] decodedInstruction
     ) {
+        this.variableStore = variableStore;
+        this.wordStore = wordStore;
+
         this.cpuState = cpuState;
 
         this.variables = variables;
@@ -219,6 +255,102 @@ public class RegisterFile {
         this.decodedInstruction = decodedInstruction;
     }
 
+    /**
+     * Defers notifications of the registers observed by the ports and timers
+     */
+    public void deferTo(final DirtySet dirtySet) {
+        cpuState.deferTo(dirtySet);
+        graphicChange.deferTo(dirtySet);
+        input.deferTo(dirtySet);
+        inputCheck.deferTo(dirtySet);
+        output.deferTo(dirtySet);
+        delay.deferTo(dirtySet);
+        sound.deferTo(dirtySet);
+        soundOn.deferTo(dirtySet);
+    }
+
+    /**
+     * Zeroes all the registers without notifying the subscribers, as they are after construction
+     */
+    public void clear() {
+        Arrays.fill(variableStore, (byte) 0);
+        Arrays.fill(wordStore, (short) 0);
+
+        cpuState.clear();
+        statusType.clear();
+        stackSegment.clear();
+        fontSegment.clear();
+        graphicSegment.clear();
+        graphicChange.clear();
+        input.clear();
+        inputCheck.clear();
+        output.clear();
+        storage.clear();
+        delay.clear();
+        sound.clear();
+        soundOn.clear();
+    }
+
+    /**
+     * Writes all the registers, {@link #SNAPSHOT_SIZE} bytes
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.put(variableStore);
+
+        for (short word : wordStore) {
+            buffer.putShort(word);
+        }
+
+        buffer.put(cpuState.get());
+        buffer.put(statusType.get());
+        buffer.put(graphicChange.get());
+        buffer.put(inputCheck.get());
+        buffer.put(delay.get());
+        buffer.put(sound.get());
+        buffer.put(soundOn.get());
+
+        buffer.putShort(stackSegment.get());
+        buffer.putShort(fontSegment.get());
+        buffer.putShort(graphicSegment.get());
+        buffer.putShort(input.get());
+        buffer.putShort(output.get());
+        buffer.putShort(storage.get());
+    }
+
+    /**
+     * Reads the registers written by {@link #snapshot(ByteBuffer)} without notifying the subscribers
+     */
+    public void restore(final ByteBuffer buffer) {
+        buffer.get(variableStore);
+
+        for (int i = 0; i < wordStore.length; ++i) {
+            wordStore[i] = buffer.getShort();
+        }
+
+        cpuState.restore(buffer.get());
+        statusType.restore(buffer.get());
+        graphicChange.restore(buffer.get());
+        inputCheck.restore(buffer.get());
+        delay.restore(buffer.get());
+        sound.restore(buffer.get());
+        soundOn.restore(buffer.get());
+
+        stackSegment.restore(buffer.getShort());
+        fontSegment.restore(buffer.getShort());
+        graphicSegment.restore(buffer.getShort());
+        input.restore(buffer.getShort());
+        output.restore(buffer.getShort());
+        storage.restore(buffer.getShort());
+    }
+
+    public byte[] getVariableStore() {
+        return variableStore;
+    }
+
+    public short[] getWordStore() {
+        return wordStore;
+    }
+
     public ByteRegister getCpuState() {
         return cpuState;
     }
@@ -11,6 +11,17 @@ public class RegisterModule {
 
     public static final String CPU_STATE = "cpuState";
 
+    /**
+     * Primitive store backing the variables
+     */
+    public static final String VARIABLE_STORE = "variableStore";
+
+    /**
+     * Primitive store backing the hot address and instruction registers,
+     * see {@link RegisterFile#WS_INDEX} and others
+     */
+    public static final String WORD_STORE = "wordStore";
+
     public static final String VARIABLES = "variables";
     public static final int VARIABLES_SIZE = 16;
 
@@ -51,14 +62,28 @@ public class RegisterModule {
         return new ByteRegister("PS"); // Processor State
     }
 
+    @Provides
+    @BoardScope
+    @Named(VARIABLE_STORE)
+    static byte[] provideVariableStore() {
+        return new byte[VARIABLES_SIZE];
+    }
+
+    @Provides
+    @BoardScope
+    @Named(WORD_STORE)
+    static short[] provideWordStore() {
+        return new short[RegisterFile.WS_SIZE];
+    }
+
     @Provides
     @BoardScope
     @Named(VARIABLES)
-    static ByteRegister[] provideVariables() {
+    static ByteRegister[] provideVariables(@Named(VARIABLE_STORE) final byte[] store) {
         final ByteRegister[] variables = new ByteRegister[VARIABLES_SIZE];
 
         for(int i = 0; i < variables.length; ++i) {
-            variables[i] = new ByteRegister("V" + i);
+            variables[i] = new ByteRegister("V" + i, store, i);
         }
 
         return variables;
@@ -81,22 +106,22 @@ public class RegisterModule {
     @Provides
     @BoardScope
     @Named(INDEX)
-    static WordRegister provideIndex() {
-        return new WordRegister("I");
+    static WordRegister provideIndex(@Named(WORD_STORE) final short[] store) {
+        return new WordRegister("I", store, RegisterFile.WS_INDEX);
     }
 
     @Provides
     @BoardScope
     @Named(MEMORY_ADDRESS)
-    static TribbleRegister provideMemoryAddress() {
-        return new TribbleRegister("MAR");
+    static TribbleRegister provideMemoryAddress(@Named(WORD_STORE) final short[] store) {
+        return new TribbleRegister("MAR", store, RegisterFile.WS_MEMORY_ADDRESS);
     }
 
     @Provides
     @BoardScope
     @Named(PROGRAM_COUNTER)
-    static TribbleRegister provideProgramCounter() {
-        return new TribbleRegister("PC");
+    static TribbleRegister provideProgramCounter(@Named(WORD_STORE) final short[] store) {
+        return new TribbleRegister("PC", store, RegisterFile.WS_PROGRAM_COUNTER);
     }
 
     @Provides
@@ -109,8 +134,8 @@ public class RegisterModule {
     @Provides
     @BoardScope
     @Named(STACK_POINTER)
-    static TribbleRegister provideStackPointer() {
-        return new TribbleRegister("SP");
+    static TribbleRegister provideStackPointer(@Named(WORD_STORE) final short[] store) {
+        return new TribbleRegister("SP", store, RegisterFile.WS_STACK_POINTER);
     }
 
     @Provides
@@ -187,18 +212,18 @@ public class RegisterModule {
     @Provides
     @BoardScope
     @Named(CURRENT_INSTRUCTION)
-    static WordRegister provideCurrentInstruction() {
-        return new WordRegister("CIR");
+    static WordRegister provideCurrentInstruction(@Named(WORD_STORE) final short[] store) {
+        return new WordRegister("CIR", store, RegisterFile.WS_CURRENT_INSTRUCTION);
     }
 
     @Provides
     @BoardScope
     @Named(DECODED_INSTRUCTION)
-    static WordRegister[] provideDecodedInstruction() {
+    static WordRegister[] provideDecodedInstruction(@Named(WORD_STORE) final short[] store) {
         final WordRegister[] decodedInstruction = new WordRegister[4];
 
         for(int i = 0; i < decodedInstruction.length; ++i) {
-            decodedInstruction[i] = new WordRegister("DIR" + i);
+            decodedInstruction[i] = new WordRegister("DIR" + i, store, RegisterFile.WS_DECODED_INSTRUCTION + i);
         }
 
         return decodedInstruction;
@@ -9,6 +9,8 @@ import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 
 /**
  * 12 bit register type. Used to hold memory addresses: max 4096 bytes
+ * <p>
+ * Units writing the shared store directly mask the value with {@link #TRIBBLE_MASK} (without the warning)
  *
  * @see <a href="https://en.wikipedia.org/wiki/12-bit">Tribble - Wikipedia</a>
  */
@@ -17,18 +19,33 @@ public class TribbleRegister extends Register<TribbleRegister> {
     private static final Logger LOG = LogManager.getLogger();
 
     public static final int TRIBBLE_MASK = 0xFFF;
-    private short data;
+
+    private final short[] store;
+    private final int offset;
 
     public TribbleRegister(String name) {
         super(name);
+
+        this.store = new short[1];
+        this.offset = 0;
+    }
+
+    /**
+     * Not observable view on the shared store
+     */
+    public TribbleRegister(String name, short[] store, int offset) {
+        super(name, false, true);
+
+        this.store = store;
+        this.offset = offset;
     }
 
     public short get() {
-        return data;
+        return store[offset];
     }
 
     public int getAsInt() {
-        return uint(data);
+        return uint(store[offset]);
     }
 
     public void set(final short data) {
@@ -38,19 +55,40 @@ public class TribbleRegister extends Register<TribbleRegister> {
             short truncated = ushort(udata & TRIBBLE_MASK);
             LOG.warn(() -> "Attempting to set " + getName() + " to " + toHexString(data) +
                     ", truncating to " + toHexString(truncated));
-            this.data = truncated;
+            store[offset] = truncated;
         } else {
-            this.data = data;
+            store[offset] = data;
         }
 
-        pubSub.publish();
+        publish();
     }
 
     public void set(int data) {
         set(ushort(data));
     }
 
+    /**
+     * Zeroes the value without notifying the subscribers
+     */
+    public void clear() {
+        store[offset] = 0;
+    }
+
+    /**
+     * Sets the value without notifying the subscribers, e.g. when restoring a snapshot
+     */
+    public void restore(final short data) {
+        store[offset] = data;
+    }
+
+    /**
+     * Truncates the value to 12 bits, for units writing the shared store directly
+     */
+    public static short tribble(final int value) {
+        return ushort(value & TRIBBLE_MASK);
+    }
+
     public void increment(int amount) {
-        set(uint(data) + amount);
+        set(uint(store[offset]) + amount);
     }
 }
@@ -8,27 +8,55 @@ import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
  */
 public class WordRegister extends Register<WordRegister> {
 
-    private short data;
+    private final short[] store;
+    private final int offset;
 
     public WordRegister(String name) {
         super(name);
+
+        this.store = new short[1];
+        this.offset = 0;
+    }
+
+    /**
+     * Not observable view on the shared store
+     */
+    public WordRegister(String name, short[] store, int offset) {
+        super(name, false, true);
+
+        this.store = store;
+        this.offset = offset;
     }
 
     public short get() {
-        return data;
+        return store[offset];
     }
 
     public int getAsInt() {
-        return uint(data);
+        return uint(store[offset]);
     }
 
     public void set(short data) {
-        this.data = data;
+        store[offset] = data;
 
-        pubSub.publish();
+        publish();
     }
 
     public void set(int data) {
         set(ushort(data));
     }
+
+    /**
+     * Zeroes the value without notifying the subscribers
+     */
+    public void clear() {
+        store[offset] = 0;
+    }
+
+    /**
+     * Sets the value without notifying the subscribers, e.g. when restoring a snapshot
+     */
+    public void restore(final short data) {
+        store[offset] = data;
+    }
 }
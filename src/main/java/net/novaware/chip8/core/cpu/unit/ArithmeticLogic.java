@@ -30,8 +30,11 @@ public class ArithmeticLogic implements Unit {
     @Owned
     private final IntUnaryOperator randomSource;
 
+    /**
+     * Variable store, VF is the status register
+     */
     @Used
-    private final ByteRegister[] variables;
+    private final byte[] variables;
 
     @Used
     private final WordRegister input;
@@ -39,19 +42,15 @@ public class ArithmeticLogic implements Unit {
     @Used
     private final ByteRegister inputCheck;
 
-    @Used
-    private final ByteRegister status;
-
     @Used
     private final ByteRegister statusType;
 
     @Inject
     public ArithmeticLogic(
         @Named(RANDOM) final IntUnaryOperator randomSource,
-        @Named(VARIABLES) final ByteRegister[] variables,
+        @Named(VARIABLE_STORE) final byte[] variables,
         @Named(INPUT) final WordRegister input,
         @Named(INPUT_CHECK) final ByteRegister inputCheck,
-        @Named(STATUS) final ByteRegister status,
         @Named(STATUS_TYPE) final ByteRegister statusType
     ) {
         this.randomSource = randomSource;
@@ -59,44 +58,43 @@ public class ArithmeticLogic implements Unit {
         this.variables = variables;
         this.input = input;
         this.inputCheck = inputCheck;
-        this.status = status;
         this.statusType = statusType;
     }
 
     // Load operations --------------------------
 
     /* package */ void loadVariableWithValue(final short x, final short value) {
-        getVariable(variables, x).set(value);
+        variables[uint(x)] = ubyte(value);
     }
 
     /* package */ void copyVariableIntoVariable(final short x, final short y) {
-        final byte yValue = getVariable(variables, y).get();
+        final byte yValue = variables[uint(y)];
 
-        getVariable(variables, x).set(yValue);
+        variables[uint(x)] = yValue;
     }
 
     // Arithmetic operations --------------------
 
     /* package */ void sumVariableWithValue(final short x, final short value) {
-        int xValue = getVariable(variables, x).getAsInt();
+        int xValue = uint(variables[uint(x)]);
 
         xValue = xValue + uint(value);
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
     }
 
     /* package */ void sumVariableWithVariable(final short x, final short y) {
-        int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
 
         xValue = xValue + yValue;
 
         final int overflow = xValue >>> 8;
         final int carry = overflow > 0 ? 0b1 : 0;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
 
-        status.set(carry);
+        variables[0xF] = ubyte(carry);
         statusType.set(VF_CARRY);
     }
 
@@ -104,8 +102,8 @@ public class ArithmeticLogic implements Unit {
      * target = x - y where target may be x or y:
      */
     /* package */ void subtractVariableFromVariable(final short target, final short x, final short y) {
-        final int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        final int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
         int targetValue = xValue;
 
         byte borrow = 0b1;
@@ -117,9 +115,9 @@ public class ArithmeticLogic implements Unit {
 
         targetValue = targetValue - yValue;
 
-        getVariable(variables, target).set(targetValue);
+        variables[uint(target)] = ubyte(targetValue);
 
-        status.set(borrow);
+        variables[0xF] = borrow;
         statusType.set(VF_NO_BORROW);
     }
 
@@ -127,14 +125,14 @@ public class ArithmeticLogic implements Unit {
      * Effectively divide by 2
      */
     /* package */ void shiftRightVariableIntoVariable(final short x, final short y) {
-        final int yValue = getVariable(variables, y).getAsInt();
+        final int yValue = uint(variables[uint(y)]);
 
         final byte leastSignificantBit = ubyte(0b1 & yValue);
         final int xValue = yValue >>> 1;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
 
-        status.set(leastSignificantBit);
+        variables[0xF] = leastSignificantBit;
         statusType.set(VF_LSB);
     }
 
@@ -142,14 +140,14 @@ public class ArithmeticLogic implements Unit {
      * Effectively multiply by 2
      */
     /* package */ void shiftLeftVariableIntoVariable(final short x, final short y) {
-        final int yValue = getVariable(variables, y).getAsInt();
+        final int yValue = uint(variables[uint(y)]);
 
         final byte mostSignificantBit = ubyte((0x80 & yValue) >>> 7);
         final int xValue = yValue << 1;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
 
-        status.set(mostSignificantBit);
+        variables[0xF] = mostSignificantBit;
         statusType.set(VF_MSB);
     }
 
@@ -159,7 +157,7 @@ public class ArithmeticLogic implements Unit {
      * @return true if equal
      */
     /* package */ boolean compareVariableWithValue(final short x, final short value) {
-        final int xValue = getVariable(variables, x).getAsInt();
+        final int xValue = uint(variables[uint(x)]);
 
         return xValue == uint(value);
     }
@@ -168,8 +166,8 @@ public class ArithmeticLogic implements Unit {
      * @return true if equal
      */
     /* package */ boolean compareVariableWithVariable(final short x, final short y) {
-        final int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        final int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
 
         return xValue == yValue;
     }
@@ -179,7 +177,7 @@ public class ArithmeticLogic implements Unit {
      */
     /* package */ boolean compareInputWithVariable(final short x) {
         final int inValue = input.getAsInt();
-        final int bit = getVariable(variables, x).getAsInt();
+        final int bit = uint(variables[uint(x)]);
 
         assert bit < 0x10 : "input comparison should be in range 0-F";
 
@@ -196,30 +194,30 @@ public class ArithmeticLogic implements Unit {
     // Logical operations -----------------------
 
     /* package */ void andVariableWithVariable(final short x, final short y) {
-        int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
 
         xValue = xValue & yValue;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
     }
 
     /* package */ void orVariableWithVariable(final short x, final short y) {
-        int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
 
         xValue = xValue | yValue;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
     }
 
     /* package */ void xorVariableWithVariable(final short x, final short y) {
-        int xValue = getVariable(variables, x).getAsInt();
-        final int yValue = getVariable(variables, y).getAsInt();
+        int xValue = uint(variables[uint(x)]);
+        final int yValue = uint(variables[uint(y)]);
 
         xValue = xValue ^ yValue;
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
     }
 
     // Special operations -----------------------
@@ -231,6 +229,6 @@ public class ArithmeticLogic implements Unit {
         int xValue = kkValue & random;
         //xValue = random % (kkValue + 1); //Rocket2 requires this implementation
 
-        getVariable(variables, x).set(xValue);
+        variables[uint(x)] = ubyte(xValue);
     }
 }
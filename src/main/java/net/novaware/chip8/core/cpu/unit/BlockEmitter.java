@@ -0,0 +1,253 @@
+package net.novaware.chip8.core.cpu.unit;
+
+import net.novaware.chip8.core.cpu.instruction.DecodeTable;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Emits a class file implementing {@link CompiledBlock#run()} for a sequence of decoded instructions.
+ * <p>
+ * Every instruction becomes a {@link CompiledBlock#step(int)} call followed by a call of the {@link Operation} of its
+ * type with the operands pushed as constants, optionally followed by a {@link CompiledBlock#trace(int)} call with
+ * the opcode. Each call site has its own type profile, so the JIT can inline the operation.
+ * There are no branches, so the class file version predates stack map frames.
+ */
+/* package */ final class BlockEmitter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49; // Java 5, no StackMapTable needed
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ALOAD_0 = 0x2A;
+    private static final int ALOAD_1 = 0x2B;
+    private static final int SIPUSH = 0x11;
+    private static final int INVOKEVIRTUAL = 0xB6;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int INVOKEINTERFACE = 0xB9;
+    private static final int RETURN = 0xB1;
+
+    private static final String SUPER = CompiledBlock.class.getName().replace('.', '/');
+    private static final String CONTEXT = CompiledBlock.Context.class.getName().replace('.', '/');
+
+    private static final String OPERATION = Operation.class.getName().replace('.', '/');
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private BlockEmitter() {
+    }
+
+    /**
+     * @param name binary name of the class
+     * @param address of the first instruction
+     * @param decoded {@link DecodeTable} entries of the consecutive instructions
+     * @param opcodes raw instructions to trace, null if tracing is disabled
+     * @return class file bytes
+     */
+    /* package */ static byte[] emit(final String name, final int address, final int[] decoded,
+                                     final int @Nullable [] opcodes) {
+        try {
+            return new BlockEmitter().emit0(name.replace('.', '/'), address, decoded, opcodes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in memory streams do not throw
+        }
+    }
+
+    private byte[] emit0(final String name, final int address, final int[] decoded, final int @Nullable [] opcodes)
+            throws IOException {
+        final int thisClass = classRef(name);
+        final int superClass = classRef(SUPER);
+
+        final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        final DataOutputStream methodsOut = new DataOutputStream(methods);
+
+        final ByteArrayOutputStream init = new ByteArrayOutputStream();
+        init.write(ALOAD_0);
+        init.write(ALOAD_1);
+        writeInvoke(init, INVOKESPECIAL, methodRef(superClass, "<init>", "(L" + CONTEXT + ";)V"));
+        init.write(RETURN);
+        writeMethod(methodsOut, ACC_PUBLIC, "<init>", "(L" + CONTEXT + ";)V", 2, 2, init.toByteArray());
+
+        final int step = methodRef(superClass, "step", "(I)V");
+        final int operation = methodRef(superClass, "operation", "(I)L" + OPERATION + ";");
+        final int execute = interfaceMethodRef(classRef(OPERATION), "execute", "(SSS)V");
+        final int trace = opcodes != null ? methodRef(superClass, "trace", "(I)V") : 0;
+        final ByteArrayOutputStream run = new ByteArrayOutputStream();
+        for (int i = 0; i < decoded.length; ++i) {
+            final int entry = decoded[i];
+
+            run.write(ALOAD_0);
+            writeSipush(run, address + 2 * i);
+            writeInvoke(run, INVOKEVIRTUAL, step);
+
+            run.write(ALOAD_0);
+            writeSipush(run, DecodeTable.typeOrdinal(entry));
+            writeInvoke(run, INVOKEVIRTUAL, operation);
+            writeSipush(run, DecodeTable.param1(entry));
+            writeSipush(run, DecodeTable.param2(entry));
+            writeSipush(run, DecodeTable.param3(entry));
+            writeInvokeInterface(run, execute, 4);
+
+            if (opcodes != null) {
+                run.write(ALOAD_0);
+                writeSipush(run, opcodes[i]);
+                writeInvoke(run, INVOKEVIRTUAL, trace);
+            }
+        }
+        run.write(RETURN);
+        writeMethod(methodsOut, ACC_PROTECTED, "run", "()V", 4, 1, run.toByteArray());
+
+        // methods are written first, so the constant pool is complete at this point
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(result);
+
+        out.writeInt(MAGIC);
+        out.writeShort(0);
+        out.writeShort(VERSION);
+
+        out.writeShort(poolCount);
+        pool.writeTo(out);
+
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+
+        out.writeShort(2); // methods
+        methods.writeTo(out);
+
+        out.writeShort(0); // attributes
+
+        return result.toByteArray();
+    }
+
+    private void writeMethod(
+        final DataOutputStream out,
+        final int access,
+        final String name,
+        final String descriptor,
+        final int maxStack,
+        final int maxLocals,
+        final byte[] code
+    ) throws IOException {
+        out.writeShort(access);
+        out.writeShort(utf8(name));
+        out.writeShort(utf8(descriptor));
+        out.writeShort(1); // attributes
+
+        out.writeShort(utf8("Code"));
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private static void writeSipush(final ByteArrayOutputStream code, final int value) {
+        code.write(SIPUSH);
+        code.write(value >>> 8);
+        code.write(value);
+    }
+
+    private static void writeInvoke(final ByteArrayOutputStream code, final int opcode, final int methodRef) {
+        code.write(opcode);
+        code.write(methodRef >>> 8);
+        code.write(methodRef);
+    }
+
+    private static void writeInvokeInterface(final ByteArrayOutputStream code, final int methodRef, final int count) {
+        writeInvoke(code, INVOKEINTERFACE, methodRef);
+        code.write(count); // receiver and arguments in slots
+        code.write(0);
+    }
+
+    // Constant pool ----------------------------
+
+    private int utf8(final String value) throws IOException {
+        final String key = "U" + value;
+        final Integer index = poolIndex.get(key);
+
+        if (index != null) {
+            return index;
+        }
+
+        poolOut.writeByte(CONSTANT_UTF8);
+        poolOut.writeUTF(value);
+
+        return register(key);
+    }
+
+    private int classRef(final String name) throws IOException {
+        final String key = "C" + name;
+        final Integer index = poolIndex.get(key);
+
+        if (index != null) {
+            return index;
+        }
+
+        final int nameIndex = utf8(name);
+        poolOut.writeByte(CONSTANT_CLASS);
+        poolOut.writeShort(nameIndex);
+
+        return register(key);
+    }
+
+    private int methodRef(final int classRef, final String name, final String descriptor) throws IOException {
+        return memberRef(CONSTANT_METHOD_REF, classRef, name, descriptor);
+    }
+
+    private int interfaceMethodRef(final int classRef, final String name, final String descriptor) throws IOException {
+        return memberRef(CONSTANT_INTERFACE_METHOD_REF, classRef, name, descriptor);
+    }
+
+    private int memberRef(final int tag, final int classRef, final String name, final String descriptor)
+            throws IOException {
+        final String key = "M" + classRef + "." + name + descriptor;
+        final Integer index = poolIndex.get(key);
+
+        if (index != null) {
+            return index;
+        }
+
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+
+        poolOut.writeByte(CONSTANT_NAME_AND_TYPE);
+        poolOut.writeShort(nameIndex);
+        poolOut.writeShort(descriptorIndex);
+        final int nameAndType = register("N" + name + descriptor);
+
+        poolOut.writeByte(tag);
+        poolOut.writeShort(classRef);
+        poolOut.writeShort(nameAndType);
+
+        return register(key);
+    }
+
+    private int register(final String key) {
+        final int index = poolCount++;
+        poolIndex.put(key, index);
+        return index;
+    }
+}
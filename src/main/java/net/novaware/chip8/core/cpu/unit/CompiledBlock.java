@@ -0,0 +1,74 @@
+package net.novaware.chip8.core.cpu.unit;
+
+import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.util.uml.Used;
+
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_MEMORY_ADDRESS;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_PROGRAM_COUNTER;
+import static net.novaware.chip8.core.cpu.register.TribbleRegister.tribble;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Base class of the basic blocks translated by the {@link Recompiler}.
+ * <p>
+ * Generated subclass implements {@link #run()} as a straight sequence of {@link #step(int)} and
+ * {@link Operation#execute(short, short, short)} calls with the type and operands embedded as constants,
+ * followed by {@link #trace(int)} calls if tracing was enabled. Operations are the ones of the {@link ControlUnit}.
+ * <p>
+ * Subclasses are defined in another package by the class loader of the board, so the members they use
+ * are protected.
+ */
+public abstract class CompiledBlock {
+
+    /**
+     * Units the compiled code runs against, shared by all the blocks of a board
+     */
+    public static final class Context {
+        private final ControlUnit cu;
+        private final RegisterFile registers;
+
+        /* package */ Context(final ControlUnit cu, final RegisterFile registers) {
+            this.cu = cu;
+            this.registers = registers;
+        }
+    }
+
+    @Used private final ControlUnit cu;
+    @Used private final short[] words;
+
+    // Code cache bookkeeping, maintained by the Recompiler
+    /* package */ int start;
+    /* package */ int end; // exclusive
+    /* package */ int length; // in instructions
+    /* package */ long lastUsed;
+    /* package */ int slot = -1;
+
+    protected CompiledBlock(final Context context) {
+        this.cu = context.cu;
+        this.words = context.registers.getWordStore();
+    }
+
+    protected abstract void run();
+
+    /**
+     * Equivalent of {@link ControlUnit#fetch()} for the instruction at given address
+     */
+    protected final void step(final int address) {
+        words[WS_MEMORY_ADDRESS] = tribble(address);
+        words[WS_PROGRAM_COUNTER] = tribble(address + 2);
+    }
+
+    /**
+     * @param type {@link net.novaware.chip8.core.cpu.instruction.InstructionType#ordinal()}
+     */
+    protected final Operation operation(final int type) {
+        return cu.getOperation(type);
+    }
+
+    /**
+     * Records the instruction which just finished, the opcode is sign extended by the class file constant
+     */
+    protected final void trace(final int instruction) {
+        cu.record(ushort(instruction));
+    }
+}
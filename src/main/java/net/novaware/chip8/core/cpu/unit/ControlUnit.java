@@ -1,11 +1,15 @@
 package net.novaware.chip8.core.cpu.unit;
 
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
+import net.novaware.chip8.core.cpu.cache.CpuCache;
+import net.novaware.chip8.core.cpu.instruction.DecodeTable;
 import net.novaware.chip8.core.cpu.instruction.InstructionDecoder;
 import net.novaware.chip8.core.cpu.instruction.InstructionType;
 import net.novaware.chip8.core.cpu.register.RegisterFile;
-import net.novaware.chip8.core.cpu.register.WordRegister;
 import net.novaware.chip8.core.gpu.Gpu;
 import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.util.ExecutionTrace;
 import net.novaware.chip8.core.util.uml.Owned;
 import net.novaware.chip8.core.util.uml.Used;
 import org.apache.logging.log4j.LogManager;
@@ -13,8 +17,12 @@ import org.apache.logging.log4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 import static java.util.Arrays.stream;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.*;
+import static net.novaware.chip8.core.cpu.register.TribbleRegister.tribble;
 import static net.novaware.chip8.core.cpu.unit.UnitModule.DELAY;
 import static net.novaware.chip8.core.cpu.unit.UnitModule.SOUND;
 import static net.novaware.chip8.core.memory.MemoryModule.MMU;
@@ -28,6 +36,8 @@ public class ControlUnit implements Unit {
 
     private static final Logger LOG = LogManager.getLogger();
 
+    private static final int MAX_IDLE_LOOP_SIZE = 8 * 2; // up to 8 instructions
+
     public interface Config {
 
         /**
@@ -39,6 +49,11 @@ public class ControlUnit implements Unit {
          * If true, increments I during load and store operations
          */
         boolean isLegacyLoadStore();
+
+        /**
+         * Number of the last executed instructions kept in the {@link ExecutionTrace}, 0 disables tracing
+         */
+        int getTraceSize();
     }
     @Owned
     private final Config config;
@@ -46,11 +61,23 @@ public class ControlUnit implements Unit {
     @Owned
     private final InstructionDecoder decoder;
 
+    @Owned
+    private final CpuCache cache;
+
+    @Used
+    private final ExecutionTrace trace;
+
     @Used
     private final RegisterFile registers;
 
+    /**
+     * Hot registers, see {@link RegisterFile#getWordStore()}
+     */
     @Used
-    private final Memory memory;
+    private final short[] words;
+
+    @Owned
+    private final Bus bus;
 
     @Used
     private final LoadStore lsu;
@@ -79,10 +106,19 @@ public class ControlUnit implements Unit {
     @Used
     private final Timer soundTimer;
 
+    /**
+     * Indexed by {@link InstructionType#ordinal()}, built once
+     */
+    private final Operation[] operations;
+
+    private final byte[] idleLoopVariables = new byte[0x10];
+
     @Inject
     public ControlUnit(
         final Config config,
         final InstructionDecoder decoder,
+        final CpuCache cache,
+        final ExecutionTrace trace,
 
         final RegisterFile registers,
         @Named(MMU) final Memory memory,
@@ -100,9 +136,12 @@ public class ControlUnit implements Unit {
     ) {
         this.config = config;
         this.decoder = decoder;
+        this.cache = cache;
+        this.trace = trace;
 
         this.registers = registers;
-        this.memory = memory;
+        this.words = registers.getWordStore();
+        this.bus = new MemoryBus(memory);
 
         this.lsu = lsu;
         this.alu = alu;
@@ -114,16 +153,20 @@ public class ControlUnit implements Unit {
 
         this.delayTimer = delayTimer;
         this.soundTimer = soundTimer;
+
+        this.operations = toOperations();
     }
 
     @Override
     public void initialize() {
         zeroOutRegisters();
+        cache.initialize();
     }
 
     @Override
     public void reset() {
         zeroOutRegisters();
+        cache.reset();
     }
 
     private void zeroOutRegisters() {
@@ -134,103 +177,239 @@ public class ControlUnit implements Unit {
     }
 
     public void fetch() {
-        final short pc = registers.getProgramCounter().get();
-        registers.getMemoryAddress().set(pc);
+        final short pc = words[WS_PROGRAM_COUNTER];
+        words[WS_MEMORY_ADDRESS] = pc;
 
-        final short ma = registers.getMemoryAddress().get();
-        final short instruction = memory.getWord(ma);
-        registers.getCurrentInstruction().set(instruction);
+        bus.specify(pc);
+        final short instruction = bus.readWord();
+        words[WS_CURRENT_INSTRUCTION] = instruction;
 
-        registers.getProgramCounter().increment(2);
+        words[WS_PROGRAM_COUNTER] = tribble(uint(pc) + 2);
     }
 
     public void decode() {
         decoder.decode();
     }
 
-    private InstructionType toInstructionType(final short instruction) {
-        final InstructionType instructionType = InstructionType.valueOf(instruction);
+    public void execute() {
+        final short[] di = words;
+        final int d = WS_DECODED_INSTRUCTION;
+
+        operations[di[d]].execute(di[d + 1], di[d + 2], di[d + 3]); // type ordinal stored by the decoder
 
-        if (instructionType == null) {
-            throw new RuntimeException("Unknown instruction: " + toHexString(instruction));
+        if (trace.isEnabled()) {
+            record(di[WS_CURRENT_INSTRUCTION]);
         }
 
-        return instructionType;
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(toHexString(di[WS_MEMORY_ADDRESS]) + ": " + toHexString(di[WS_CURRENT_INSTRUCTION]) +
+                    " -> " + toHexString(di[WS_PROGRAM_COUNTER]));
+        }
     }
 
-    public void execute() {
-        final WordRegister[] di = registers.getDecodedInstruction();
+    /**
+     * @param type {@link InstructionType#ordinal()}, same as {@link DecodeTable#typeOrdinal(int)}
+     * @return operation shared by the interpreter, the threaded code and the {@link Recompiler}
+     */
+    public Operation getOperation(final int type) {
+        return operations[type];
+    }
 
-        final InstructionType instructionType = toInstructionType(di[0].get());
-        final short p1 = di[1].get(), p2 = di[2].get(), p3 = di[3].get();
+    /**
+     * Appends the instruction which just finished to the {@link ExecutionTrace}
+     */
+    /* package */ void record(final short instruction) {
+        trace.record(words[WS_MEMORY_ADDRESS], instruction, words[WS_PROGRAM_COUNTER], words[WS_INDEX],
+                registers.getVariableStore()[0xF]);
+    }
+
+    /**
+     * Threaded code alternative to {@link #fetch()}, {@link #decode()} and {@link #execute()}.
+     * <p>
+     * Instructions from the program region are translated once into handlers with operands already bound,
+     * so the cycle is a single call. Code outside of the program region is interpreted.
+     * Current and decoded instruction registers are not updated.
+     */
+    public void dispatch() {
+        final short pc = words[WS_PROGRAM_COUNTER];
 
-        int skip = 0;
+        CpuCache.Entry entry = cache.get(pc);
 
-        final boolean useY = config.isLegacyShift();
-        final boolean incrementI = config.isLegacyLoadStore();
+        if (entry == null) {
+            if (!cache.isCacheable(pc)) {
+                fetch();
+                decode();
+                execute();
+                return;
+            }
 
+            entry = translate(pc);
+            cache.put(entry);
+        }
+
+        words[WS_MEMORY_ADDRESS] = pc;
+        words[WS_PROGRAM_COUNTER] = tribble(uint(pc) + 2);
+
+        entry.getExec().run();
+
+        if (trace.isEnabled()) {
+            record(entry.getInstruction());
+        }
+    }
+
+    private CpuCache.Entry translate(final short address) {
+        bus.specify(address);
+        final short instruction = bus.readWord();
+        final int decoded = DecodeTable.getInstance().lookup(instruction);
+
+        if (decoded == DecodeTable.UNKNOWN) {
+            final Runnable unknown = () -> {
+                throw new RuntimeException("Unknown instruction: " + toHexString(instruction));
+            };
+            return new CpuCache.Entry(address, CpuCache.INSTRUCTION_SIZE,
+                    EnumSet.of(CpuCache.EntryType.UNKNOWN), instruction, toHexString(instruction), unknown);
+        }
+
+        final InstructionType type = DecodeTable.type(decoded);
+
+        final Operation operation = operations[type.ordinal()];
+        final short p1 = DecodeTable.param1(decoded), p2 = DecodeTable.param2(decoded), p3 = DecodeTable.param3(decoded);
+        final Runnable handler = () -> operation.execute(p1, p2, p3);
+
+        return new CpuCache.Entry(address, CpuCache.INSTRUCTION_SIZE,
+                CpuCache.typesOf(type), instruction, toHexString(instruction), handler);
+    }
+
+    private Operation[] toOperations() {
+        final Operation[] result = new Operation[InstructionType.values().length];
+
+        for (InstructionType type : InstructionType.values()) {
+            result[type.ordinal()] = toOperation(type);
+        }
+
+        return result;
+    }
+
+    private Operation toOperation(final InstructionType instructionType) {
         //FIXME: ugly, but compact, figure out how to make it nicer, but still compact and fast
 
         switch (instructionType) {
-            case Ox00E0: gpu.clearScreen(); break;
-            case Ox00EE: stackEngine.returnFromRoutine(); break;
-            case Ox0MMM: nativeUnit.callMls(p1); break;
-            case Ox1MMM: stackEngine.jump(p1); maybeStopClock(p1); break;
-            case Ox2MMM: stackEngine.callRoutine(p1); break;
-            case Ox3XKK: skip = alu.compareVariableWithValue(p1, p2) ? 2 : 0; break;
-            case Ox4XKK: skip = alu.compareVariableWithValue(p1, p2) ? 0 : 2; break;
-            case Ox5XY0: skip = alu.compareVariableWithVariable(p1, p2) ? 2 : 0; break;
-            case Ox6XKK: alu.loadVariableWithValue(p1, p2); break;
-            case Ox7XKK: alu.sumVariableWithValue(p1, p2); break;
-
-            case Ox8XY0: alu.copyVariableIntoVariable(p1, p2); break;
-            case Ox8XY1: alu.orVariableWithVariable(p1, p2); break;
-            case Ox8XY2: alu.andVariableWithVariable(p1, p2); break;
-            case Ox8XY3: alu.xorVariableWithVariable(p1, p2); break;
-            case Ox8XY4: alu.sumVariableWithVariable(p1, p2); break;
-            case Ox8XY5: alu.subtractVariableFromVariable(p1, p1, p2); break;
-            case Ox8XY6: alu.shiftRightVariableIntoVariable(p1, useY ? p2 : p1); break;
-            case Ox8XY7: alu.subtractVariableFromVariable(p1, p2, p1); break;
-            case Ox8XYE: alu.shiftLeftVariableIntoVariable(p1, useY ? p2 : p1); break;
-
-            case Ox9XY0: skip = alu.compareVariableWithVariable(p1, p2) ? 0 : 2; break;
-            case OxAMMM: agu.loadIndexWithAddress(p1); break;
-            case OxBMMM: stackEngine.jump(p1, USHORT_0); break;
-            case OxCXKK: alu.andVariableWithRandom(p1, p2); break;
-            case OxDXYK: gpu.drawSprite(p1, p2, p3); break;
-
-            case OxEX9E: skip = alu.compareInputWithVariable(p1) ? 2 : 0; break;
-            case OxEXA1: skip = alu.compareInputWithVariable(p1) ? 0 : 2; break;
-
-            case OxFX07: delayTimer.storeTimerIntoVariable(p1); break;
+            case Ox00E0: return (p1, p2, p3) -> gpu.clearScreen();
+            case Ox00EE: return (p1, p2, p3) -> stackEngine.returnFromRoutine();
+            case Ox0MMM: return (p1, p2, p3) -> nativeUnit.callMls(p1);
+            case Ox1MMM: return (p1, p2, p3) -> { stackEngine.jump(p1); maybeStopClock(p1); };
+            case Ox2MMM: return (p1, p2, p3) -> stackEngine.callRoutine(p1);
+            case Ox3XKK: return (p1, p2, p3) -> skipIf(alu.compareVariableWithValue(p1, p2));
+            case Ox4XKK: return (p1, p2, p3) -> skipIf(!alu.compareVariableWithValue(p1, p2));
+            case Ox5XY0: return (p1, p2, p3) -> skipIf(alu.compareVariableWithVariable(p1, p2));
+            case Ox6XKK: return (p1, p2, p3) -> alu.loadVariableWithValue(p1, p2);
+            case Ox7XKK: return (p1, p2, p3) -> alu.sumVariableWithValue(p1, p2);
+
+            case Ox8XY0: return (p1, p2, p3) -> alu.copyVariableIntoVariable(p1, p2);
+            case Ox8XY1: return (p1, p2, p3) -> alu.orVariableWithVariable(p1, p2);
+            case Ox8XY2: return (p1, p2, p3) -> alu.andVariableWithVariable(p1, p2);
+            case Ox8XY3: return (p1, p2, p3) -> alu.xorVariableWithVariable(p1, p2);
+            case Ox8XY4: return (p1, p2, p3) -> alu.sumVariableWithVariable(p1, p2);
+            case Ox8XY5: return (p1, p2, p3) -> alu.subtractVariableFromVariable(p1, p1, p2);
+            case Ox8XY6: return (p1, p2, p3) -> alu.shiftRightVariableIntoVariable(p1, config.isLegacyShift() ? p2 : p1);
+            case Ox8XY7: return (p1, p2, p3) -> alu.subtractVariableFromVariable(p1, p2, p1);
+            case Ox8XYE: return (p1, p2, p3) -> alu.shiftLeftVariableIntoVariable(p1, config.isLegacyShift() ? p2 : p1);
+
+            case Ox9XY0: return (p1, p2, p3) -> skipIf(!alu.compareVariableWithVariable(p1, p2));
+            case OxAMMM: return (p1, p2, p3) -> agu.loadIndexWithAddress(p1);
+            case OxBMMM: return (p1, p2, p3) -> stackEngine.jump(p1, USHORT_0);
+            case OxCXKK: return (p1, p2, p3) -> alu.andVariableWithRandom(p1, p2);
+            case OxDXYK: return (p1, p2, p3) -> gpu.drawSprite(p1, p2, p3);
+
+            case OxEX9E: return (p1, p2, p3) -> skipIf(alu.compareInputWithVariable(p1));
+            case OxEXA1: return (p1, p2, p3) -> skipIf(!alu.compareInputWithVariable(p1));
+
+            case OxFX07: return (p1, p2, p3) -> delayTimer.storeTimerIntoVariable(p1);
             // decrement PC to retry in case of wake up from SLEEP instead of HALT
-            case OxFX0A: skip = lsu_storeInputIntoVariable(p1) ? 0 : -2; break;
-            case OxFX15: delayTimer.loadTimerWithVariable(p1); break;
-            case OxFX18: soundTimer.loadTimerWithVariable(p1); break;
-            case OxFX1E: agu.sumIndexWithVariable(p1); break;
-            case OxFX29: gpu.loadFontAddressIntoRegister(p1); break;
-            case OxFX33: lsu.loadMemoryWithBcdVariable(p1); break;
-            case OxFX55: lsu.loadMemoryWithVariables(p1, incrementI); break;
-            case OxFX65: lsu.storeMemoryIntoVariables(p1, incrementI); break;
-
-            default: throw new RuntimeException("Unknown instruction: " + di[0].get());
+            case OxFX0A: return (p1, p2, p3) -> { if (!lsu_storeInputIntoVariable(p1)) skip(-2); };
+            case OxFX15: return (p1, p2, p3) -> delayTimer.loadTimerWithVariable(p1);
+            case OxFX18: return (p1, p2, p3) -> soundTimer.loadTimerWithVariable(p1);
+            case OxFX1E: return (p1, p2, p3) -> agu.sumIndexWithVariable(p1);
+            case OxFX29: return (p1, p2, p3) -> gpu.loadFontAddressIntoRegister(p1);
+            case OxFX33: return (p1, p2, p3) -> lsu.loadMemoryWithBcdVariable(p1);
+            case OxFX55: return (p1, p2, p3) -> lsu.loadMemoryWithVariables(p1, config.isLegacyLoadStore());
+            case OxFX65: return (p1, p2, p3) -> lsu.storeMemoryIntoVariables(p1, config.isLegacyLoadStore());
+
+            default: throw new IllegalArgumentException("Unknown instruction: " + instructionType);
         }
+    }
 
-        registers.getProgramCounter().increment(skip);
+    private void skipIf(final boolean condition) {
+        if (condition) {
+            skip(2);
+        }
+    }
 
-        LOG.trace(() -> toHexString(registers.getMemoryAddress().get()) +
-                ": " + toHexString(registers.getCurrentInstruction().get()) +
-                " -> " + toHexString(registers.getProgramCounter().get()));
+    private void skip(final int amount) {
+        words[WS_PROGRAM_COUNTER] = tribble(uint(words[WS_PROGRAM_COUNTER]) + amount);
     }
 
     private void maybeStopClock(final short destination) {
-        int from = registers.getMemoryAddress().getAsInt();
+        int from = uint(words[WS_MEMORY_ADDRESS]);
         int to = uint(destination);
 
         if (from == to) {
             // prevent infinite jumps, like on IBM logo ROM
             powerMgmt.stopClock();
+        } else if (to < from && from - to <= MAX_IDLE_LOOP_SIZE && isIdleLoop(to, from)) {
+            // prevent busy waiting on delay timer or input, like FX07, 3X00, 1NNN
+            powerMgmt.park();
+        }
+    }
+
+    /**
+     * Dry runs single pass of the loop body on a copy of the registers it may change.
+     * <p>
+     * Loop is idle if it consists of timer / input polling and comparisons only and the pass ends at the jump
+     * leaving the registers unchanged. Every following pass would do the same until delay timer or input changes.
+     */
+    private boolean isIdleLoop(final int start, final int jump) {
+        final byte[] variables = idleLoopVariables;
+        System.arraycopy(registers.getVariableStore(), 0, variables, 0, variables.length);
+
+        final int delay = registers.getDelay().getAsInt();
+        final int input = registers.getInput().getAsInt();
+        int inputCheck = registers.getInputCheck().getAsInt();
+
+        int address = start;
+
+        while (address < jump) {
+            bus.specify(ushort(address));
+            final int decoded = DecodeTable.getInstance().lookup(bus.readWord());
+
+            if (decoded == DecodeTable.UNKNOWN) {
+                return false;
+            }
+
+            final int x = uint(DecodeTable.param1(decoded));
+            final int kkOrY = uint(DecodeTable.param2(decoded));
+            final boolean skip;
+
+            // mirrors ArithmeticLogic and Timer
+            switch (DecodeTable.type(decoded)) {
+                case Ox3XKK: skip = uint(variables[x]) == kkOrY; break;
+                case Ox4XKK: skip = uint(variables[x]) != kkOrY; break;
+                case Ox5XY0: skip = variables[x] == variables[kkOrY]; break;
+                case Ox9XY0: skip = variables[x] != variables[kkOrY]; break;
+                case OxEX9E: inputCheck = uint(variables[x]); skip = (input & (1 << inputCheck)) != 0; break;
+                case OxEXA1: inputCheck = uint(variables[x]); skip = (input & (1 << inputCheck)) == 0; break;
+                case OxFX07: variables[x] = ubyte(delay); skip = false; break;
+                default: return false;
+            }
+
+            address += skip ? 4 : 2;
         }
+
+        if (address != jump || inputCheck != registers.getInputCheck().getAsInt()) {
+            return false;
+        }
+
+        return Arrays.equals(variables, registers.getVariableStore());
     }
 
     /**
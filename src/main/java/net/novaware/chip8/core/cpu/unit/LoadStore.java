@@ -1,6 +1,7 @@
 package net.novaware.chip8.core.cpu.unit;
 
-import net.novaware.chip8.core.cpu.register.ByteRegister;
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
 import net.novaware.chip8.core.cpu.register.WordRegister;
 import net.novaware.chip8.core.memory.Memory;
 import net.novaware.chip8.core.util.di.BoardScope;
@@ -9,7 +10,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.math.BigInteger;
 
-import static net.novaware.chip8.core.cpu.register.RegisterFile.getVariable;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_INDEX;
 import static net.novaware.chip8.core.cpu.register.RegisterModule.*;
 import static net.novaware.chip8.core.memory.MemoryModule.MMU;
 import static net.novaware.chip8.core.util.UnsignedUtil.*;
@@ -20,36 +21,36 @@ import static net.novaware.chip8.core.util.UnsignedUtil.*;
 @BoardScope
 public class LoadStore implements Unit {
 
-    private final ByteRegister[] variables;
-    private final WordRegister index;
+    private final byte[] variables;
+    private final short[] words; // index register
     private final WordRegister input;
-    private final Memory memory;
+    private final Bus bus;
+
+    private final byte[] bcdBuffer = new byte[3];
 
     @Inject
     public LoadStore(
-        @Named(VARIABLES) final ByteRegister[] variables,
-        @Named(INDEX) final WordRegister index,
+        @Named(VARIABLE_STORE) final byte[] variables,
+        @Named(WORD_STORE) final short[] words,
         @Named(INPUT) final WordRegister input,
         @Named(MMU) final Memory memory
     ) {
 
         this.variables = variables;
-        this.index = index;
+        this.words = words;
         this.input = input;
-        this.memory = memory;
+        this.bus = new MemoryBus(memory);
     }
 
     /* package */ void storeMemoryIntoVariables(final short x, final boolean incrementI) {
-        int xIndex = uint(x);
-        int iValue = index.getAsInt();
+        final int count = uint(x) + 1;
+        final int iValue = uint(words[WS_INDEX]);
 
-        for (int i = 0; i <= xIndex; ++i, ++iValue) {
-            final byte data = memory.getByte(ushort(iValue));
-            getVariable(variables, i).set(data);
-        }
+        bus.specify(ushort(iValue));
+        bus.read(variables, count);
 
         if (incrementI) {
-            index.set(iValue);
+            words[WS_INDEX] = ushort(iValue + count);
         }
     }
 
@@ -63,7 +64,7 @@ public class LoadStore implements Unit {
             // TODO: instantiation, maybe try to avoid
             int mostSigNonZeroBitIndex = BigInteger.valueOf(inValue).bitLength() - 1;
 
-            getVariable(variables, x).set(mostSigNonZeroBitIndex);
+            variables[uint(x)] = ubyte(mostSigNonZeroBitIndex);
             return true;
         }
 
@@ -71,29 +72,26 @@ public class LoadStore implements Unit {
     }
 
     /* package */ void loadMemoryWithVariables(final short x, final boolean incrementI) {
-        int xIndex = uint(x);
-        int iValue = index.getAsInt();
+        final int count = uint(x) + 1;
+        final int iValue = uint(words[WS_INDEX]);
 
-        for (int i = 0; i <= xIndex; ++i, ++iValue) {
-            final byte data = getVariable(variables, i).get();
-            memory.setByte(ushort(iValue), data);
-        }
+        bus.specify(ushort(iValue));
+        bus.write(variables, count);
 
         if (incrementI) {
-            index.set(iValue);
+            words[WS_INDEX] = ushort(iValue + count);
         }
     }
 
     /* package */ void loadMemoryWithBcdVariable(final short x) {
-        final int xValue = getVariable(variables, x).getAsInt();
-        final int address = index.getAsInt();
+        final int xValue = uint(variables[uint(x)]);
+        final int address = uint(words[WS_INDEX]);
 
-        final byte hundreds = ubyte(xValue / 100);
-        final byte tens = ubyte((xValue / 10) % 10);
-        final byte units = ubyte(xValue % 10);
+        bcdBuffer[0] = ubyte(xValue / 100);
+        bcdBuffer[1] = ubyte((xValue / 10) % 10);
+        bcdBuffer[2] = ubyte(xValue % 10);
 
-        memory.setByte(ushort(address), hundreds);
-        memory.setByte(ushort(address + 1), tens);
-        memory.setByte(ushort(address + 2), units);
+        bus.specify(ushort(address));
+        bus.write(bcdBuffer, bcdBuffer.length);
     }
 }
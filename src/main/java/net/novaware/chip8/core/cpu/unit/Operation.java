@@ -0,0 +1,10 @@
+package net.novaware.chip8.core.cpu.unit;
+
+/**
+ * Single instruction type executed with its decoded params (unused ones are 0),
+ * see {@link ControlUnit#getOperation(int)}
+ */
+@FunctionalInterface
+public interface Operation {
+    void execute(short p1, short p2, short p3);
+}
@@ -97,6 +97,28 @@ public class PowerMgmt implements Unit {
         }
     }
 
+    /**
+     * Switch from {@link CpuState#OPERATING} to {@link CpuState#IDLE}
+     * <p>
+     * Happens up to 60 times per second, so it's logged at lower level than other transitions
+     */
+    public void park() {
+        if (getState() == OPERATING) {
+            LOG.debug("Parking CPU in busy waiting loop.");
+            cpuState.set(IDLE.value());
+        }
+    }
+
+    /**
+     * Switch from {@link CpuState#IDLE} to {@link CpuState#OPERATING}
+     */
+    public void unpark() {
+        if (getState() == IDLE) {
+            LOG.debug("Unparking CPU.");
+            cpuState.set(OPERATING.value());
+        }
+    }
+
     /**
      * Goes to {@link CpuState#SLEEP}
      */
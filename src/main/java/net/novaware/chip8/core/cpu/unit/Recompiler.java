@@ -0,0 +1,468 @@
+package net.novaware.chip8.core.cpu.unit;
+
+import net.novaware.chip8.core.cpu.instruction.DecodeTable;
+import net.novaware.chip8.core.cpu.instruction.InstructionType;
+import net.novaware.chip8.core.cpu.register.RegisterFile;
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
+import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.memory.SplittableMemory;
+import net.novaware.chip8.core.util.ExecutionTrace;
+import net.novaware.chip8.core.util.di.BoardScope;
+import net.novaware.chip8.core.util.uml.Owned;
+import net.novaware.chip8.core.util.uml.Used;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.cpu.CpuState.OPERATING;
+import static net.novaware.chip8.core.memory.MemoryModule.MMU;
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM;
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM_END;
+import static net.novaware.chip8.core.memory.MemoryModule.PROGRAM_START;
+import static net.novaware.chip8.core.util.HexUtil.toHexString;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
+
+/**
+ * Dynamic recompiler, translates hot basic blocks of the program region into JVM classes.
+ * <p>
+ * Block starts at the program counter and ends after the first control flow instruction (jump, call, return, skip)
+ * or an instruction which may change the program or the CPU state. Instructions interacting with the timers and
+ * the input always start a block, so they see the same timer values as in the interpreter. Block of N instructions
+ * runs in a single cycle and then stalls the CPU for N-1 cycles to stay in step with the timers.
+ * <p>
+ * Blocks are compiled after {@link #HOT_THRESHOLD} executions of the start address, kept in a code cache bounded by
+ * {@link #CAPACITY} (least recently used block is evicted) and dropped when the program memory they cover is written.
+ * <p>
+ * Classes are defined by a class loader owned by the board and reused while it lives. Loader is dropped together
+ * with the blocks on reset and once it defined {@link #MAX_CLASSES} classes, so the classes can be unloaded.
+ */
+@BoardScope
+public class Recompiler implements Unit {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /* package */ static final int HOT_THRESHOLD = 32;
+    /* package */ static final int MAX_BLOCK_LENGTH = 32;
+    /* package */ static final int CAPACITY = 256;
+    /* package */ static final int MAX_CLASSES = 1024; // per loader
+
+    private static final String PACKAGE = CompiledBlock.class.getPackageName() + ".generated";
+
+    private static final int INSTRUCTION_SIZE = 2;
+    private static final int START = uint(PROGRAM_START);
+    private static final int END = uint(PROGRAM_END) + 1; // exclusive
+    private static final int NOT_COMPILABLE = Integer.MIN_VALUE;
+
+    /**
+     * Defines the classes of the blocks of a single board
+     */
+    private static final class BlockClassLoader extends ClassLoader {
+
+        private BlockClassLoader() {
+            super(Recompiler.class.getClassLoader());
+        }
+
+        private Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    @Used
+    private final RegisterFile registers;
+
+    @Owned
+    private final Bus bus;
+
+    @Used
+    private final Memory program;
+
+    @Used
+    private final ExecutionTrace trace;
+
+    private final int[] hotness = new int[END - START];
+    private final @Nullable CompiledBlock[] blocks = new CompiledBlock[END - START];
+    private final short[] coverage = new short[END - START];
+    private final @Nullable CompiledBlock[] live = new CompiledBlock[CAPACITY];
+
+    private int liveCount;
+    private long useCounter;
+    private int stall;
+
+    private CompiledBlock.@Nullable Context context;
+
+    private final Map<String, MethodHandle> classes = new HashMap<>();
+    private BlockClassLoader loader = newLoader();
+
+    @Inject
+    public Recompiler(
+        final RegisterFile registers,
+        @Named(MMU) final Memory memory,
+        @Named(PROGRAM) final Memory program,
+        final ExecutionTrace trace
+    ) {
+        this.registers = registers;
+        this.bus = new MemoryBus(memory);
+        this.program = program;
+        this.trace = trace;
+    }
+
+    @Override
+    public void initialize() {
+        if (program instanceof SplittableMemory) {
+            ((SplittableMemory) program).addWriteListener(
+                    (address, length) -> invalidate(uint(address) + START, length)
+            );
+        }
+
+        clear();
+    }
+
+    @Override
+    public void reset() {
+        clear();
+    }
+
+    /**
+     * Runs the compiled block starting at the program counter, compiles it if it got hot.
+     *
+     * @return false if the instruction at the program counter should be executed by the caller
+     */
+    public boolean dispatch(final ControlUnit controlUnit) {
+        if (stall > 0) {
+            --stall;
+            return true;
+        }
+
+        final int pc = registers.getProgramCounter().getAsInt();
+        final int index = pc - START;
+
+        if (index < 0 || pc + INSTRUCTION_SIZE > END) {
+            return false;
+        }
+
+        CompiledBlock block = blocks[index];
+
+        if (block == null) {
+            if (hotness[index] == NOT_COMPILABLE || ++hotness[index] < HOT_THRESHOLD) {
+                return false;
+            }
+
+            block = compile(controlUnit, pc);
+
+            if (block == null) {
+                hotness[index] = NOT_COMPILABLE;
+                return false;
+            }
+
+            install(block);
+        }
+
+        block.lastUsed = ++useCounter;
+        block.run();
+
+        if (registers.getCpuState().get() == OPERATING.value()) {
+            stall = block.length - 1;
+        }
+
+        return true;
+    }
+
+    /* package */ @Nullable CompiledBlock get(final int address) {
+        final int index = address - START;
+        return index >= 0 && index < blocks.length ? blocks[index] : null;
+    }
+
+    /* package */ int size() {
+        return liveCount;
+    }
+
+    /**
+     * Drops every block overlapping given range of absolute addresses
+     */
+    /* package */ void invalidate(final int address, final int length) {
+        final int from = Math.max(address - START, 0);
+        final int to = Math.min(address + length - START, coverage.length);
+
+        boolean covered = false;
+        for (int i = from; i < to && !covered; ++i) {
+            covered = coverage[i] > 0;
+        }
+
+        if (!covered) {
+            return;
+        }
+
+        for (int i = liveCount - 1; i >= 0; --i) {
+            final CompiledBlock block = live[i];
+
+            if (block != null && block.start < address + length && address < block.end) {
+                uninstall(block);
+            }
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(hotness, 0);
+        Arrays.fill(blocks, null);
+        Arrays.fill(coverage, (short) 0);
+        Arrays.fill(live, null);
+
+        liveCount = 0;
+        useCounter = 0;
+        stall = 0;
+
+        dropClasses();
+    }
+
+    private void dropClasses() {
+        if (!classes.isEmpty()) {
+            classes.clear();
+            loader = newLoader();
+        }
+    }
+
+    private static BlockClassLoader newLoader() {
+        final BlockClassLoader result = new BlockClassLoader();
+
+        // generated classes extend CompiledBlock and call the Operations, their constructors are looked up from here
+        final Module module = Recompiler.class.getModule();
+        module.addExports(CompiledBlock.class.getPackageName(), result.getUnnamedModule());
+        module.addReads(result.getUnnamedModule());
+
+        return result;
+    }
+
+    // Code cache -------------------------------
+
+    private void install(final CompiledBlock block) {
+        if (liveCount == CAPACITY) {
+            uninstall(leastRecentlyUsed());
+        }
+
+        block.slot = liveCount;
+        live[liveCount++] = block;
+        blocks[block.start - START] = block;
+
+        for (int i = block.start; i < block.end; ++i) {
+            ++coverage[i - START];
+        }
+    }
+
+    /**
+     * Drops every block along with the loader of their classes
+     */
+    private void evictAll() {
+        while (liveCount > 0) {
+            uninstall(requireNonNull(live[liveCount - 1]));
+        }
+
+        dropClasses();
+    }
+
+    private CompiledBlock leastRecentlyUsed() {
+        CompiledBlock result = live[0];
+
+        for (int i = 1; i < liveCount; ++i) {
+            final CompiledBlock block = live[i];
+
+            if (result == null || (block != null && block.lastUsed < result.lastUsed)) {
+                result = block;
+            }
+        }
+
+        if (result == null) {
+            throw new IllegalStateException("code cache is empty");
+        }
+
+        return result;
+    }
+
+    private void uninstall(final CompiledBlock block) {
+        final CompiledBlock last = live[--liveCount];
+
+        if (last != null) {
+            last.slot = block.slot;
+            live[block.slot] = last;
+        }
+        live[liveCount] = null;
+        block.slot = -1;
+
+        blocks[block.start - START] = null;
+        hotness[block.start - START] = 0;
+
+        for (int i = block.start; i < block.end; ++i) {
+            --coverage[i - START];
+        }
+    }
+
+    // Translation ------------------------------
+
+    /**
+     * @return decoded instructions of the basic block starting at given address, empty if nothing can be compiled
+     */
+    /* package */ int[] findBlock(final int address) {
+        final int[] decoded = new int[MAX_BLOCK_LENGTH];
+        int length = 0;
+
+        for (int a = address; length < MAX_BLOCK_LENGTH && a + INSTRUCTION_SIZE <= END; a += INSTRUCTION_SIZE) {
+            bus.specify(ushort(a));
+            final int entry = DecodeTable.getInstance().lookup(bus.readWord());
+
+            if (entry == DecodeTable.UNKNOWN) {
+                break;
+            }
+
+            final InstructionType type = DecodeTable.type(entry);
+
+            if (length > 0 && startsBlock(type, a, entry)) {
+                break;
+            }
+
+            decoded[length++] = entry;
+
+            if (endsBlock(type)) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(decoded, length);
+    }
+
+    /**
+     * Instructions which have to run at their own cycle, see the timers / input or change the CPU state
+     */
+    private static boolean startsBlock(final InstructionType type, final int address, final int entry) {
+        switch (type) {
+            case Ox0MMM:
+            case OxEX9E:
+            case OxEXA1:
+            case OxFX07:
+            case OxFX0A:
+            case OxFX15:
+            case OxFX18:
+                return true;
+            case Ox1MMM:
+                return uint(DecodeTable.param1(entry)) == address; // stops the clock
+            default:
+                return false;
+        }
+    }
+
+    private static boolean endsBlock(final InstructionType type) {
+        switch (type) {
+            case Ox00EE:
+            case Ox0MMM:
+            case Ox1MMM:
+            case Ox2MMM:
+            case Ox3XKK:
+            case Ox4XKK:
+            case Ox5XY0:
+            case Ox9XY0:
+            case OxBMMM:
+            case OxEX9E:
+            case OxEXA1:
+            case OxFX0A:
+            case OxFX33: // may modify the program
+            case OxFX55:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private @Nullable CompiledBlock compile(final ControlUnit controlUnit, final int address) {
+        final int[] decoded = findBlock(address);
+
+        if (decoded.length == 0) {
+            return null;
+        }
+
+        final int @Nullable [] opcodes = trace.isEnabled() ? readOpcodes(address, decoded.length) : null;
+        final MethodHandle constructor = defineClass(address, decoded, opcodes);
+
+        final CompiledBlock block;
+        try {
+            block = (CompiledBlock) constructor.invoke(getContext(controlUnit));
+        } catch (Throwable t) {
+            throw new IllegalStateException("unable to instantiate block at " + toHexString(ushort(address)), t);
+        }
+
+        block.start = address;
+        block.length = decoded.length;
+        block.end = address + decoded.length * INSTRUCTION_SIZE;
+
+        LOG.debug(() -> "Compiled " + decoded.length + " instructions at " + toHexString(ushort(address)));
+
+        return block;
+    }
+
+    private int[] readOpcodes(final int address, final int length) {
+        final int[] opcodes = new int[length];
+
+        for (int i = 0; i < length; ++i) {
+            bus.specify(ushort(address + i * INSTRUCTION_SIZE));
+            opcodes[i] = uint(bus.readWord());
+        }
+
+        return opcodes;
+    }
+
+    private CompiledBlock.Context getContext(final ControlUnit controlUnit) {
+        CompiledBlock.Context result = context;
+
+        if (result == null) {
+            result = new CompiledBlock.Context(controlUnit, registers);
+            context = result;
+        }
+
+        return result;
+    }
+
+    private MethodHandle defineClass(final int address, final int[] decoded, final int @Nullable [] opcodes) {
+        final StringBuilder builder = new StringBuilder(toHexString(ushort(address)));
+        for (int entry : decoded) {
+            builder.append('_').append(Integer.toHexString(entry));
+        }
+        if (opcodes != null) {
+            builder.append("_traced"); // decoded entries identify the opcodes
+        }
+        final String key = builder.toString();
+
+        final MethodHandle cached = classes.get(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        if (classes.size() >= MAX_CLASSES) {
+            LOG.debug("Class limit reached, dropping compiled blocks");
+            evictAll();
+        }
+
+        final String name = PACKAGE + "." + CompiledBlock.class.getSimpleName() + "_" + classes.size();
+
+        try {
+            final Class<?> type = loader.define(name, BlockEmitter.emit(name, address, decoded, opcodes));
+            final MethodHandle constructor = MethodHandles.lookup()
+                    .findConstructor(type, methodType(void.class, CompiledBlock.Context.class));
+
+            classes.put(key, constructor);
+
+            return constructor;
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("unable to define block at " + toHexString(ushort(address)), e);
+        }
+    }
+}
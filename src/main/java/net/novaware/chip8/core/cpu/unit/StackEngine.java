@@ -1,16 +1,21 @@
 package net.novaware.chip8.core.cpu.unit;
 
-import net.novaware.chip8.core.cpu.register.ByteRegister;
 import net.novaware.chip8.core.cpu.register.TribbleRegister;
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
 import net.novaware.chip8.core.memory.Memory;
 import net.novaware.chip8.core.memory.MemoryModule;
 import net.novaware.chip8.core.util.di.BoardScope;
+import net.novaware.chip8.core.util.uml.Owned;
 import net.novaware.chip8.core.util.uml.Used;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import static net.novaware.chip8.core.cpu.register.RegisterFile.getVariable;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_MEMORY_ADDRESS;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_PROGRAM_COUNTER;
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_STACK_POINTER;
+import static net.novaware.chip8.core.cpu.register.TribbleRegister.tribble;
 import static net.novaware.chip8.core.cpu.register.RegisterModule.*;
 import static net.novaware.chip8.core.memory.MemoryModule.MMU;
 import static net.novaware.chip8.core.util.HexUtil.toHexString;
@@ -32,37 +37,30 @@ public class StackEngine implements Unit {
     @Used
     private final TribbleRegister stackSegment;
 
+    /**
+     * Stack pointer, memory address and program counter
+     */
     @Used
-    private final TribbleRegister stackPointer;
+    private final short[] words;
 
     @Used
-    private final TribbleRegister memoryAddress;
+    private final byte[] variables;
 
-    @Used
-    private final TribbleRegister programCounter;
-
-    @Used
-    private final ByteRegister[] variables;
-
-    @Used
-    private final Memory memory;
+    @Owned
+    private final Bus bus;
 
     @Inject
     public StackEngine(
         @Named(STACK_SEGMENT) final TribbleRegister stackSegment,
-        @Named(STACK_POINTER) final TribbleRegister stackPointer,
-        @Named(MEMORY_ADDRESS) final TribbleRegister memoryAddress,
-        @Named(PROGRAM_COUNTER) final TribbleRegister programCounter,
-        @Named(VARIABLES) final ByteRegister[] variables,
+        @Named(WORD_STORE) final short[] words,
+        @Named(VARIABLE_STORE) final byte[] variables,
         @Named(MMU) final Memory memory
     ) {
         this.stackSegment = stackSegment;
-        this.stackPointer = stackPointer;
-        this.memoryAddress = memoryAddress;
-        this.programCounter = programCounter;
+        this.words = words;
         this.variables = variables;
 
-        this.memory = memory;
+        this.bus = new MemoryBus(memory);
     }
 
     @Override
@@ -76,7 +74,7 @@ public class StackEngine implements Unit {
     }
 
     private void setupRegisters() {
-        stackPointer.set(getStackBottom());
+        words[WS_STACK_POINTER] = tribble(uint(getStackBottom()));
     }
 
     private short getStackBottom() {
@@ -84,35 +82,39 @@ public class StackEngine implements Unit {
     }
 
     /* package */ void callRoutine(final short address) {
-        if (stackSegment.get() == stackPointer.get()) {
-            throw new IllegalStateException("Stack overflow at " + toHexString(memoryAddress.get()));
+        final short sp = words[WS_STACK_POINTER];
+
+        if (stackSegment.get() == sp) {
+            throw new IllegalStateException("Stack overflow at " + toHexString(words[WS_MEMORY_ADDRESS]));
         }
 
-        stackPointer.increment(-2); // 2 byte address
-        memory.setWord(stackPointer.get(), memoryAddress.get());
-        programCounter.set(address);
+        final short newSp = tribble(uint(sp) - 2); // 2 byte address
+        words[WS_STACK_POINTER] = newSp;
+        bus.specify(newSp);
+        bus.writeWord(words[WS_MEMORY_ADDRESS]);
+        words[WS_PROGRAM_COUNTER] = tribble(uint(address));
     }
 
     /* package */ void returnFromRoutine() {
-        final short sp = stackPointer.get();
+        final short sp = words[WS_STACK_POINTER];
 
         if (sp == getStackBottom()) {
-            throw new IllegalStateException("Stack underflow at " + toHexString(memoryAddress.get()));
+            throw new IllegalStateException("Stack underflow at " + toHexString(words[WS_MEMORY_ADDRESS]));
         }
 
-        final short address = memory.getWord(sp);
-        stackPointer.increment(2);
+        bus.specify(sp);
+        final short address = bus.readWord();
+        words[WS_STACK_POINTER] = tribble(uint(sp) + 2);
 
-        programCounter.set(address);
-        programCounter.increment(2);
+        words[WS_PROGRAM_COUNTER] = tribble(uint(address) + 2);
     }
 
     /* package */ void jump(final short address) {
-        programCounter.set(address);
+        words[WS_PROGRAM_COUNTER] = tribble(uint(address));
     }
 
     /* package */ void jump(final short address, final short offset) {
-        final int offsetValue = getVariable(variables, offset).getAsInt();
+        final int offsetValue = uint(variables[uint(offset)]);
         int newPc = uint(address);
 
         newPc = newPc + offsetValue; //TODO: may overflow
@@ -4,6 +4,9 @@ import dagger.Module;
 import dagger.Provides;
 import net.novaware.chip8.core.cpu.register.ByteRegister;
 import net.novaware.chip8.core.cpu.register.RegisterModule;
+import net.novaware.chip8.core.cpu.Cpu;
+import net.novaware.chip8.core.cpu.ExecutionProfile;
+import net.novaware.chip8.core.util.ExecutionTrace;
 import net.novaware.chip8.core.util.di.BoardScope;
 
 import javax.inject.Named;
@@ -35,4 +38,17 @@ public class UnitModule {
     ) {
         return new Timer(variables, sound, soundOn);
     }
+
+    @Provides
+    @BoardScope
+    static ExecutionTrace provideExecutionTrace(final ControlUnit.Config config) {
+        final int size = config.getTraceSize();
+        return size > 0 ? new ExecutionTrace(size) : ExecutionTrace.disabled();
+    }
+
+    @Provides
+    @BoardScope
+    static ExecutionProfile provideExecutionProfile(final Cpu.Config config) {
+        return config.isProfiling() ? new ExecutionProfile() : ExecutionProfile.disabled();
+    }
 }
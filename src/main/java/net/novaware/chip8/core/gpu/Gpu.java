@@ -1,7 +1,8 @@
 package net.novaware.chip8.core.gpu;
 
 import net.novaware.chip8.core.cpu.register.RegisterFile;
-import net.novaware.chip8.core.gpu.ViewPort.Index;
+import net.novaware.chip8.core.bus.Bus;
+import net.novaware.chip8.core.bus.MemoryBus;
 import net.novaware.chip8.core.memory.Memory;
 import net.novaware.chip8.core.memory.MemoryModule;
 import net.novaware.chip8.core.util.di.BoardScope;
@@ -9,13 +10,12 @@ import net.novaware.chip8.core.util.uml.Owned;
 import net.novaware.chip8.core.util.uml.Used;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.checkerframework.checker.signedness.qual.Unsigned;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.nio.ByteBuffer;
 
 import static net.novaware.chip8.core.cpu.register.RegisterFile.*;
-import static net.novaware.chip8.core.gpu.ViewPort.Bit;
 import static net.novaware.chip8.core.memory.MemoryModule.MMU;
 import static net.novaware.chip8.core.util.AssertUtil.assertState;
 import static net.novaware.chip8.core.util.HexUtil.toHexString;
@@ -23,6 +23,9 @@ import static net.novaware.chip8.core.util.UnsignedUtil.*;
 
 /**
  * Graphics Processing Unit
+ * <p>
+ * Works on whole rows of the display, 64 pixels in a long, most significant bit is x = 0 (the display IO layout).
+ * A sprite row is shifted (or rotated when wrapping) into place, collision is a single AND and drawing a XOR.
  */
 @BoardScope
 public class Gpu {
@@ -31,6 +34,11 @@ public class Gpu {
 
     public static final int MAX_SPRITE_HEIGHT = 0x10;
 
+    /**
+     * Indexed by drawing << 1 | erasing
+     */
+    private static final byte[] GRAPHIC_CHANGES = { GC_NOOP, GC_ERASE, GC_DRAW, GC_MIX };
+
     public interface Config {
         /**
          * Boot-128 expects this to be true. Without the value in V4 would overflow a nibble
@@ -53,7 +61,6 @@ public class Gpu {
          */
         boolean isVerticalClipping();
 
-        //TODO: implement horizontal clipping
         boolean isHorizontalClipping();
     }
 
@@ -63,19 +70,22 @@ public class Gpu {
     @Used
     private final RegisterFile registers;
 
-    @Used
-    private final Memory memory;
+    /**
+     * Sprites and display memory are separate segments, each bus keeps its own
+     */
+    @Owned
+    private final Bus spriteBus;
+
+    @Owned
+    private final Bus displayBus;
 
     @Owned
     private final ViewPort viewPort = new ViewPort();
 
     private byte[] spriteBuffer; //extracted from memory
 
-    private short[] memoryBuffer; //optimizes misaligned memory access
-
-    private byte[] paintBuffer; //part of memory where sprite will be drawn
-
-    private byte[] resultBuffer; //result of xoring sprite and paint buffers
+    private final byte[] rowBytes = new byte[MemoryModule.DISPLAY_IO_ROW_SIZE];
+    private final ByteBuffer row = ByteBuffer.wrap(rowBytes);
 
     @Inject
     public Gpu(
@@ -85,12 +95,12 @@ public class Gpu {
     ) {
         this.config = config;
         this.registers = registers;
-        this.memory = memory;
+        this.spriteBus = new MemoryBus(memory);
+        this.displayBus = new MemoryBus(memory);
 
         spriteBuffer = new byte[MAX_SPRITE_HEIGHT];
-        memoryBuffer = new short[MAX_SPRITE_HEIGHT];
-        paintBuffer = new byte[MAX_SPRITE_HEIGHT];
-        resultBuffer = new byte[MAX_SPRITE_HEIGHT];
+
+        assertState(viewPort.getMaxWidth() == Long.SIZE, "row of pixels must be a long");
     }
 
     public void reset() {
@@ -100,21 +110,18 @@ public class Gpu {
     public void clearScreen() {
         final int gs = registers.getGraphicSegment().getAsInt();
         final boolean checkCollision = config.isClsCollision();
-        boolean collision = false;
-
-        for (int i = 0; i < MemoryModule.DISPLAY_IO_SIZE; ++i) {
-            final short address = ushort(gs + i);
+        long pixels = 0;
 
+        for (int y = 0; y < viewPort.getMaxHeight(); ++y) {
             if (checkCollision) {
-                final int value = uint(memory.getByte(address));
-                if (value > 0) {
-                    collision = true;
-                }
+                pixels |= readRow(gs, y);
             }
 
-            memory.setByte(address, UBYTE_0);
+            writeRow(gs, y, 0);
         }
 
+        final boolean collision = pixels != 0;
+
         if (checkCollision) {
             registers.getStatus().set(collision ? 0x1 : 0x0);
             registers.getStatusType().set(collision ? VF_COLLISION : VF_EMPTY);
@@ -130,16 +137,11 @@ public class Gpu {
     public void scrollUp(final short n) {
         final int gs = registers.getGraphicSegment().getAsInt();
 
-        int lines = uint(n);
-        int bytes = lines * 8;
-        int gfxSize = MemoryModule.DISPLAY_IO_SIZE;
+        final int lines = uint(n);
+        final int height = viewPort.getMaxHeight();
 
-        for(int b = 0; b < gfxSize; ++b) {
-            if (b < gfxSize - bytes) {
-                memory.setByte(ushort(gs + b), memory.getByte(ushort(gs + b + bytes)));
-            } else {
-                memory.setByte(ushort(gs + b), UBYTE_0);
-            }
+        for (int y = 0; y < height; ++y) {
+            writeRow(gs, y, y < height - lines ? readRow(gs, y + lines) : 0);
         }
     }
 
@@ -200,150 +202,90 @@ public class Gpu {
         final int spriteHeight = uint(height);
 
         fillSpriteBuffer(spriteAddress, spriteBuffer, spriteHeight);
-        fillPaintBuffer(xBit, yBit, paintBuffer, spriteHeight);
-        byte gc = xorBuffers(xBit, yBit, spriteHeight);
-        storePaintBuffer(xBit, yBit, resultBuffer, spriteHeight);
 
-        registers.getStatus().set((gc == GC_ERASE || gc == GC_MIX) ? 0x1 : 0x0);
-        registers.getStatusType().set(VF_COLLISION);
-
-        registers.getGraphicChange().set(gc); // must be last because triggers redraw
-    }
-
-    /* package */ void fillSpriteBuffer(final short address, final byte[] buffer, final int height) {
-        memory.getBytes(address, buffer, height);
-
-        maybeDumpBuffer("sprite", ushort(height), buffer);
-    }
-
-    /* package */ void fillPaintBuffer(int xBit, int yBit, final byte[] buffer, final int height) {
-        //TODO: get rid of these instantiations from emulator loop, maybe use pooling
-        final Bit bit = new Bit(xBit, yBit);
-        final Index idx1 = new Index(); // for byte aligned memory access
-        final Index idx2 = new Index(); // additional, for misaligned case
-
-        final int graphicSegment = registers.getGraphicSegment().getAsInt();
-
-        for (int row = 0; row < height; ++row) {
-            int currentYBit = yBit + row;
-
-            bit.x = xBit;
-            bit.y = currentYBit;
-
-            viewPort.toIndex(bit, idx1, !config.isVerticalClipping());
-
-            byte rowData;
-            if (idx1.byteBit == 0) { // byte aligned
-                rowData = memory.getByte(ushort(graphicSegment + idx1.arrayByte));
-            } else { // misaligned
-                bit.x = bit.x + 8;
-                viewPort.toIndex(bit, idx2,  !config.isVerticalClipping());
-
-                short word = getRowAsWord(graphicSegment, idx1, idx2);
-                memoryBuffer[row] = word;
-
-                rowData = ubyte(uint(word) >>> (8 - idx1.byteBit));
+        final int gs = registers.getGraphicSegment().getAsInt();
+        final int maxHeight = viewPort.getMaxHeight();
+        final int left = xBit % viewPort.getMaxWidth();
+        final int top = yBit % maxHeight;
+        final boolean verticalClipping = config.isVerticalClipping();
+        final boolean horizontalClipping = config.isHorizontalClipping();
+
+        long erased = 0; // 1->0
+        long drawn = 0;  // 0->1
+
+        for (int r = 0; r < spriteHeight; ++r) {
+            int rowY = top + r;
+            if (rowY >= maxHeight) {
+                if (verticalClipping) {
+                    break;
+                }
+                rowY -= maxHeight;
             }
 
-            buffer[row] = rowData;
-        }
-
-        maybeDumpBuffer("paint " + xBit + ", " + yBit + " ", ushort(height), buffer);
-    }
-
-    private short getRowAsWord(int graphicSegment, Index idx1, Index idx2) {
-        short rowIndex1 = ushort(graphicSegment + idx1.arrayByte);
-        short rowIndex2 = ushort(graphicSegment + idx2.arrayByte);
-
-        byte rowData1 = memory.getByte(rowIndex1);
-        byte rowData2 = memory.getByte(rowIndex2);
-
-        return ushort((uint(rowData1) << 8) | uint(rowData2));
-    }
-
-    /* package */ byte xorBuffers(int xBit, int yBit, final int height) {
-        boolean erasing = false;
-        boolean drawing = false;
-
-        for (int y = 0; y < height; ++y) {
-            final @Unsigned int spriteRow = uint(spriteBuffer[y]);
-            final @Unsigned int paintRow = uint(paintBuffer[y]);
-
-            resultBuffer[y] = ubyte(spriteRow ^ paintRow);
+            final long sprite = toSpriteRow(spriteBuffer[r], left, horizontalClipping);
+            if (sprite == 0) {
+                continue;
+            }
 
-            final @Unsigned int resultRow = uint(resultBuffer[y]);
+            final long pixels = readRow(gs, rowY);
 
-            // inverse logical consequence ~(p => q) <=> ~(~p | q) <=> p & ~q
-            // 1->0 = 1, the rest is 0
-            if ((paintRow & ~resultRow) > 0) {
-                erasing = true;
-            }
+            erased |= pixels & sprite;
+            drawn |= ~pixels & sprite;
 
-            // special ~p & q
-            // 0->1 = 1, the rest is 0
-            if ((~paintRow & resultRow) > 0) {
-                drawing = true;
-            }
+            writeRow(gs, rowY, pixels ^ sprite);
         }
 
-        maybeDumpBuffer("result", ushort(height), resultBuffer);
-
-        return getGraphicChange(erasing, drawing);
-    }
+        registers.getStatus().set(erased != 0 ? 0x1 : 0x0);
+        registers.getStatusType().set(VF_COLLISION);
 
-    private byte getGraphicChange(boolean erasing, boolean drawing) {
-        byte gc;
-        if (drawing && erasing) {
-            gc = GC_MIX;
-        } else if (drawing) {
-            gc = GC_DRAW;
-        } else if (erasing) {
-            gc = GC_ERASE;
-        } else {
-            gc = GC_NOOP;
-        }
-        return gc;
+        registers.getGraphicChange().set(getGraphicChange(erased, drawn)); // must be last because triggers redraw
     }
 
-    /* package */ void storePaintBuffer(int xBit, int yBit, final byte[] buffer, final int height) {
-        //TODO: get rid of these instantiations from emulator loop, maybe use pooling
-        final Bit bit = new Bit(xBit, yBit);
-        final Index idx1 = new Index(); // for byte aligned memory access
-        final Index idx2 = new Index(); // additional, for misaligned case
-
-        final int graphicSegment = registers.getGraphicSegment().getAsInt();
+    /* package */ void fillSpriteBuffer(final short address, final byte[] buffer, final int height) {
+        spriteBus.specify(address);
+        spriteBus.read(buffer, height);
 
-        for (int row = 0; row < height; ++row) {
-            int currentYBit = yBit + row;
+        maybeDumpBuffer("sprite", ushort(height), buffer);
+    }
 
-            bit.x = xBit;
-            bit.y = currentYBit;
+    /**
+     * @param spriteRow 8 pixels, most significant bit first
+     * @param left x of the first pixel, within the row
+     * @param clipping if false pixels past the right edge wrap around to the beginning of the row
+     * @return sprite pixels placed in the display row
+     */
+    /* package */ static long toSpriteRow(final byte spriteRow, final int left, final boolean clipping) {
+        final long sprite = (long) uint(spriteRow) << (Long.SIZE - Byte.SIZE);
 
-            viewPort.toIndex(bit, idx1, !config.isVerticalClipping());
+        return clipping ? sprite >>> left : Long.rotateRight(sprite, left);
+    }
 
-            if (idx1.byteBit == 0) { // byte aligned
-                memory.setByte(ushort(graphicSegment + idx1.arrayByte), buffer[row]);
-            } else { // misaligned
-                bit.x = bit.x + 8;
-                viewPort.toIndex(bit, idx2, !config.isVerticalClipping());
+    /**
+     * @param erased pixels switched off
+     * @param drawn pixels switched on
+     */
+    /* package */ static byte getGraphicChange(final long erased, final long drawn) {
+        final int erasing = (int) ((erased | -erased) >>> (Long.SIZE - 1)); // 1 if not 0
+        final int drawing = (int) ((drawn | -drawn) >>> (Long.SIZE - 1));
 
-                short rowIndex1 = ushort(graphicSegment + idx1.arrayByte);
-                short rowIndex2 = ushort(graphicSegment + idx2.arrayByte);
+        return GRAPHIC_CHANGES[drawing << 1 | erasing];
+    }
 
-                //TODO: maybe store this part of memory on hand when filling so it's available here?
-                int rowData1 = uint(memory.getByte(rowIndex1));
-                int rowData2 = uint(memory.getByte(rowIndex2));
+    /**
+     * @return pixels of the row, most significant bit is x = 0
+     */
+    private long readRow(final int graphicSegment, final int y) {
+        displayBus.specify(ushort(graphicSegment + y * rowBytes.length));
+        displayBus.read(rowBytes, rowBytes.length);
 
-                int mask1 = (1 << (8 - idx1.byteBit)) - 1 ;
-                int mask2 = uint(ubyte(~mask1)); // cut off unneeded 1s on the front
+        return row.getLong(0);
+    }
 
-                rowData1 = (rowData1 & mask2) | (uint(buffer[row]) >>> idx1.byteBit);
-                rowData2 = (rowData2 & mask1) | (uint(buffer[row]) << (8 - idx1.byteBit));
+    private void writeRow(final int graphicSegment, final int y, final long pixels) {
+        row.putLong(0, pixels);
 
-                memory.setByte(rowIndex1, ubyte(rowData1));
-                memory.setByte(rowIndex2, ubyte(rowData2));
-            }
-        }
+        displayBus.specify(ushort(graphicSegment + y * rowBytes.length));
+        displayBus.write(rowBytes, rowBytes.length);
     }
 
     private void maybeDumpBuffer(String title, short height, byte[] buffer) {
@@ -0,0 +1,49 @@
+package net.novaware.chip8.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Power on / off, resets and recycling of a board, the duration covers the whole operation
+ */
+@Name("net.novaware.chip8.BoardLifecycle")
+@Label("Board Lifecycle")
+@Category({"Chip8", "Board"})
+public class BoardLifecycleEvent extends jdk.jfr.Event {
+
+    public static final String POWER_ON = "POWER_ON";
+    public static final String POWER_OFF = "POWER_OFF";
+    public static final String SOFT_RESET = "SOFT_RESET";
+    public static final String HARD_RESET = "HARD_RESET";
+    public static final String RECYCLE = "RECYCLE";
+
+    @Label("Board")
+    @Description("Identity hash code of the board")
+    private int board;
+
+    @Label("Action")
+    private String action;
+
+    private BoardLifecycleEvent(final String action) {
+        this.action = action;
+    }
+
+    /**
+     * @return started event, to be finished with {@link #finish(Object)}
+     */
+    public static BoardLifecycleEvent start(final String action) {
+        final BoardLifecycleEvent event = new BoardLifecycleEvent(action);
+        event.begin();
+
+        return event;
+    }
+
+    public void finish(final Object board) {
+        if (shouldCommit()) {
+            this.board = System.identityHashCode(board);
+            commit();
+        }
+    }
+}
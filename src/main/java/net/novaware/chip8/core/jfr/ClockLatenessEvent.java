@@ -0,0 +1,43 @@
+package net.novaware.chip8.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Periodic target started more than one period after its deadline, i.e. at least one tick was missed
+ */
+@Name("net.novaware.chip8.ClockLateness")
+@Label("Clock Lateness")
+@Category({"Chip8", "Clock"})
+public class ClockLatenessEvent extends jdk.jfr.Event {
+
+    @Label("Clock")
+    private String clock = "";
+
+    @Label("Frequency")
+    @Description("Frequency of the late target in Hz")
+    private int frequency;
+
+    @Label("Lateness")
+    @Timespan(Timespan.NANOSECONDS)
+    private long lateness;
+
+    @Label("Ticks Dropped")
+    @Description("Loop lagged so much that the missed ticks are not caught up")
+    private boolean dropped;
+
+    public static void emit(final String clock, final int frequency, final long lateness, final boolean dropped) {
+        final ClockLatenessEvent event = new ClockLatenessEvent();
+
+        if (event.isEnabled()) {
+            event.clock = clock;
+            event.frequency = frequency;
+            event.lateness = lateness;
+            event.dropped = dropped;
+            event.commit();
+        }
+    }
+}
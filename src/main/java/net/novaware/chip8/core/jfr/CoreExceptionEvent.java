@@ -0,0 +1,31 @@
+package net.novaware.chip8.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Exception thrown on the core thread and reported through the debug port
+ */
+@Name("net.novaware.chip8.CoreException")
+@Label("Core Exception")
+@Category({"Chip8", "Board"})
+public class CoreExceptionEvent extends jdk.jfr.Event {
+
+    @Label("Exception Class")
+    private Class<?> exceptionClass = Exception.class;
+
+    @Label("Message")
+    private @Nullable String message;
+
+    public static void emit(final Exception exception) {
+        final CoreExceptionEvent event = new CoreExceptionEvent();
+
+        if (event.isEnabled()) {
+            event.exceptionClass = exception.getClass();
+            event.message = exception.getMessage();
+            event.commit();
+        }
+    }
+}
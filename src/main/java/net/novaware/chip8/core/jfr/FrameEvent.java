@@ -0,0 +1,34 @@
+package net.novaware.chip8.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Delivery of a frame to the display receivers, the duration is the time spent in them
+ */
+@Name("net.novaware.chip8.Frame")
+@Label("Frame")
+@Category({"Chip8", "Display"})
+public class FrameEvent extends jdk.jfr.Event {
+
+    @Label("Frame Number")
+    private long frameNumber;
+
+    /**
+     * @return started event, to be finished with {@link #finish(long)}
+     */
+    public static FrameEvent start() {
+        final FrameEvent event = new FrameEvent();
+        event.begin();
+
+        return event;
+    }
+
+    public void finish(final long frameNumber) {
+        if (shouldCommit()) {
+            this.frameNumber = frameNumber;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.novaware.chip8.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Real (calculated) cpu frequency of a board, emitted whenever the frequency counter publishes it
+ */
+@Name("net.novaware.chip8.Throughput")
+@Label("Throughput")
+@Category({"Chip8", "Board"})
+public class ThroughputEvent extends jdk.jfr.Event {
+
+    @Label("Board")
+    @Description("Identity hash code of the board")
+    private int board;
+
+    @Label("Cpu Frequency")
+    @Description("Executed cycles per second")
+    @Frequency
+    private int cpuFrequency;
+
+    public static void emit(final Object board, final int cpuFrequency) {
+        final ThroughputEvent event = new ThroughputEvent();
+
+        if (event.isEnabled()) {
+            event.board = System.identityHashCode(board);
+            event.cpuFrequency = cpuFrequency;
+            event.commit();
+        }
+    }
+}
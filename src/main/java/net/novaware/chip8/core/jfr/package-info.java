@@ -0,0 +1,5 @@
+/**
+ * Java Flight Recorder events emitted by the core, enabled and configured by their names
+ * (e.g. {@code net.novaware.chip8.ClockLateness}) in the recording settings
+ */
+package net.novaware.chip8.core.jfr;
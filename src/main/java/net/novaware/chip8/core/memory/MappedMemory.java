@@ -4,7 +4,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static net.novaware.chip8.core.util.HexUtil.toHexString;
 import static net.novaware.chip8.core.util.UnsignedUtil.uint;
@@ -12,6 +14,9 @@ import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 
 /**
  * Memory Management Unit
+ * <p>
+ * Translates addresses using a page table built once at construction. Nested {@link MappedMemory}s are flattened
+ * into it, so every access is a single array load and a subtraction regardless of the nesting depth.
  */
 public class MappedMemory extends AbstractMemory implements Memory {
 
@@ -29,14 +34,47 @@ public class MappedMemory extends AbstractMemory implements Memory {
         }
     }
 
+    /**
+     * Largest page, 256 bytes (indexed by the high byte of the address)
+     */
+    /* package */ static final int MAX_PAGE_SHIFT = 8;
+
     private final List<Entry> entries;
 
+    private final int size;
+
+    /**
+     * Page is the largest power of 2 all the segment boundaries (including nested ones) are aligned to
+     */
+    private final int pageShift;
+
+    /**
+     * Top level segment of each page
+     */
+    private final Entry[] segments;
+
+    /**
+     * Leaf memory of each page, nested {@link MappedMemory}s are flattened into it
+     */
+    private final Memory[] leaves;
+
+    /**
+     * Subtracted from the address to get the leaf local address
+     */
+    private final int[] leafStarts;
+
+    /**
+     * Leaf memory of each page with its absolute address range
+     */
+    private final Entry[] leafSegments;
+
     public MappedMemory(final String name, final List<Entry> entries) {
         super(name);
 
         this.entries = new ArrayList<>(entries);
 
         short currentStart = 0x0000;
+        int shift = MAX_PAGE_SHIFT;
 
         for (Entry entry : entries) {
             final int end = uint(entry.end);
@@ -51,12 +89,54 @@ public class MappedMemory extends AbstractMemory implements Memory {
             assert currentStart == entry.start : "contiguity of " + entry.ref.getName();
 
             currentStart = ushort(end + 1);
+
+            shift = Math.min(shift, Integer.numberOfTrailingZeros(start | (end + 1)));
+
+            if (entry.ref instanceof MappedMemory) {
+                shift = Math.min(shift, ((MappedMemory) entry.ref).pageShift);
+            }
+        }
+
+        this.size = uint(currentStart) == 0 && !entries.isEmpty() ? 0x10000 : uint(currentStart);
+        this.pageShift = shift;
+
+        final int pageCount = (size + (1 << shift) - 1) >>> shift;
+        this.segments = new Entry[pageCount];
+        this.leaves = new Memory[pageCount];
+        this.leafStarts = new int[pageCount];
+        this.leafSegments = new Entry[pageCount];
+
+        final Map<Entry, Entry> translated = new HashMap<>();
+
+        for (Entry entry : entries) {
+            final int start = uint(entry.start);
+            final int firstPage = start >>> shift;
+            final int lastPage = uint(entry.end) >>> shift;
+
+            for (int page = firstPage; page <= lastPage; ++page) {
+                segments[page] = entry;
+
+                if (entry.ref instanceof MappedMemory) {
+                    final MappedMemory nested = (MappedMemory) entry.ref;
+                    final int nestedPage = ((page << shift) - start) >>> nested.pageShift;
+
+                    leaves[page] = nested.leaves[nestedPage];
+                    leafStarts[page] = start + nested.leafStarts[nestedPage];
+                    leafSegments[page] = translated.computeIfAbsent(nested.leafSegments[nestedPage], e ->
+                        new Entry(ushort(start + uint(e.start)), ushort(start + uint(e.end)), e.ref)
+                    );
+                } else {
+                    leaves[page] = entry.ref;
+                    leafStarts[page] = start;
+                    leafSegments[page] = entry;
+                }
+            }
         }
     }
 
     @Override
     public int getSize() {
-        return entries.stream().mapToInt(e -> e.ref.getSize()).sum();
+        return size;
     }
 
     @Override
@@ -66,22 +146,26 @@ public class MappedMemory extends AbstractMemory implements Memory {
         }
     }
 
-    /*package*/ Entry getSegment(short address) {
+    private int getPage(short address) {
+        final int page = uint(address) >>> pageShift;
 
-        int addr = uint(address);
-        int size = entries.size();
-        for (int i = 0; i < size; i++) {
-            Entry entry = entries.get(i);
+        if (page >= leaves.length) {
+            throw new IllegalArgumentException("Unable to find memory segment for address " + toHexString(address));
+        }
 
-            final int end = uint(entry.end);
-            final int start = uint(entry.start);
+        return page;
+    }
 
-            if (addr >= start && addr <= end) {
-                return entry;
-            }
-        }
+    /*package*/ Entry getSegment(short address) {
+        return segments[getPage(address)];
+    }
 
-        throw new IllegalArgumentException("Unable to find memory segment for address " + toHexString(address));
+    /**
+     * Resolves the innermost memory holding the address, for the callers caching the translation
+     * @return leaf memory with its absolute address range
+     */
+    public Entry resolve(short address) {
+        return leafSegments[getPage(address)];
     }
 
     /*package*/ short translateToSegmentAddress(Entry segment, short address) {
@@ -93,66 +177,77 @@ public class MappedMemory extends AbstractMemory implements Memory {
 
     @Override
     public void getBytes(short address, byte[] destination, int length) {
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        assert segment.ref.getSize() >= length : "getting data across segments is not supported";
+        assert leaf.getSize() >= length : "getting data across segments is not supported";
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        segment.ref.getBytes(localAddress, destination, length);
+        leaf.getBytes(ushort(uint(address) - leafStarts[page]), destination, length);
     }
 
     @Override
     public byte getByte(short address) {
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        return segment.ref.getByte(localAddress);
+        return leaf.getByte(ushort(uint(address) - leafStarts[page]));
     }
 
     @Override
     public void setBytes(short address, byte[] source, int length) {
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        assert segment.ref.getSize() >= length : "getting data across segments is not supported";
+        assert leaf.getSize() >= length : "getting data across segments is not supported";
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        segment.ref.setBytes(localAddress, source, length);
+        leaf.setBytes(ushort(uint(address) - leafStarts[page]), source, length);
     }
 
     @Override
     public void setByte(short address, byte source) {
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        segment.ref.setByte(localAddress, source);
+        leaf.setByte(ushort(uint(address) - leafStarts[page]), source);
     }
 
-
     @Override
-    public short getWord(short address) { //FIXME: hot spot in profiler, use B+tree or binary search to optimise
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+    public short getWord(short address) {
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        return segment.ref.getWord(localAddress);
+        return leaf.getWord(ushort(uint(address) - leafStarts[page]));
     }
 
     @Override
     public void setWord(short address, short instruction) {
-        final Entry segment = getSegment(address);
-        short localAddress = translateToSegmentAddress(segment, address);
+        final int page = getPage(address);
+        final Memory leaf = leaves[page];
 
-        LOG.trace(() -> segment.ref.getName() + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> leaf.getName() + " @ " + toHexString(address));
+        }
 
-        segment.ref.setWord(localAddress, instruction);
+        leaf.setWord(ushort(uint(address) - leafStarts[page]), instruction);
     }
 }
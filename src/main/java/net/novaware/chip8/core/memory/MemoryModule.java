@@ -54,6 +54,7 @@ public class MemoryModule {
     public static final short  DISPLAY_IO_START        = 0x0F00;
     public static final short  DISPLAY_IO_END          = 0x0FFF;
     public static final int    DISPLAY_IO_SIZE         = 256;
+    public static final int    DISPLAY_IO_ROW_SIZE     = 8;      // 64 pixels
 
     public static final String STORAGE_ROM             = "storageRom";
     public static final short  STORAGE_ROM_START       = (short) 0x4000;
@@ -119,7 +120,7 @@ public class MemoryModule {
     @BoardScope
     @Named(DISPLAY_IO)
     static Memory provideDisplayIo() {
-        return new PhysicalMemory("Display IO", DISPLAY_IO_SIZE);
+        return new RowTrackingMemory(new PhysicalMemory("Display IO", DISPLAY_IO_SIZE), DISPLAY_IO_ROW_SIZE);
     }
 
     @Provides
@@ -0,0 +1,99 @@
+package net.novaware.chip8.core.memory;
+
+import java.util.Arrays;
+
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.UnsignedUtil.uint;
+
+/**
+ * Remembers which rows (of the given size in bytes) were written since each reader took them last time.
+ * <p>
+ * Used for the display IO so the display ports only rescan the rows changed by the GPU (or anything else)
+ */
+public class RowTrackingMemory extends MemoryDecorator implements Memory {
+
+    public static final long ALL_ROWS = -1L;
+
+    private final int rowSize;
+    private final long allRows;
+
+    private long[] dirtyRows = new long[0]; // bit per row, per reader
+
+    public RowTrackingMemory(final Memory memory, final int rowSize) {
+        super(memory);
+
+        assertArgument(rowSize > 0 && memory.getSize() % rowSize == 0, "memory must consist of whole rows");
+
+        final int rowCount = memory.getSize() / rowSize;
+        assertArgument(rowCount <= Long.SIZE, "up to " + Long.SIZE + " rows are supported");
+
+        this.rowSize = rowSize;
+        this.allRows = rowCount == Long.SIZE ? ALL_ROWS : (1L << rowCount) - 1;
+    }
+
+    /**
+     * @return id of a new reader, it starts with all rows dirty
+     */
+    public int addReader() {
+        final int reader = dirtyRows.length;
+
+        dirtyRows = Arrays.copyOf(dirtyRows, reader + 1);
+        dirtyRows[reader] = allRows;
+
+        return reader;
+    }
+
+    /**
+     * @return bit set for every row written since the last call by the reader
+     */
+    public long takeDirtyRows(final int reader) {
+        final long rows = dirtyRows[reader];
+        dirtyRows[reader] = 0;
+        return rows;
+    }
+
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    @Override
+    public void clear() {
+        memory.clear();
+        markRows(0, memory.getSize());
+    }
+
+    @Override
+    public void setByte(short address, byte value) {
+        super.setByte(address, value);
+        markRows(uint(address), 1);
+    }
+
+    @Override
+    public void setWord(short address, short value) {
+        super.setWord(address, value);
+        markRows(uint(address), 2);
+    }
+
+    @Override
+    public void setBytes(short address, byte[] source, int length) {
+        super.setBytes(address, source, length);
+        markRows(uint(address), length);
+    }
+
+    private void markRows(final int address, final int length) {
+        if (length <= 0) {
+            return;
+        }
+
+        final int first = address / rowSize;
+        final int last = (address + length - 1) / rowSize;
+
+        final long rows = last - first + 1 >= Long.SIZE
+                ? allRows
+                : ((1L << (last - first + 1)) - 1) << first & allRows;
+
+        for (int i = 0; i < dirtyRows.length; ++i) {
+            dirtyRows[i] |= rows;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package net.novaware.chip8.core.memory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import static net.novaware.chip8.core.util.AssertUtil.assertState;
@@ -13,11 +15,18 @@ import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 /**
  * Splits Memory into ROM and RAM region
  * When in strict mode, writes to ROM trigger exception
+ * Successful writes are reported to {@link WriteListener}s (e.g. to invalidate caches of decoded code)
  */
 public class SplittableMemory extends MemoryDecorator implements Memory {
 
     private static final Logger LOG = LogManager.getLogger();
 
+    public interface WriteListener {
+        void onWrite(short address, int length);
+    }
+
+    private final List<WriteListener> writeListeners = new ArrayList<>();
+
     private int split = 0; //start with whole memory being RW
 
     private Supplier<Boolean> strict = () -> true;
@@ -39,6 +48,10 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
         this.split = split;
     }
 
+    public int getSplit() {
+        return split;
+    }
+
     public boolean isStrict() {
         return strict.get();
     }
@@ -51,6 +64,22 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
         this.strict = strict;
     }
 
+    public void addWriteListener(WriteListener listener) {
+        writeListeners.add(listener);
+    }
+
+    public void removeWriteListener(WriteListener listener) {
+        writeListeners.remove(listener);
+    }
+
+    private void notifyWrite(short address, int length) {
+        final int size = writeListeners.size();
+
+        for (int i = 0; i < size; ++i) {
+            writeListeners.get(i).onWrite(address, length);
+        }
+    }
+
     private boolean isRam(short address) {
         return uint(address) >= split;
     }
@@ -63,9 +92,17 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
         return isRom(address) ? "ROM" : "RAM";
     }
 
+    @Override
+    public void clear() {
+        super.clear();
+        notifyWrite((short) 0, getSize());
+    }
+
     @Override
     public byte getByte(short address) {
-        LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        }
 
         return super.getByte(address);
     }
@@ -78,15 +115,20 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
             assertState(!strict.get(), "can not write in ROM");
             LOG.warn(() -> memory.getName() + " ROM " + toHexString(address));
         } else {
-            LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            if (LOG.isTraceEnabled()) {
+                LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            }
         }
 
         super.setByte(address, value);
+        notifyWrite(address, 1);
     }
 
     @Override
     public short getWord(short address) {
-        LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        }
 
         return super.getWord(address);
     }
@@ -99,15 +141,20 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
             assertState(!strict.get(), "can not write in ROM");
             LOG.warn(() -> memory.getName() + " ROM " + toHexString(address));
         } else {
-            LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            if (LOG.isTraceEnabled()) {
+                LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            }
         }
 
         super.setWord(address, value);
+        notifyWrite(address, 2);
     }
 
     @Override
     public void getBytes(short address, byte[] destination, int length) {
-        LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        if (LOG.isTraceEnabled()) {
+            LOG.trace(() -> memory.getName() + " " + getSubName(address) + " @ " + toHexString(address));
+        }
 
         super.getBytes(address, destination, length);
     }
@@ -120,9 +167,12 @@ public class SplittableMemory extends MemoryDecorator implements Memory {
             assertState(!strict.get(), "can not write in ROM");
             LOG.warn(() -> memory.getName() + " ROM " + toHexString(address));
         } else {
-            LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            if (LOG.isTraceEnabled()) {
+                LOG.trace(() -> memory.getName() + " RAM " + toHexString(address));
+            }
         }
 
         super.setBytes(address, source, length);
+        notifyWrite(address, length);
     }
 }
@@ -1,5 +1,7 @@
 package net.novaware.chip8.core.port;
 
+import net.novaware.chip8.core.clock.LatencyHistogram;
+
 /**
  * Provides debug / diagnostics facilities.
  *
@@ -30,7 +32,101 @@ public interface DebugPort extends OutputPort {
         void onStateChange(boolean paused);
     }
 
+    /**
+     * Snapshot of the execution profile, detached from the board so it can be read on any thread
+     */
+    interface Profile {
+
+        /**
+         * @param instruction any instance of the instruction type, e.g. 0x8004 for all the 8XY4 ones
+         * @return number of executed instructions of the same type, {@link #getUnknownCount()} if it doesn't decode
+         */
+        long getInstructionCount(int instruction);
+
+        /**
+         * @return number of executed words which don't decode into any instruction
+         */
+        long getUnknownCount();
+
+        /**
+         * @param address 0x000 - 0xFFF
+         * @return number of instructions executed from the address
+         */
+        long getAddressHits(int address);
+
+        /**
+         * @return number of cpu cycles spent in the state
+         */
+        long getStateCycles(WaitState state);
+    }
+
+    /**
+     * Cpu states other than operating, counted by the {@link Profile}
+     */
+    enum WaitState {
+        /**
+         * Parked in a polling loop
+         */
+        IDLE,
+        /**
+         * Waiting for a key
+         */
+        HALT,
+        /**
+         * Stopped, e.g. by an infinite jump
+         */
+        STOP_CLOCK,
+        /**
+         * Board paused
+         */
+        SLEEP
+    }
+
+    /**
+     * Periodic targets the board schedules on its clock
+     */
+    enum ClockTarget {
+        CPU,
+        DELAY_TIMER,
+        SOUND_TIMER,
+        RENDER
+    }
+
+    interface ProfileReceiver {
+        /**
+         * Called after {@link #requestProfile()}, with the render frequency at most.
+         * Profiling has to be enabled in the config, otherwise all the counters are 0
+         */
+        void onProfile(Profile profile);
+    }
+
     void connect(Receiver receiver);
 
+    /**
+     * @throws UnsupportedOperationException if the port doesn't collect the profile
+     */
+    default void connectProfiler(ProfileReceiver receiver) {
+        throw new UnsupportedOperationException("profiling not supported");
+    }
+
+    /**
+     * Asks for the snapshot of the profile delivered to {@link ProfileReceiver}, safe to call from any thread
+     */
+    default void requestProfile() {
+    }
+
+    /**
+     * Safe to call from any thread, counts since the last power on, empty if the board was never powered on
+     * or the clock doesn't measure the lateness
+     *
+     * @return lateness of the target ticks, e.g. to check if the host keeps up with the cpu frequency
+     */
+    default LatencyHistogram getClockLateness(ClockTarget target) {
+        return LatencyHistogram.EMPTY;
+    }
+
+    /**
+     * Disconnects all the receivers
+     */
     void disconnect();
 }
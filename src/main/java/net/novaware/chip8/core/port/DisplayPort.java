@@ -1,5 +1,8 @@
 package net.novaware.chip8.core.port;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
 public interface DisplayPort extends OutputPort {
@@ -56,6 +59,104 @@ public interface DisplayPort extends OutputPort {
          * @return true if pixel is on
          */
         boolean getPixel(int column, int row);
+
+        /**
+         * Default implementation reads the pixels one by one
+         *
+         * @param row y coordinate
+         * @return pixels of the row, most significant bit is column 0 (64 columns)
+         */
+        default long getRow(int row) {
+            long pixels = 0;
+
+            for (int column = 0; column < Math.min(getColumnCount(), Long.SIZE); ++column) {
+                if (getPixel(column, row)) {
+                    pixels |= Long.MIN_VALUE >>> column;
+                }
+            }
+
+            return pixels;
+        }
+
+        /**
+         * Read only view of the whole frame, rows one after another, 1 bit per pixel, most significant bit first
+         * (same layout as the display IO memory). Valid only during the callback.
+         * Default implementation copies the rows into a new buffer.
+         */
+        default ByteBuffer getBitmap() {
+            final int rowBytes = Math.min((getColumnCount() + Byte.SIZE - 1) / Byte.SIZE, Long.BYTES);
+            final ByteBuffer bitmap = ByteBuffer.allocate(getRowCount() * rowBytes);
+
+            for (int row = 0; row < getRowCount(); ++row) {
+                final long pixels = getRow(row);
+
+                for (int i = 0; i < rowBytes; ++i) {
+                    bitmap.put((byte) (pixels >>> (Long.SIZE - Byte.SIZE * (i + 1))));
+                }
+            }
+
+            return bitmap.flip().asReadOnlyBuffer();
+        }
+
+        /**
+         * @return increments with every frame sent to the receiver, lets consumers skip frames they already have;
+         *         0 if the frames are not numbered
+         */
+        default long getFrameNumber() {
+            return 0;
+        }
+    }
+
+    /**
+     * Difference against the frame previously sent to the delta receiver. Changed pixels (XOR of both frames) are
+     * encoded as horizontal spans, each span flips {@code length} pixels starting at {@code column} in {@code row}.
+     * Key frame is the difference against a blank screen. Frame itself is still available through {@link Packet}.
+     */
+    interface DeltaPacket extends Packet {
+
+        /**
+         * Row, column and length of a span, one unsigned byte each
+         */
+        int SPAN_SIZE = 3;
+
+        /**
+         * @return true if the receiver should blank its screen before applying the spans
+         */
+        boolean isKeyFrame();
+
+        int getSpanCount();
+
+        int getSpanRow(int span);
+
+        int getSpanColumn(int span);
+
+        int getSpanLength(int span);
+
+        /**
+         * Read only view of the spans, {@link #SPAN_SIZE} bytes each, ready to be sent over the wire.
+         * Valid only during the callback.
+         */
+        ByteBuffer getSpans();
+    }
+
+    /**
+     * Frames handed over to a renderer thread. Publishing never blocks the emulation, renderer always gets
+     * the newest frame and the ones it didn't manage to take in time are dropped.
+     */
+    interface FrameSource {
+
+        /**
+         * @return newest frame published since the previous call or null if there is none. Frame belongs to
+         * the caller and doesn't change until the next call. Should be called from a single thread
+         */
+        @Nullable Packet take();
+
+        long getPublishedFrames();
+
+        /**
+         * @return frames replaced by a newer one before they were taken
+         */
+        long getDroppedFrames();
     }
 
     /**
@@ -64,6 +165,36 @@ public interface DisplayPort extends OutputPort {
      */
     void connect(Consumer<Packet> receiver);
 
+    /**
+     * Connects the consuming device interested only in changes. Starts with a key frame.
+     * Consumer should not hold on to the DeltaPacket (Flyweight)
+     * @throws UnsupportedOperationException if the port doesn't encode deltas
+     */
+    default void connectDelta(Consumer<DeltaPacket> receiver) {
+        throw new UnsupportedOperationException("delta frames not supported");
+    }
+
+    /**
+     * Connects the consuming device running on its own thread, it polls the returned source for frames.
+     * Replaces the source returned before
+     * @throws UnsupportedOperationException if the port doesn't hand off frames across threads
+     */
+    default FrameSource connectAsync() {
+        throw new UnsupportedOperationException("async frames not supported");
+    }
+
+    /**
+     * Next delta is a key frame, sent at the latest on the next render tick, e.g. for a late remote viewer
+     */
+    default void requestKeyFrame() {
+    }
+
+    /**
+     * @param interval number of delta frames between periodic key frames
+     */
+    default void setKeyFrameInterval(int interval) {
+    }
+
     //TODO: add consumer of fps and draw instrution calls to show indicator that something is happening in the back buffer
 
     Mode getMode();
@@ -71,7 +202,25 @@ public interface DisplayPort extends OutputPort {
     void setMode(Mode mode);
 
     /**
-     * Disconnect any previously connected receiver.
+     * @see #setCoalesced(boolean)
+     */
+    default boolean isCoalesced() {
+        return false;
+    }
+
+    /**
+     * @param coalesced if true, draw instructions only mark the frame dirty and it's composed (according to the mode)
+     *                  and sent once per render tick. Otherwise every draw instruction sends a frame
+     * @throws UnsupportedOperationException if coalescing is requested but the port sends every frame
+     */
+    default void setCoalesced(boolean coalesced) {
+        if (coalesced) {
+            throw new UnsupportedOperationException("coalescing not supported");
+        }
+    }
+
+    /**
+     * Disconnect any previously connected receivers.
      */
     void disconnect();
 }
@@ -38,6 +38,13 @@ public class AudioPortImpl implements AudioPort {
         this.receiver = receiver;
     }
 
+    /**
+     * Delivers the current state, e.g. after the register was restored without notifying the subscribers
+     */
+    public void refresh() {
+        maybeCallReceiver();
+    }
+
     private void maybeCallReceiver() {
         if (receiver != null) {
             receiver.accept(packet);
@@ -1,15 +1,64 @@
 package net.novaware.chip8.core.port.impl;
 
+import net.novaware.chip8.core.clock.ClockGenerator.Handle;
+import net.novaware.chip8.core.clock.LatencyHistogram;
 import net.novaware.chip8.core.cpu.CpuState;
+import net.novaware.chip8.core.cpu.ExecutionProfile;
+import net.novaware.chip8.core.cpu.instruction.DecodeTable;
 import net.novaware.chip8.core.cpu.register.ByteRegister;
 import net.novaware.chip8.core.cpu.unit.PowerMgmt;
+import net.novaware.chip8.core.jfr.CoreExceptionEvent;
 import net.novaware.chip8.core.port.DebugPort;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.Arrays;
+
 import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 
 public class DebugPortImpl implements DebugPort {
 
+    /**
+     * Read only view of the detached copy
+     */
+    private static final class Snapshot implements Profile {
+
+        private final ExecutionProfile profile;
+
+        Snapshot(final ExecutionProfile profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public long getInstructionCount(final int instruction) {
+            assertArgument(instruction >= 0 && instruction <= 0xFFFF, "instruction must be between 0 and 0xFFFF");
+
+            final int decoded = DecodeTable.getInstance().lookup(ushort(instruction));
+
+            return decoded == DecodeTable.UNKNOWN
+                    ? profile.getUnknownCount()
+                    : profile.getInstructionCount(DecodeTable.type(decoded));
+        }
+
+        @Override
+        public long getUnknownCount() {
+            return profile.getUnknownCount();
+        }
+
+        @Override
+        public long getAddressHits(final int address) {
+            return profile.getAddressHits(address);
+        }
+
+        @Override
+        public long getStateCycles(final WaitState state) {
+            requireNonNull(state, "state must not be null");
+
+            return profile.getStateCycles(CpuState.valueOf(state.name()));
+        }
+    }
+
     private final ByteRegister delayTimer;
 
     private final ByteRegister soundTimer;
@@ -18,17 +67,29 @@ public class DebugPortImpl implements DebugPort {
 
     private final PowerMgmt powerMgmt;
 
+    private final ExecutionProfile profile;
+
     private @Nullable Receiver receiver;
 
+    private @Nullable ProfileReceiver profileReceiver;
+
+    private volatile boolean profileRequested = false;
+
+    private volatile LatencyHistogram[] clockLateness = newClockLateness();
+
+    private @Nullable Boolean paused;
+
     public DebugPortImpl(
             ByteRegister delayTimer,
             ByteRegister soundTimer,
-            ByteRegister cpuState, PowerMgmt powerMgmt
+            ByteRegister cpuState, PowerMgmt powerMgmt,
+            ExecutionProfile profile
     ) {
         this.delayTimer = delayTimer;
         this.soundTimer = soundTimer;
         this.cpuState = cpuState;
         this.powerMgmt = powerMgmt;
+        this.profile = profile;
     }
 
     public void attachToRegister() {
@@ -38,8 +99,16 @@ public class DebugPortImpl implements DebugPort {
     }
 
     private void onCpuStateChange(ByteRegister cpuState) {
+        final boolean paused = powerMgmt.getState() == CpuState.SLEEP;
+
+        if (this.paused != null && this.paused == paused) {
+            return; // e.g. parking in idle loop
+        }
+
+        this.paused = paused;
+
         if(receiver != null) {
-            receiver.onStateChange(powerMgmt.getState() == CpuState.SLEEP);
+            receiver.onStateChange(paused);
         }
     }
 
@@ -55,7 +124,18 @@ public class DebugPortImpl implements DebugPort {
         }
     }
 
+    /**
+     * Delivers the current state, e.g. after the registers were restored without notifying the subscribers
+     */
+    public void refresh() {
+        onCpuStateChange(cpuState);
+        onDelayTimerChange(delayTimer);
+        onSoundTimerChange(soundTimer);
+    }
+
     public void onException(Exception exception) {
+        CoreExceptionEvent.emit(exception);
+
         if (receiver != null) {
             receiver.onException(exception);
         }
@@ -78,8 +158,75 @@ public class DebugPortImpl implements DebugPort {
         return receiver != null;
     }
 
+    @Override
+    public void connectProfiler(ProfileReceiver receiver) {
+        requireNonNull(receiver, "receiver must not be null");
+
+        this.profileReceiver = receiver;
+    }
+
+    @Override
+    public void requestProfile() {
+        profileRequested = true;
+    }
+
+    /**
+     * Delivers the snapshot if it was requested, called on core thread
+     */
+    public void maybeSendProfile() {
+        if (!profileRequested) {
+            return;
+        }
+
+        profileRequested = false;
+
+        if (profileReceiver != null) {
+            profileReceiver.onProfile(new Snapshot(profile.copy()));
+        }
+    }
+
+    /**
+     * Exposes the lateness of the handles scheduled on power on, indexed by {@link ClockTarget#ordinal()}
+     */
+    public void attachToClock(Handle... handles) {
+        assertArgument(handles.length == ClockTarget.values().length, "handles must match the clock targets");
+
+        final LatencyHistogram[] lateness = newClockLateness();
+
+        for (int i = 0; i < handles.length; ++i) {
+            lateness[i] = handles[i].getLateness();
+        }
+
+        clockLateness = lateness;
+    }
+
+    private static LatencyHistogram[] newClockLateness() {
+        final LatencyHistogram[] lateness = new LatencyHistogram[ClockTarget.values().length];
+        Arrays.fill(lateness, LatencyHistogram.EMPTY);
+
+        return lateness;
+    }
+
+    @Override
+    public LatencyHistogram getClockLateness(ClockTarget target) {
+        requireNonNull(target, "target must not be null");
+
+        return clockLateness[target.ordinal()];
+    }
+
     @Override
     public void disconnect() {
         receiver = null;
+        profileReceiver = null;
+    }
+
+    /**
+     * Disconnects and forgets the last state, stays attached to the registers
+     */
+    public void reset() {
+        disconnect();
+        paused = null;
+        profileRequested = false;
+        clockLateness = newClockLateness();
     }
 }
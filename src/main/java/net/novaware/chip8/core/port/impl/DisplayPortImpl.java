@@ -3,39 +3,103 @@ package net.novaware.chip8.core.port.impl;
 import net.novaware.chip8.core.cpu.register.ByteRegister;
 import net.novaware.chip8.core.cpu.register.RegisterFile;
 import net.novaware.chip8.core.gpu.ViewPort;
+import net.novaware.chip8.core.jfr.FrameEvent;
 import net.novaware.chip8.core.memory.Memory;
+import net.novaware.chip8.core.memory.RowTrackingMemory;
 import net.novaware.chip8.core.port.DisplayPort;
 import net.novaware.chip8.core.util.uml.Owned;
 import net.novaware.chip8.core.util.uml.Used;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 import static net.novaware.chip8.core.cpu.register.RegisterFile.*;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.AssertUtil.assertState;
+import static net.novaware.chip8.core.util.UnsignedUtil.ubyte;
 import static net.novaware.chip8.core.util.UnsignedUtil.uint;
 import static net.novaware.chip8.core.util.UnsignedUtil.ushort;
 
 public class DisplayPortImpl implements DisplayPort {
 
+    /**
+     * About a second at 60 Hz
+     */
+    public static final int DEFAULT_KEY_FRAME_INTERVAL = 60;
+
     @Used
     private final ByteRegister graphicChange;
 
     @Used
     private final Memory displayIo;
 
+    /**
+     * Reader of the dirty rows, -1 if the display IO doesn't track them
+     */
+    private final int rowReader;
+
+    /**
+     * Rows changed in the previous update, their prev buffer still differs from the back buffer
+     */
+    private long prevDirtyRows = RowTrackingMemory.ALL_ROWS;
+
     @Owned
     private final ViewPort viewPort = new ViewPort();
-    private ViewPort.Bit bit = new ViewPort.Bit();
-    private ViewPort.Index idx = new ViewPort.Index();
 
+    private final int rowSize = viewPort.getMaxWidth() / Byte.SIZE;
+
+    private final byte[] rowBytes = new byte[rowSize];
+    private final ByteBuffer row = ByteBuffer.wrap(rowBytes);
+
+    /**
+     * Row of pixels per long, most significant bit is x = 0
+     */
     @Owned
-    private final boolean[][] frontBuffer = new boolean[viewPort.getMaxHeight()][viewPort.getMaxWidth()]; // [y][x]
+    private final long[] frontBuffer = new long[viewPort.getMaxHeight()]; // [y]
     private boolean frontBufferTouched = true;
 
-    private final boolean[][] backBuffer = new boolean[viewPort.getMaxHeight()][viewPort.getMaxWidth()]; // [y][x]
-    private final boolean[][] prevBuffer = new boolean[viewPort.getMaxHeight()][viewPort.getMaxWidth()]; // [y][x]
+    private final long[] backBuffer = new long[viewPort.getMaxHeight()]; // [y]
+    private final long[] prevBuffer = new long[viewPort.getMaxHeight()]; // [y]
+
+    /**
+     * Front buffer in the display IO layout
+     */
+    private final ByteBuffer bitmap = ByteBuffer.allocate(viewPort.getMaxHeight() * rowSize);
+    private final ByteBuffer bitmapView = bitmap.asReadOnlyBuffer();
+
+    private long frameNumber = 0;
+
+    /**
+     * Draw instructions since the last tick, the front buffer isn't composed yet
+     */
+    private boolean coalesced = false;
+    private boolean framePending = false;
+
+    /**
+     * Prev buffer at the last falling edge since the last tick
+     */
+    private final long[] edgeBuffer = new long[viewPort.getMaxHeight()]; // [y]
+    private boolean edgePending = false;
+
+    /**
+     * Frame last sent to the delta receiver
+     */
+    private final long[] deltaBuffer = new long[viewPort.getMaxHeight()]; // [y]
+
+    /**
+     * At most 32 runs of ones in a row of 64 pixels
+     */
+    private final ByteBuffer spans = ByteBuffer.allocate(viewPort.getMaxHeight() * Long.SIZE / 2 * DeltaPacket.SPAN_SIZE);
+    private final ByteBuffer spansView = spans.asReadOnlyBuffer();
+    private boolean keyFrame = true;
+
+    private volatile boolean keyFrameRequested = true;
+    private int keyFrameInterval = DEFAULT_KEY_FRAME_INTERVAL;
+    private int framesSinceKeyFrame = 0;
 
     private boolean attachedToRegister = false;
 
@@ -63,16 +127,99 @@ public class DisplayPortImpl implements DisplayPort {
 
         @Override
         public boolean getPixel(int column, int row) {
-            return frontBuffer[row][column];
+            return frontBuffer[row] << column < 0;
+        }
+
+        @Override
+        public long getRow(int row) {
+            return frontBuffer[row];
+        }
+
+        @Override
+        public ByteBuffer getBitmap() {
+            return bitmapView.clear();
+        }
+
+        @Override
+        public long getFrameNumber() {
+            return frameNumber;
+        }
+    };
+
+    @Owned
+    private final DeltaPacket deltaPacket = new DeltaPacket() {
+        @Override
+        public int getColumnCount() {
+            return packet.getColumnCount();
+        }
+
+        @Override
+        public int getRowCount() {
+            return packet.getRowCount();
+        }
+
+        @Override
+        public boolean getPixel(int column, int row) {
+            return packet.getPixel(column, row);
+        }
+
+        @Override
+        public long getRow(int row) {
+            return packet.getRow(row);
+        }
+
+        @Override
+        public ByteBuffer getBitmap() {
+            return packet.getBitmap();
+        }
+
+        @Override
+        public long getFrameNumber() {
+            return packet.getFrameNumber();
+        }
+
+        @Override
+        public boolean isKeyFrame() {
+            return keyFrame;
+        }
+
+        @Override
+        public int getSpanCount() {
+            return spans.position() / SPAN_SIZE;
+        }
+
+        @Override
+        public int getSpanRow(int span) {
+            return uint(spans.get(span * SPAN_SIZE));
+        }
+
+        @Override
+        public int getSpanColumn(int span) {
+            return uint(spans.get(span * SPAN_SIZE + 1));
+        }
+
+        @Override
+        public int getSpanLength(int span) {
+            return uint(spans.get(span * SPAN_SIZE + 2));
+        }
+
+        @Override
+        public ByteBuffer getSpans() {
+            return spansView.clear().limit(spans.position());
         }
     };
 
     private @Nullable Consumer<Packet> receiver;
+    private @Nullable Consumer<DeltaPacket> deltaReceiver;
+    private @Nullable FrameTripleBuffer asyncFrames;
     private Mode mode = Mode.DIRECT;
 
     public DisplayPortImpl(ByteRegister graphicChange, Memory displayIo) {
         this.graphicChange = graphicChange;
         this.displayIo = displayIo;
+        this.rowReader = displayIo instanceof RowTrackingMemory ? ((RowTrackingMemory) displayIo).addReader() : -1;
+
+        assertState(viewPort.getMaxWidth() == Long.SIZE, "row of pixels must be a long");
     }
 
     /**
@@ -92,9 +239,13 @@ public class DisplayPortImpl implements DisplayPort {
             return; // prevent recursive loop or unneeded updates
         }
 
-        updateBuffers();
+        if (coalesced) {
+            captureBuffers();
+        } else {
+            updateBuffers();
 
-        maybeCallReceiver();
+            maybeCallReceiver();
+        }
 
         prevRealGcTime = System.nanoTime();
         prevRealGc = gc;
@@ -105,54 +256,221 @@ public class DisplayPortImpl implements DisplayPort {
     }
 
     private void maybeCallReceiver() {
-        if (receiver != null && frontBufferTouched) {
-            receiver.accept(packet);
+        if (frontBufferTouched) {
+            ++frameNumber;
+
+            final FrameEvent event = FrameEvent.start();
+
+            if (receiver != null) {
+                receiver.accept(packet);
+            }
+
+            maybeCallDeltaReceiver();
+
+            final FrameTripleBuffer asyncFrames = this.asyncFrames;
+            if (asyncFrames != null) {
+                asyncFrames.publish(frontBuffer, bitmap.array(), frameNumber);
+            }
+
+            event.finish(frameNumber);
         }
 
         frontBufferTouched = false;
     }
 
-    //TODO: consider switching array references instead of copying bits of data when switching buffers
+    /**
+     * Encodes the difference against the frame sent before, skips it if nothing changed (unless it's a key frame)
+     */
+    private void maybeCallDeltaReceiver() {
+        final Consumer<DeltaPacket> deltaReceiver = this.deltaReceiver;
+        if (deltaReceiver == null) {
+            return;
+        }
+
+        if (keyFrameRequested || framesSinceKeyFrame >= keyFrameInterval) {
+            keyFrameRequested = false;
+            keyFrame = true;
+            framesSinceKeyFrame = 0;
+            Arrays.fill(deltaBuffer, 0);
+        } else {
+            keyFrame = false;
+        }
+
+        spans.clear();
+
+        for (int y = 0; y < viewPort.getMaxHeight(); ++y) {
+            encodeSpans(y, deltaBuffer[y] ^ frontBuffer[y]);
+            deltaBuffer[y] = frontBuffer[y];
+        }
+
+        if (keyFrame || spans.position() > 0) {
+            ++framesSinceKeyFrame;
+            deltaReceiver.accept(deltaPacket);
+        }
+    }
+
+    /**
+     * @param changed pixels of the row to flip, most significant bit is x = 0
+     */
+    private void encodeSpans(final int y, long changed) {
+        while (changed != 0) {
+            final int column = Long.numberOfLeadingZeros(changed);
+            final int length = Long.numberOfLeadingZeros(~(changed << column));
+
+            spans.put(ubyte(y)).put(ubyte(column)).put(ubyte(length));
+
+            final int end = column + length;
+            changed = end == Long.SIZE ? 0 : changed & -1L >>> end;
+        }
+    }
+
+    /**
+     * Rescans only the rows changed in this or the previous update. In the rest prev and back buffers are equal to
+     * the display IO so the front buffer is just the back buffer (unless it waits for the falling edge).
+     */
     private void updateBuffers() {
         final boolean fallingEdge = isFallingEdge();
 
-        for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
-            for (int x  = 0; x < viewPort.getMaxWidth(); ++x) {
-                bit.x = x;
-                bit.y = y;
+        final long dirtyRows = takeDirtyRows();
+        final long rows = dirtyRows | prevDirtyRows;
+        prevDirtyRows = dirtyRows;
 
-                viewPort.toIndex(bit, idx, false);
+        for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+            if ((rows >>> y & 1) == 0) {
+                if (mode != Mode.FALLING_EDGE || fallingEdge) {
+                    setFrontRow(y, backBuffer[y]);
+                    frontBufferTouched = true;
+                }
+                continue;
+            }
 
-                byte frame = displayIo.getByte(ushort(idx.arrayByte));
-                int mask = 0x1 << 7 - idx.byteBit;
-                int pixel = (uint(frame) & mask) >>> 7 - idx.byteBit;
-                boolean pixelOn = pixel != 0;
+            prevBuffer[y] = backBuffer[y];
+            backBuffer[y] = readRow(y);
 
-                prevBuffer[y][x] = backBuffer[y][x];
-                backBuffer[y][x] = pixelOn;
+            switch(mode) {
+                case MERGE_FRAME:
+                    setFrontRow(y, backBuffer[y] | prevBuffer[y]);
+                    frontBufferTouched = true;
+                    break;
 
-                switch(mode) {
-                    case MERGE_FRAME:
-                        frontBuffer[y][x] = backBuffer[y][x] | prevBuffer[y][x];
-                        frontBufferTouched = true;
-                        break;
-
-                    case FALLING_EDGE:
-                        if (fallingEdge) {
-                            frontBuffer[y][x] = prevBuffer[y][x];
-                            frontBufferTouched = true;
-                        }
-                        break;
-                    case DIRECT:
-                    default:
-                        frontBuffer[y][x] = backBuffer[y][x];
+                case FALLING_EDGE:
+                    if (fallingEdge) {
+                        setFrontRow(y, prevBuffer[y]);
                         frontBufferTouched = true;
-                        break;
-                }
+                    }
+                    break;
+                case DIRECT:
+                default:
+                    setFrontRow(y, backBuffer[y]);
+                    frontBufferTouched = true;
+                    break;
             }
         }
     }
 
+    /**
+     * Keeps prev and back buffers up to date like {@link #updateBuffers()} but leaves the front buffer to
+     * {@link #composeFrontBuffer()}. Falling edge has to be caught now as the prev buffer changes with the next update.
+     */
+    private void captureBuffers() {
+        final boolean fallingEdge = isFallingEdge();
+
+        final long dirtyRows = takeDirtyRows();
+        final long rows = dirtyRows | prevDirtyRows;
+        prevDirtyRows = dirtyRows;
+
+        for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+            if ((rows >>> y & 1) != 0) {
+                prevBuffer[y] = backBuffer[y];
+                backBuffer[y] = readRow(y);
+            }
+        }
+
+        if (mode == Mode.FALLING_EDGE && fallingEdge) {
+            System.arraycopy(prevBuffer, 0, edgeBuffer, 0, viewPort.getMaxHeight());
+            edgePending = true;
+        }
+
+        framePending = true;
+    }
+
+    /**
+     * Front buffer as the last {@link #updateBuffers()} would leave it if called for every captured draw
+     */
+    private void composeFrontBuffer() {
+        if (!framePending) {
+            return;
+        }
+
+        switch (mode) {
+            case MERGE_FRAME:
+                for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+                    setFrontRow(y, backBuffer[y] | prevBuffer[y]);
+                }
+                frontBufferTouched = true;
+                break;
+
+            case FALLING_EDGE:
+                if (edgePending) {
+                    for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+                        setFrontRow(y, edgeBuffer[y]);
+                    }
+                    frontBufferTouched = true;
+                }
+                break;
+            case DIRECT:
+            default:
+                for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+                    setFrontRow(y, backBuffer[y]);
+                }
+                frontBufferTouched = true;
+                break;
+        }
+
+        framePending = false;
+        edgePending = false;
+
+        maybeCallReceiver();
+    }
+
+    private long takeDirtyRows() {
+        return rowReader >= 0 ? ((RowTrackingMemory) displayIo).takeDirtyRows(rowReader) : RowTrackingMemory.ALL_ROWS;
+    }
+
+    /**
+     * @return pixels of the row, most significant bit is x = 0
+     */
+    private long readRow(final int y) {
+        displayIo.getBytes(ushort(y * rowSize), rowBytes, rowSize);
+        return row.getLong(0);
+    }
+
+    private void setFrontRow(final int y, final long pixels) {
+        frontBuffer[y] = pixels;
+        bitmap.putLong(y * rowSize, pixels);
+    }
+
+    /**
+     * Shows the display IO as is in every mode, e.g. after restoring a snapshot
+     */
+    public void refresh() {
+        takeDirtyRows();
+        prevDirtyRows = 0;
+        framePending = false;
+        edgePending = false;
+
+        for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
+            final long pixels = readRow(y);
+
+            prevBuffer[y] = pixels;
+            backBuffer[y] = pixels;
+            setFrontRow(y, pixels);
+        }
+
+        frontBufferTouched = true;
+        maybeCallReceiver();
+    }
+
     private boolean isFallingEdge() {
         final short gc = graphicChange.get();
         return (prevRealGc != GC_ERASE && gc == GC_ERASE) || gc == GC_MIX;
@@ -165,6 +483,34 @@ public class DisplayPortImpl implements DisplayPort {
         this.receiver = receiver;
     }
 
+    @Override
+    public void connectDelta(Consumer<DeltaPacket> receiver) {
+        requireNonNull(receiver, "receiver must not be null");
+
+        keyFrameRequested = true;
+        this.deltaReceiver = receiver;
+    }
+
+    @Override
+    public FrameSource connectAsync() {
+        final FrameTripleBuffer asyncFrames = new FrameTripleBuffer(viewPort.getMaxHeight(), rowSize);
+        this.asyncFrames = asyncFrames;
+
+        return asyncFrames;
+    }
+
+    @Override
+    public void requestKeyFrame() {
+        keyFrameRequested = true;
+    }
+
+    @Override
+    public void setKeyFrameInterval(int interval) {
+        assertArgument(interval > 0, "interval must be positive");
+
+        this.keyFrameInterval = interval;
+    }
+
     @Override
     public Mode getMode() {
         return mode;
@@ -177,7 +523,27 @@ public class DisplayPortImpl implements DisplayPort {
         this.mode = mode;
     }
 
+    @Override
+    public boolean isCoalesced() {
+        return coalesced;
+    }
+
+    @Override
+    public void setCoalesced(boolean coalesced) {
+        if (!coalesced) {
+            composeFrontBuffer(); // don't lose the pending frame
+        }
+
+        this.coalesced = coalesced;
+    }
+
     public void tick() {
+        composeFrontBuffer();
+
+        if (keyFrameRequested && deltaReceiver != null) {
+            maybeCallDeltaReceiver(); // screen might not change for a while
+        }
+
         if (mode == Mode.FALLING_EDGE) {
             long now = System.nanoTime();
             if (now - prevRealGcTime > TimeUnit.MILLISECONDS.toNanos(100)) { //TODO: configurable!
@@ -187,13 +553,10 @@ public class DisplayPortImpl implements DisplayPort {
         }
     }
 
-    //TODO: consider switching array references instead of copying bits of data when switching buffers
     private void updateFrontBuffer() {
         for (int y  = 0; y < viewPort.getMaxHeight(); ++y) {
-            for (int x  = 0; x < viewPort.getMaxWidth(); ++x) {
-                frontBuffer[y][x] = backBuffer[y][x];
-                frontBufferTouched = true;
-            }
+            setFrontRow(y, backBuffer[y]);
+            frontBufferTouched = true;
         }
 
         maybeCallReceiver();
@@ -202,5 +565,34 @@ public class DisplayPortImpl implements DisplayPort {
     @Override
     public void disconnect() {
         receiver = null;
+        deltaReceiver = null;
+        asyncFrames = null;
+    }
+
+    /**
+     * Disconnects and blanks the buffers, as after construction. Stays attached to the register.
+     */
+    public void reset() {
+        disconnect();
+
+        Arrays.fill(frontBuffer, 0);
+        Arrays.fill(backBuffer, 0);
+        Arrays.fill(prevBuffer, 0);
+        Arrays.fill(bitmap.array(), (byte) 0);
+
+        frontBufferTouched = true;
+        frameNumber = 0;
+        Arrays.fill(deltaBuffer, 0);
+        spans.clear();
+        keyFrameRequested = true;
+        keyFrameInterval = DEFAULT_KEY_FRAME_INTERVAL;
+        framesSinceKeyFrame = 0;
+        coalesced = false;
+        framePending = false;
+        edgePending = false;
+        prevDirtyRows = RowTrackingMemory.ALL_ROWS; // display IO may differ from the blank buffers
+        prevRealGc = RegisterFile.GC_DRAW;
+        prevRealGcTime = -1;
+        mode = Mode.DIRECT;
     }
 }
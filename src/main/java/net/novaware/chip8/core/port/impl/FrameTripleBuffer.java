@@ -0,0 +1,123 @@
+package net.novaware.chip8.core.port.impl;
+
+import net.novaware.chip8.core.port.DisplayPort;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free triple buffer of frames between the emulation (single writer) and a renderer (single reader).
+ * <p>
+ * Writer fills the back frame and swaps it with the middle one, reader swaps its front frame with the middle one
+ * if a fresh frame was published there. Neither side waits for the other. A fresh middle frame replaced by
+ * the writer counts as dropped.
+ */
+/* package */ final class FrameTripleBuffer implements DisplayPort.FrameSource {
+
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    /* package */ static final class Frame implements DisplayPort.Packet {
+
+        private final long[] rows;
+        private final byte[] bitmap;
+        private final ByteBuffer bitmapView;
+        private long frameNumber;
+
+        private Frame(final int rowCount, final int rowSize) {
+            rows = new long[rowCount];
+            bitmap = new byte[rowCount * rowSize];
+            bitmapView = ByteBuffer.wrap(bitmap).asReadOnlyBuffer();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return Long.SIZE;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.length;
+        }
+
+        @Override
+        public boolean getPixel(int column, int row) {
+            return rows[row] << column < 0;
+        }
+
+        @Override
+        public long getRow(int row) {
+            return rows[row];
+        }
+
+        @Override
+        public ByteBuffer getBitmap() {
+            return bitmapView.clear();
+        }
+
+        @Override
+        public long getFrameNumber() {
+            return frameNumber;
+        }
+    }
+
+    private final Frame[] frames = new Frame[3];
+
+    private int back = 0; // writer only
+    private final AtomicInteger middle = new AtomicInteger(1); // index | FRESH
+    private int front = 2; // reader only
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /* package */ FrameTripleBuffer(final int rowCount, final int rowSize) {
+        for (int i = 0; i < frames.length; ++i) {
+            frames[i] = new Frame(rowCount, rowSize);
+        }
+    }
+
+    /**
+     * Copies the frame into the back buffer and publishes it
+     *
+     * @param rows pixels per row, most significant bit is x = 0
+     * @param bitmap the same frame in the display IO layout
+     */
+    /* package */ void publish(final long[] rows, final byte[] bitmap, final long frameNumber) {
+        final Frame frame = frames[back];
+
+        System.arraycopy(rows, 0, frame.rows, 0, frame.rows.length);
+        System.arraycopy(bitmap, 0, frame.bitmap, 0, frame.bitmap.length);
+        frame.frameNumber = frameNumber;
+
+        final int prev = middle.getAndSet(back | FRESH);
+        back = prev & INDEX_MASK;
+
+        if ((prev & FRESH) != 0) {
+            dropped.incrementAndGet();
+        }
+        published.incrementAndGet();
+    }
+
+    @Override
+    public @Nullable Frame take() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+
+        front = middle.getAndSet(front) & INDEX_MASK;
+
+        return frames[front];
+    }
+
+    @Override
+    public long getPublishedFrames() {
+        return published.get();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return dropped.get();
+    }
+}
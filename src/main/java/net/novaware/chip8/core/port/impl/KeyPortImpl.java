@@ -9,6 +9,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
@@ -134,6 +135,25 @@ public class KeyPortImpl implements KeyPort {
         receiver = null;
     }
 
+    /**
+     * Writes the checked inputs, 2 bytes
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putShort(ushort(inputsChecked));
+    }
+
+    public void restore(final ByteBuffer buffer) {
+        inputsChecked = uint(buffer.getShort());
+    }
+
+    /**
+     * Disconnects and forgets the checked inputs, stays attached to the register
+     */
+    public void reset() {
+        disconnect();
+        inputsChecked = 0;
+    }
+
     static class Transmitter implements Consumer<InputPacket> {
 
         @Nullable
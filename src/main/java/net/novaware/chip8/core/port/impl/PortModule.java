@@ -2,6 +2,7 @@ package net.novaware.chip8.core.port.impl;
 
 import dagger.Module;
 import dagger.Provides;
+import net.novaware.chip8.core.cpu.ExecutionProfile;
 import net.novaware.chip8.core.cpu.register.ByteRegister;
 import net.novaware.chip8.core.cpu.register.RegisterModule;
 import net.novaware.chip8.core.cpu.register.TribbleRegister;
@@ -78,8 +79,9 @@ public class PortModule {
             @Named(RegisterModule.DELAY) final ByteRegister delay,
             @Named(RegisterModule.SOUND) final ByteRegister sound,
             @Named(RegisterModule.CPU_STATE) final ByteRegister cpuState,
-            final PowerMgmt powerMgmt
+            final PowerMgmt powerMgmt,
+            final ExecutionProfile profile
     ) {
-        return new DebugPortImpl(delay, sound, cpuState, powerMgmt);
+        return new DebugPortImpl(delay, sound, cpuState, powerMgmt, profile);
     }
 }
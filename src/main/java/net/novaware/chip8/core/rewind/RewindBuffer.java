@@ -0,0 +1,285 @@
+package net.novaware.chip8.core.rewind;
+
+import net.novaware.chip8.core.Board;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.Board.SNAPSHOT_SIZE;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Records a {@link Board} once per frame into a single preallocated ring and rewinds it by a number of frames.
+ * <p>
+ * Every n-th record is a keyframe, full {@link Board#snapshot(ByteBuffer) snapshot}. Records in between are deltas
+ * holding only the {@link #PAGE_SIZE} byte pages of the snapshot which changed since the previous frame. When the ring
+ * runs out of frames or bytes the oldest keyframe is evicted together with its deltas.
+ * <p>
+ * Not thread safe, call on the thread running the board (same as the snapshot).
+ */
+public class RewindBuffer {
+
+    public static final int PAGE_SIZE = 16;
+
+    public static final int DEFAULT_FRAMES = 60 * 60; // a minute at 60 fps
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 5 * 60;
+    public static final int DEFAULT_CAPACITY = 384 * 1024;
+
+    private static final int PAGE_COUNT = (SNAPSHOT_SIZE + PAGE_SIZE - 1) / PAGE_SIZE;
+    private static final int STATE_SIZE = PAGE_COUNT * PAGE_SIZE; // zero padded snapshot, whole pages only
+
+    private static final int DELTA_HEADER_SIZE = Short.BYTES; // page count
+    private static final int PAGE_HEADER_SIZE = Short.BYTES; // page index
+
+    private final Board board;
+    private final int keyframeInterval;
+
+    private final byte[] ring;
+    private final ByteBuffer ringView;
+
+    // Records from the oldest one, circular
+    private final int[] offsets;
+    private final int[] lengths;
+    private final boolean[] keyframes;
+    private int first = 0;
+    private int count = 0;
+
+    private int deltasSinceKeyframe = 0;
+
+    // Recorded frame and the one being recorded, swapped after each record
+    private byte[] previous = new byte[STATE_SIZE];
+    private ByteBuffer previousView = ByteBuffer.wrap(previous);
+    private byte[] current = new byte[STATE_SIZE];
+    private ByteBuffer currentView = ByteBuffer.wrap(current);
+
+    private final int[] dirtyPages = new int[PAGE_COUNT];
+
+    public RewindBuffer(final Board board) {
+        this(board, DEFAULT_FRAMES, DEFAULT_KEYFRAME_INTERVAL, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param frames max number of records
+     * @param keyframeInterval every n-th record is a keyframe, bigger saves space, smaller speeds up the rewind
+     * @param capacity of the ring in bytes
+     */
+    public RewindBuffer(final Board board, final int frames, final int keyframeInterval, final int capacity) {
+        assertArgument(frames > 0, "frames must be positive");
+        assertArgument(keyframeInterval > 0, "keyframeInterval must be positive");
+        assertArgument(capacity >= SNAPSHOT_SIZE, "capacity must fit at least one snapshot");
+
+        this.board = requireNonNull(board, "board must not be null");
+        this.keyframeInterval = keyframeInterval;
+
+        this.ring = new byte[capacity];
+        this.ringView = ByteBuffer.wrap(ring);
+
+        this.offsets = new int[frames];
+        this.lengths = new int[frames];
+        this.keyframes = new boolean[frames];
+    }
+
+    /**
+     * Records the current state of the board as the newest frame. Doesn't allocate.
+     */
+    public void record() {
+        currentView.clear();
+        board.snapshot(currentView);
+
+        boolean written = false;
+
+        if (count > 0 && deltasSinceKeyframe + 1 < keyframeInterval) {
+            final int dirtyCount = findDirtyPages();
+            final int size = DELTA_HEADER_SIZE + dirtyCount * (PAGE_HEADER_SIZE + PAGE_SIZE);
+
+            if (size < SNAPSHOT_SIZE) {
+                final int offset = allocate(size);
+
+                if (count > 0) { // the previous frame survived the eviction
+                    writeDelta(offset, dirtyCount);
+                    append(offset, size, false);
+                    ++deltasSinceKeyframe;
+                    written = true;
+                }
+            }
+        }
+
+        if (!written) {
+            final int offset = allocate(SNAPSHOT_SIZE);
+            System.arraycopy(current, 0, ring, offset, SNAPSHOT_SIZE);
+            append(offset, SNAPSHOT_SIZE, true);
+            deltasSinceKeyframe = 0;
+        }
+
+        swap();
+    }
+
+    /**
+     * Restores the board to the frame recorded the given number of frames before the newest one and drops the newer
+     * frames, so the recording continues from there.
+     *
+     * @param frames 0 restores the newest frame
+     * @return number of frames actually rewound, limited by the recorded ones
+     */
+    public int rewind(final int frames) {
+        assertArgument(frames >= 0, "frames must not be negative");
+
+        if (count == 0) {
+            return 0;
+        }
+
+        final int rewound = Math.min(frames, count - 1);
+        final int target = count - 1 - rewound;
+
+        int keyframe = target;
+        while (!keyframes[index(keyframe)]) {
+            --keyframe;
+        }
+
+        System.arraycopy(ring, offsets[index(keyframe)], previous, 0, SNAPSHOT_SIZE);
+
+        for (int i = keyframe + 1; i <= target; ++i) {
+            applyDelta(offsets[index(i)]);
+        }
+
+        previousView.clear();
+        board.restore(previousView);
+
+        count = target + 1;
+        deltasSinceKeyframe = target - keyframe;
+
+        return rewound;
+    }
+
+    public void clear() {
+        first = 0;
+        count = 0;
+        deltasSinceKeyframe = 0;
+    }
+
+    public int getFrameCount() {
+        return count;
+    }
+
+    /**
+     * @return bytes taken by the records
+     */
+    public int getUsedBytes() {
+        int used = 0;
+
+        for (int i = 0; i < count; ++i) {
+            used += lengths[index(i)];
+        }
+
+        return used;
+    }
+
+    private int findDirtyPages() {
+        int dirtyCount = 0;
+
+        for (int page = 0; page < PAGE_COUNT; ++page) {
+            final int from = page * PAGE_SIZE;
+            final int to = from + PAGE_SIZE;
+
+            if (!Arrays.equals(current, from, to, previous, from, to)) {
+                dirtyPages[dirtyCount++] = page;
+            }
+        }
+
+        return dirtyCount;
+    }
+
+    private void writeDelta(final int offset, final int dirtyCount) {
+        int position = offset;
+
+        ringView.putShort(position, (short) dirtyCount);
+        position += DELTA_HEADER_SIZE;
+
+        for (int i = 0; i < dirtyCount; ++i) {
+            final int page = dirtyPages[i];
+
+            ringView.putShort(position, (short) page);
+            position += PAGE_HEADER_SIZE;
+
+            System.arraycopy(current, page * PAGE_SIZE, ring, position, PAGE_SIZE);
+            position += PAGE_SIZE;
+        }
+    }
+
+    private void applyDelta(final int offset) {
+        int position = offset;
+
+        final int dirtyCount = ringView.getShort(position);
+        position += DELTA_HEADER_SIZE;
+
+        for (int i = 0; i < dirtyCount; ++i) {
+            final int page = ringView.getShort(position);
+            position += PAGE_HEADER_SIZE;
+
+            System.arraycopy(ring, position, previous, page * PAGE_SIZE, PAGE_SIZE);
+            position += PAGE_SIZE;
+        }
+    }
+
+    /**
+     * Records never wrap around the end of the ring, the remainder is skipped instead
+     *
+     * @return offset of a free space, evicts the oldest records to make it
+     */
+    private int allocate(final int size) {
+        while (count > 0) {
+            if (count < offsets.length) {
+                final int tail = offsets[first];
+                final int newest = index(count - 1);
+                final int head = offsets[newest] + lengths[newest];
+
+                if (head > tail) {
+                    if (ring.length - head >= size) {
+                        return head;
+                    }
+                    if (tail >= size) {
+                        return 0;
+                    }
+                } else if (tail - head >= size) {
+                    return head;
+                }
+            }
+
+            evictOldest();
+        }
+
+        return 0;
+    }
+
+    private void evictOldest() {
+        do {
+            first = index(1);
+            --count;
+        } while (count > 0 && !keyframes[first]); // deltas are useless without their keyframe
+    }
+
+    private void append(final int offset, final int length, final boolean keyframe) {
+        final int index = index(count);
+
+        offsets[index] = offset;
+        lengths[index] = length;
+        keyframes[index] = keyframe;
+
+        ++count;
+    }
+
+    private int index(final int position) {
+        return (first + position) % offsets.length;
+    }
+
+    private void swap() {
+        final byte[] bytes = previous;
+        previous = current;
+        current = bytes;
+
+        final ByteBuffer view = previousView;
+        previousView = currentView;
+        currentView = view;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Rewinding a {@link net.novaware.chip8.core.Board} to one of the recently recorded frames
+ */
+package net.novaware.chip8.core.rewind;
@@ -0,0 +1,103 @@
+package net.novaware.chip8.core.util;
+
+import net.novaware.chip8.core.util.di.BoardScope;
+
+import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.novaware.chip8.core.util.AssertUtil.assertState;
+
+/**
+ * Records which {@link PubSub}s changed and dispatches them all at once, e.g. at the end of a CPU cycle.
+ * <p>
+ * A source marked multiple times before the flush is dispatched once, so subscribers only see the last value.
+ * Marking is thread safe, flushing should be done by the thread which runs the board.
+ */
+@BoardScope
+public class DirtySet {
+
+    /**
+     * Limit of dispatch rounds in a single flush, subscribers changing sources they listen to could loop forever
+     */
+    /* package */ static final int MAX_ROUNDS = 8;
+
+    private static final int CAPACITY = Long.SIZE;
+
+    private final Runnable[] targets = new Runnable[CAPACITY];
+    private int size = 0;
+
+    private final AtomicLong dirty = new AtomicLong();
+
+    private volatile boolean enabled = false;
+
+    @Inject
+    public DirtySet() {
+    }
+
+    /**
+     * @param target dispatching the changes synchronously
+     * @return bit to mark
+     */
+    public int add(final Runnable target) {
+        assertState(size < CAPACITY, "dirty set can't track more than " + CAPACITY + " sources");
+
+        targets[size] = target;
+        return size++;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Disabling dispatches the pending changes first
+     */
+    public void setEnabled(final boolean enabled) {
+        if (!enabled) {
+            flush();
+        }
+
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return false if disabled and the caller should dispatch synchronously
+     */
+    public boolean mark(final int bit) {
+        if (!enabled) {
+            return false;
+        }
+
+        final long mask = 1L << bit;
+        long current;
+        do {
+            current = dirty.get();
+        } while ((current & mask) == 0 && !dirty.compareAndSet(current, current | mask));
+
+        return true;
+    }
+
+    public boolean isDirty() {
+        return dirty.get() != 0;
+    }
+
+    /**
+     * Dispatches marked sources, including ones marked by the subscribers in the meantime
+     */
+    public void flush() {
+        for (int round = 0; round < MAX_ROUNDS; ++round) {
+            long pending = dirty.getAndSet(0);
+
+            if (pending == 0) {
+                return;
+            }
+
+            while (pending != 0) {
+                final int bit = Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+
+                targets[bit].run();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.novaware.chip8.core.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+
+/**
+ * Ring buffer of the last executed instructions, stored as packed primitives so recording doesn't allocate.
+ * <p>
+ * Each record takes 2 longs:
+ * <pre>
+ *  1st - bits  0-15 MAR, 16-31 opcode, 32-47 PC after execution, 48-63 I
+ *  2nd - bits  0-7  VF,  8-63  cycle
+ * </pre>
+ * There is a single writer (the thread running the board). Readers (see {@link TraceDrainer}) copy the records
+ * concurrently and detect the ones overwritten in the meantime.
+ */
+public class ExecutionTrace {
+
+    /* package */ static final int LONGS_PER_RECORD = 2;
+
+    public static final int MAX_SIZE = 1 << 28;
+
+    private final int capacity; // power of 2, in records
+    private final int mask;
+    private final long[] ring;
+
+    private long cycle = 0;
+    private long head = 0;
+
+    /**
+     * Number of records written, published after the record is complete
+     */
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * @param size minimal number of records kept, rounded up to the power of 2; 0 disables tracing
+     */
+    public ExecutionTrace(final int size) {
+        assertArgument(size >= 0 && size <= MAX_SIZE, "size must be between 0 and " + MAX_SIZE);
+
+        this.capacity = size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+        this.mask = capacity - 1;
+        this.ring = new long[capacity * LONGS_PER_RECORD];
+    }
+
+    /**
+     * @return trace which only counts the cycles, not shared as every board counts its own
+     */
+    public static ExecutionTrace disabled() {
+        return new ExecutionTrace(0);
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Advances the cycle counter, called once per CPU clock tick
+     */
+    public void tick() {
+        ++cycle;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Forgets all the records and the cycles, readers should start over
+     */
+    public void clear() {
+        cycle = 0;
+        head = 0;
+        published.set(0);
+    }
+
+    public void record(
+        final short memoryAddress,
+        final short opcode,
+        final short programCounter,
+        final short index,
+        final byte vf
+    ) {
+        final long h = head;
+        final int slot = (int) (h & mask) * LONGS_PER_RECORD;
+
+        // lazy set publishing the previous record orders only the stores before it, without the fence the overwrite
+        // could become visible while readers still see the old count and take the torn record as intact
+        VarHandle.storeStoreFence();
+
+        ring[slot] = (memoryAddress & 0xFFFFL)
+                | (opcode & 0xFFFFL) << 16
+                | (programCounter & 0xFFFFL) << 32
+                | (index & 0xFFFFL) << 48;
+        ring[slot + 1] = (vf & 0xFFL) | cycle << 8;
+
+        head = h + 1;
+        published.lazySet(head);
+    }
+
+    /**
+     * @return number of records written so far, including the overwritten ones
+     */
+    public long getWritten() {
+        return published.get();
+    }
+
+    /**
+     * Copies records {@code [from, from + records)}, all of them should be written already.
+     *
+     * @param destination receives {@link #LONGS_PER_RECORD} longs per record
+     * @return sequence number of the first intact record, the ones before it were overwritten while copying
+     */
+    /* package */ long copy(final long from, final long[] destination, final int records) {
+        for (int i = 0; i < records; ++i) {
+            final int slot = (int) ((from + i) & mask) * LONGS_PER_RECORD;
+
+            destination[i * LONGS_PER_RECORD] = ring[slot];
+            destination[i * LONGS_PER_RECORD + 1] = ring[slot + 1];
+        }
+
+        // volatile read alone lets the plain loads above move after it, an overwritten record could pass as intact
+        VarHandle.acquireFence();
+
+        // the slot being written right now belongs to the record published next, it may be torn
+        final long oldestIntact = published.get() - capacity + 1;
+
+        return Math.max(from, oldestIntact);
+    }
+
+    public static int memoryAddress(final long first) {
+        return (int) (first & 0xFFFF);
+    }
+
+    public static int opcode(final long first) {
+        return (int) (first >>> 16 & 0xFFFF);
+    }
+
+    public static int programCounter(final long first) {
+        return (int) (first >>> 32 & 0xFFFF);
+    }
+
+    public static int index(final long first) {
+        return (int) (first >>> 48 & 0xFFFF);
+    }
+
+    public static int vf(final long second) {
+        return (int) (second & 0xFF);
+    }
+
+    public static long cycle(final long second) {
+        return second >>> 8;
+    }
+}
@@ -39,6 +39,15 @@ public class FrequencyCounter {
         pubSub = new PubSub<>(this);
     }
 
+    /**
+     * Forgets the samples, subscribers stay
+     */
+    public void reset() {
+        numberOfSample = 0;
+        calculatedFrequency = 0;
+        lastSampleTakenAt = 0;
+    }
+
     public void takeASample() {
         long start = nanoTime.getAsLong();
 
@@ -2,6 +2,7 @@ package net.novaware.chip8.core.util;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +30,12 @@ public class PubSub<T> {
      */
     private boolean publishing = false;
 
+    /**
+     * Set if publishing is deferred till the next {@link DirtySet#flush()}
+     */
+    private @Nullable DirtySet dirtySet;
+    private int dirtyBit = -1;
+
     public PubSub(T source) {
         this(source, true);
     }
@@ -46,7 +53,38 @@ public class PubSub<T> {
         subscribers.add(subscriber);
     }
 
+    /**
+     * Defers publishing to the dirty set while it's enabled
+     */
+    public void deferTo(final DirtySet dirtySet) {
+        requireNonNull(dirtySet, "dirty set can't be null");
+
+        if (dirtySet.equals(this.dirtySet)) {
+            return;
+        }
+
+        assertState(this.dirtySet == null, "already deferred to other dirty set");
+
+        this.dirtySet = dirtySet;
+        this.dirtyBit = dirtySet.add(this::publishNow);
+    }
+
     public void publish() {
+        if (subscribers.isEmpty()) {
+            return; // most registers have no subscribers, keep it cheap
+        }
+
+        if (dirtySet != null && dirtySet.mark(dirtyBit)) {
+            return; // coalesced, subscribers will see the last value
+        }
+
+        publishNow();
+    }
+
+    /**
+     * Publishes synchronously, regardless of deferral
+     */
+    public void publishNow() {
         if (preventRecursivePublishing) {
             assertState(!publishing, "can't publish during publishing");
         }
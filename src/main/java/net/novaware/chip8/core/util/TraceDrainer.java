@@ -0,0 +1,168 @@
+package net.novaware.chip8.core.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static java.util.Objects.requireNonNull;
+import static net.novaware.chip8.core.util.AssertUtil.assertArgument;
+import static net.novaware.chip8.core.util.AssertUtil.assertState;
+import static net.novaware.chip8.core.util.ExecutionTrace.LONGS_PER_RECORD;
+
+/**
+ * Periodically copies new records of the {@link ExecutionTrace} in the background and writes them as a binary stream.
+ * <p>
+ * Format (big endian):
+ * <pre>
+ *  header      - "C8TR" magic, version (short)
+ *  instruction - tag 0x01, cycle (long), MAR, opcode, PC, I (shorts), VF (byte)
+ *  gap         - tag 0x02, number of records overwritten before they were drained (long)
+ * </pre>
+ */
+public class TraceDrainer {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    public static final int MAGIC = 0x43385452; // C8TR
+    public static final int VERSION = 1;
+
+    public static final int TAG_INSTRUCTION = 0x01;
+    public static final int TAG_GAP = 0x02;
+
+    private static final int BATCH_SIZE = 4096; // records
+
+    private final ExecutionTrace trace;
+    private final DataOutputStream out;
+    private final long periodMillis;
+
+    private final long[] batch;
+
+    private @Nullable Thread thread;
+    private volatile boolean running = false;
+
+    // accessed by the drainer thread only while it runs
+    private long next = 0; // sequence number of the first record not written yet
+    private volatile long lost = 0;
+
+    /**
+     * Writes the header right away, call {@link #start()} to drain in the background
+     */
+    public TraceDrainer(final ExecutionTrace trace, final OutputStream out, final long periodMillis) throws IOException {
+        assertArgument(trace.isEnabled(), "trace must be enabled");
+        assertArgument(periodMillis > 0, "period must be positive");
+
+        this.trace = trace;
+        this.out = new DataOutputStream(new BufferedOutputStream(requireNonNull(out, "out must not be null")));
+        this.periodMillis = periodMillis;
+
+        this.batch = new long[Math.min(BATCH_SIZE, trace.getCapacity()) * LONGS_PER_RECORD];
+
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+    }
+
+    public void start() {
+        assertState(thread == null, "drainer was already started");
+
+        final Thread drainer = new Thread(this::run, "Chip8-Trace-Drainer");
+        drainer.setDaemon(true);
+
+        running = true;
+        thread = drainer;
+        drainer.start();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                drain();
+                Thread.sleep(periodMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | UncheckedIOException e) {
+            LOG.error("Trace draining failed", e);
+            running = false;
+        }
+    }
+
+    /**
+     * Writes all the records published so far, not to be called while started
+     */
+    public void drain() throws IOException {
+        final long written = trace.getWritten();
+        final int capacity = trace.getCapacity();
+
+        while (next < written) {
+            final long from = Math.max(next, written - capacity + 1); // oldest slot may be torn by the writer
+            final int count = (int) Math.min(batch.length / LONGS_PER_RECORD, written - from);
+
+            final long intact = Math.min(trace.copy(from, batch, count), from + count);
+
+            writeGap(intact - next);
+
+            for (int i = (int) (intact - from); i < count; ++i) {
+                writeInstruction(batch[i * LONGS_PER_RECORD], batch[i * LONGS_PER_RECORD + 1]);
+            }
+
+            next = from + count;
+        }
+
+        out.flush();
+    }
+
+    private void writeGap(final long records) throws IOException {
+        if (records > 0) {
+            out.writeByte(TAG_GAP);
+            out.writeLong(records);
+            lost += records;
+        }
+    }
+
+    private void writeInstruction(final long first, final long second) throws IOException {
+        out.writeByte(TAG_INSTRUCTION);
+        out.writeLong(ExecutionTrace.cycle(second));
+        out.writeShort(ExecutionTrace.memoryAddress(first));
+        out.writeShort(ExecutionTrace.opcode(first));
+        out.writeShort(ExecutionTrace.programCounter(first));
+        out.writeShort(ExecutionTrace.index(first));
+        out.writeByte(ExecutionTrace.vf(second));
+    }
+
+    /**
+     * @return number of records overwritten before they were drained
+     */
+    public long getLost() {
+        return lost;
+    }
+
+    /**
+     * Stops the background thread, drains the remaining records and closes the stream
+     */
+    public void close() throws IOException {
+        final Thread drainer = thread;
+
+        if (drainer != null) {
+            running = false;
+            drainer.interrupt();
+
+            try {
+                drainer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package net.novaware.chip8.core
 
 import net.novaware.chip8.core.clock.ScheduledClockGenerator
-import net.novaware.chip8.core.config.CoreConfig
+import net.novaware.chip8.core.clock.VirtualClockGenerator
 import net.novaware.chip8.core.config.MutableConfig
 import net.novaware.chip8.core.cpu.CpuState
+import net.novaware.chip8.core.cpu.instruction.InstructionType
 import net.novaware.chip8.core.port.DisplayPort
 import net.novaware.chip8.core.port.KeyPort
 import net.novaware.chip8.core.port.StoragePort
 import spock.lang.Specification
-import spock.util.concurrent.PollingConditions
 
+import static java.util.concurrent.TimeUnit.SECONDS
 import static net.novaware.chip8.core.BoardFactory.newBoardFactory
 import static net.novaware.chip8.core.util.UnsignedUtil.uint
 
@@ -19,7 +20,7 @@ import static net.novaware.chip8.core.util.UnsignedUtil.uint
 //TODO: refactor this test
 class BoardCT extends Specification {
 
-    CoreConfig config = new MutableConfig(
+    MutableConfig config = new MutableConfig(
             cpuFrequency: 600,
             delayTimerFrequency: 61,
             soundTimerFrequency: 59,
@@ -43,9 +44,7 @@ class BoardCT extends Specification {
 
     def "should be created and run few cycles without exceptions" () {
         given:
-        def conditions = new PollingConditions(timeout: 1, initialDelay: 0.1, factor: 2.0)
-
-        def clock = new ScheduledClockGenerator("Test");
+        def clock = new VirtualClockGenerator()
 
         def factory = newBoardFactory(config, clock, new Random().&nextInt)
 
@@ -76,16 +75,19 @@ class BoardCT extends Specification {
         then:
         noExceptionThrown()
 
-        conditions.eventually {
-            assert board.cpu.registers.cpuState.getAsInt() == CpuState.STOP_CLOCK.value()
-        }
+        when:
+        def stopped = clock.advanceUntil({ -> board.cpu.registers.cpuState.getAsInt() == CpuState.STOP_CLOCK.value() }, SECONDS.toNanos(1))
+
+        then:
+        stopped
+        board.cpu.registers.cpuState.getAsInt() == CpuState.STOP_CLOCK.value()
     }
 
-    def "should stop after reaching MLS@011" () {
+    def "should stop after reaching MLS@011 (deferred events: #deferredEvents)" () {
         given:
-        def conditions = new PollingConditions(timeout: 1, initialDelay: 0.1, factor: 2.0)
+        config.deferredEvents = deferredEvents
 
-        def clock = new ScheduledClockGenerator("Test");
+        def clock = new VirtualClockGenerator()
         def factory = newBoardFactory(config, clock, new Random().&nextInt)
 
         byte[] data = [0x00, 0x11] //exit with 1
@@ -115,10 +117,16 @@ class BoardCT extends Specification {
         then:
         noExceptionThrown()
 
-        conditions.eventually {
-            assert board.cpu.registers.cpuState.getAsInt() == CpuState.SLEEP.value()
-            assert board.cpu.registers.output.getAsInt() == 0x11
-        }
+        when:
+        def slept = clock.advanceUntil({ -> board.cpu.registers.cpuState.getAsInt() == CpuState.SLEEP.value() }, SECONDS.toNanos(1))
+
+        then:
+        slept
+        board.cpu.registers.cpuState.getAsInt() == CpuState.SLEEP.value()
+        board.cpu.registers.output.getAsInt() == 0x11
+
+        where:
+        deferredEvents << [false, true]
     }
 
     def "should properly fetch first instruction"() {
@@ -183,7 +191,7 @@ class BoardCT extends Specification {
 
         then:
         def decoded = cpu.getRegisters().getDecodedInstruction()
-        decoded[0].get() == (short)0xA000
+        decoded[0].getAsInt() == InstructionType.OxAMMM.ordinal()
         decoded[1].get() == (short)0x0321
         decoded[2].get() == (short)0x0000
         decoded[3].get() == (short)0x0000
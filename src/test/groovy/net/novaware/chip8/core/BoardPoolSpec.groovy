@@ -0,0 +1,167 @@
+package net.novaware.chip8.core
+
+import net.novaware.chip8.core.clock.VirtualClockGenerator
+import net.novaware.chip8.core.config.MutableConfig
+import net.novaware.chip8.core.port.DisplayPort
+import net.novaware.chip8.core.port.StoragePort
+import spock.lang.Specification
+
+import static java.util.concurrent.TimeUnit.SECONDS
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+
+class BoardPoolSpec extends Specification {
+
+    MutableConfig config = new MutableConfig(deferredEvents: true)
+
+    BoardPool pool = new BoardPool(config, { -> new VirtualClockGenerator() }, new Random(8).&nextInt, 2)
+
+    byte[] rom = [
+            0x6A, 0x05, // 0x200: VA = 5
+            0xA0, 0x50, // 0x202: I = 0x050
+            0xD0, 0x15, // 0x204: draw
+            0x22, 0x0A, // 0x206: call 0x20A
+            0x00, 0x10, // 0x208: exit 0
+            0x7B, 0x01, // 0x20A: VB += 1
+            0x00, 0xEE, // 0x20C: return
+    ] as byte[]
+
+    def run(Board board) {
+        board.getStoragePort().connect({ -> new StoragePort.Packet() {
+            int getSize() { rom.length }
+            byte getByte(short address) { rom[uint(address)] }
+        }})
+        board.getKeyPort().connect({ p -> })
+        board.getAudioPort().connect({ p -> })
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect({ p -> })
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).setMode(DisplayPort.Mode.MERGE_FRAME)
+
+        VirtualClockGenerator clock = board.clock
+        board.powerOn()
+        assert clock.advanceUntil({ -> board.getExitCode() == 0 }, SECONDS.toNanos(1))
+
+        board.powerOff(false)
+        clock.advance(0)
+    }
+
+    def state(Board board) {
+        def registers = board.cpu.registers
+        def display = board.primaryDisplayPort
+
+        return [
+                memory: (0..<0x1000).step(2).collect { board.mmu.getWord(it as short) },
+                variables: registers.variableStore.toList(),
+                words: registers.wordStore.toList(),
+                registers: [registers.cpuState, registers.statusType, registers.stackSegment, registers.fontSegment,
+                            registers.graphicSegment, registers.graphicChange, registers.input, registers.inputCheck,
+                            registers.output, registers.storage, registers.delay, registers.sound, registers.soundOn
+                ].collect { it.getAsInt() },
+                frame: display.frontBuffer.toList(),
+                mode: display.mode,
+                cycles: board.getExecutionTrace().getCycle(),
+        ]
+    }
+
+    def subscribers(Board board) {
+        def registers = board.cpu.registers
+
+        return [registers.output, registers.input, registers.graphicChange, registers.soundOn, registers.cpuState]
+                .collect { it.pubSub.subscribers.size() }
+    }
+
+    def "should build new boards when empty"() {
+        when:
+        def first = pool.acquire()
+        def second = pool.acquire()
+
+        then:
+        first != null
+        !first.is(second)
+        pool.getIdleCount() == 0
+    }
+
+    def "should prefill up to capacity"() {
+        when:
+        pool.prefill(5)
+
+        then:
+        pool.getIdleCount() == 2
+
+        when:
+        pool.acquire()
+
+        then:
+        pool.getIdleCount() == 1
+    }
+
+    def "should hand out the released board"() {
+        given:
+        def board = pool.acquire()
+        run(board)
+
+        when:
+        def released = pool.release(board)
+
+        then:
+        released
+        pool.getIdleCount() == 1
+        pool.acquire().is(board)
+        pool.getIdleCount() == 0
+    }
+
+    def "should drop released board over capacity"() {
+        given:
+        def boards = (1..3).collect { pool.acquire() }
+
+        expect:
+        boards.collect { pool.release(it) } == [true, true, false]
+        pool.getIdleCount() == 2
+    }
+
+    def "should not recycle running board"() {
+        given:
+        def board = pool.acquire()
+        board.getStoragePort().connect({ -> new StoragePort.Packet() {
+            int getSize() { 2 }
+            byte getByte(short address) { [0x12, 0x00][uint(address)] }
+        }})
+        board.powerOn()
+        board.clock.advance(0)
+
+        when:
+        pool.release(board)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "recycled board should be indistinguishable from a fresh one"() {
+        given:
+        def recycled = pool.acquire()
+        run(recycled)
+        def dirty = state(recycled)
+
+        def fresh = newBoardFactory()
+
+        when:
+        pool.release(recycled)
+
+        then:
+        dirty != state(fresh)
+        state(recycled) == state(fresh)
+        recycled.getDisplayPort(DisplayPort.Type.PRIMARY).getMode() == DisplayPort.Mode.DIRECT
+
+        when:
+        run(recycled)
+        run(fresh)
+
+        then:
+        state(recycled) == state(fresh)
+        state(recycled) == dirty
+        subscribers(recycled) == subscribers(fresh) // wired once
+        recycled.getExitCode() == 0
+    }
+
+    Board newBoardFactory() {
+        return BoardFactory.newBoardFactory(config, new VirtualClockGenerator(), new Random(8).&nextInt).newBoard()
+    }
+}
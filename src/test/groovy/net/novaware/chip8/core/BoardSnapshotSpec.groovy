@@ -0,0 +1,202 @@
+package net.novaware.chip8.core
+
+import net.novaware.chip8.core.clock.VirtualClockGenerator
+import net.novaware.chip8.core.config.MutableConfig
+import net.novaware.chip8.core.port.DisplayPort
+import net.novaware.chip8.core.port.StoragePort
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+import static java.util.concurrent.TimeUnit.SECONDS
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+
+class BoardSnapshotSpec extends Specification {
+
+    static final long TIMEOUT = SECONDS.toNanos(1)
+
+    MutableConfig config = new MutableConfig(deferredEvents: true)
+
+    byte[] drawAndExit = [
+            0x6A, 0x05, // 0x200: VA = 5
+            0xA0, 0x50, // 0x202: I = 0x050
+            0xD0, 0x15, // 0x204: draw
+            0x22, 0x0A, // 0x206: call 0x20A
+            0x00, 0x10, // 0x208: exit 0
+            0x7B, 0x01, // 0x20A: VB += 1
+            0x00, 0xEE, // 0x20C: return
+    ] as byte[]
+
+    byte[] countForever = [
+            0x7A, 0x01, // 0x200: VA += 1
+            0x12, 0x00, // 0x202: jump 0x200
+    ] as byte[]
+
+    byte[] beepForever = [
+            0x60, 0x10, // 0x200: V0 = 16
+            0xF0, 0x18, // 0x202: sound timer = V0
+            0x71, 0x01, // 0x204: V1 += 1
+            0x12, 0x04, // 0x206: jump 0x204
+    ] as byte[]
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Board.SNAPSHOT_SIZE)
+
+    Board newBoard(byte[] rom) {
+        def board = BoardFactory.newBoardFactory(config, new VirtualClockGenerator(), new Random(8).&nextInt).newBoard()
+
+        board.getStoragePort().connect({ -> new StoragePort.Packet() {
+            int getSize() { rom.length }
+            byte getByte(short address) { rom[uint(address)] }
+        }})
+        board.getKeyPort().connect({ p -> })
+        board.getAudioPort().connect({ p -> })
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect({ p -> })
+
+        return board
+    }
+
+    def at(Board board, int address) {
+        def pc = board.cpu.registers.programCounter
+        return { -> pc.getAsInt() == address }
+    }
+
+    def state(Board board) {
+        def registers = board.cpu.registers
+
+        return [
+                memory: (0x200..<0x1000).step(2).collect { board.mmu.getWord(it as short) },
+                variables: registers.variableStore.toList(),
+                words: registers.wordStore.toList(),
+                registers: [registers.cpuState, registers.statusType, registers.stackSegment, registers.fontSegment,
+                            registers.graphicSegment, registers.input, registers.inputCheck,
+                            registers.output, registers.storage, registers.delay, registers.sound, registers.soundOn
+                ].collect { it.getAsInt() },
+                frame: board.primaryDisplayPort.frontBuffer.toList(),
+        ]
+    }
+
+    def "should restore the state from before the run"() {
+        given:
+        def board = newBoard(drawAndExit)
+        VirtualClockGenerator clock = board.clock
+        board.powerOn()
+        assert clock.advanceUntil(at(board, 0x206), TIMEOUT)
+
+        def before = state(board)
+        board.snapshot(buffer)
+
+        assert clock.advanceUntil(at(board, 0x20C), TIMEOUT)
+        def after = state(board)
+
+        when:
+        buffer.flip()
+        board.restore(buffer)
+
+        then:
+        after != before
+        state(board) == before
+        !buffer.hasRemaining()
+
+        when:
+        assert clock.advanceUntil({ -> board.getExitCode() == 0 }, TIMEOUT)
+
+        then:
+        board.cpu.registers.variables[0xB].getAsInt() == 1
+    }
+
+    def "should run restored program instead of the cached one"() {
+        given:
+        def source = newBoard(drawAndExit)
+        source.powerOn()
+        assert source.clock.advanceUntil(at(source, 0x200), TIMEOUT)
+        source.snapshot(buffer)
+
+        def target = newBoard(countForever)
+        VirtualClockGenerator clock = target.clock
+        target.powerOn()
+        clock.advance(SECONDS.toNanos(1) / 100 as long) // decodes 0x200 and 0x202 many times
+
+        when:
+        buffer.flip()
+        target.restore(buffer)
+
+        then:
+        clock.advanceUntil({ -> target.getExitCode() == 0 }, TIMEOUT)
+        target.cpu.registers.variables[0xA].getAsInt() == 5
+        target.cpu.registers.variables[0xB].getAsInt() == 1
+    }
+
+    def "should turn the sound off when restoring silent state"() {
+        given:
+        def board = newBoard(beepForever)
+        VirtualClockGenerator clock = board.clock
+        def sound = []
+        board.getAudioPort().connect({ p -> sound << p.isSoundOn() })
+        board.powerOn()
+        assert clock.advanceUntil(at(board, 0x202), TIMEOUT)
+        board.snapshot(buffer)
+
+        assert clock.advanceUntil({ -> board.cpu.registers.soundOn.getAsInt() == 1 }, TIMEOUT)
+        clock.advance(SECONDS.toNanos(1) / 100 as long) // events dispatched
+        assert sound.last()
+
+        when:
+        buffer.flip()
+        board.restore(buffer)
+
+        then:
+        board.cpu.registers.soundOn.getAsInt() == 0
+        !sound.last()
+    }
+
+    def "should write exactly snapshot size bytes"() {
+        given:
+        def board = newBoard(drawAndExit)
+        def heap = ByteBuffer.allocate(Board.SNAPSHOT_SIZE + 3)
+        heap.position(3)
+
+        when:
+        board.snapshot(heap)
+
+        then:
+        !heap.hasRemaining()
+        heap.getInt(3) == Board.SNAPSHOT_MAGIC
+    }
+
+    def "should reject too small buffer"() {
+        given:
+        def board = newBoard(drawAndExit)
+
+        when:
+        board.snapshot(ByteBuffer.allocate(Board.SNAPSHOT_SIZE - 1))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        board.restore(ByteBuffer.allocate(Board.SNAPSHOT_SIZE - 1))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "should reject foreign data"() {
+        given:
+        def board = newBoard(drawAndExit)
+        board.snapshot(buffer)
+        buffer.flip()
+
+        when:
+        buffer.putInt(0, magic)
+        buffer.putShort(Integer.BYTES, version as short)
+        board.restore(buffer)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        magic                  | version
+        0                      | Board.SNAPSHOT_VERSION
+        Board.SNAPSHOT_MAGIC   | Board.SNAPSHOT_VERSION + 1
+    }
+}
@@ -0,0 +1,132 @@
+package net.novaware.chip8.core
+
+import net.novaware.chip8.core.clock.ClockGenerator
+import net.novaware.chip8.core.config.CpuEngine
+import net.novaware.chip8.core.config.MutableConfig
+import net.novaware.chip8.core.port.StoragePort
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static net.novaware.chip8.core.BoardFactory.newBoardFactory
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
+/**
+ * Component Test comparing {@link CpuEngine}s against the interpreter
+ */
+class CpuEngineCT extends Specification {
+
+    static final int CYCLES = 20_000
+
+    static final int[] PROGRAM = [
+            0x6000, // 200: V0 = 0
+            0x6101, // 202: V1 = 1
+            0x6A00, // 204: VA = 0
+            0xA400, // 206: I = 0x400
+            0x8014, // 208: V0 += V1
+            0x811E, // 20A: V1 <<= 1
+            0x7101, // 20C: V1 += 1
+            0xF033, // 20E: BCD V0 @ I
+            0xF265, // 210: V0..V2 = [I]
+            0x2300, // 212: call 0x300
+            0x7A01, // 214: VA += 1
+            0x3A40, // 216: skip if VA == 0x40
+            0x1208, // 218: jump 0x208
+            0x6C00, // 21A: VC = 0
+            0x2224, // 21C: call 0x224 (original code)
+            0x607C, // 21E: V0 = 0x7C
+            0x6101, // 220: V1 = 0x01
+            0x1228, // 222: jump 0x228
+            0x6C05, // 224: VC = 5 (overwritten by 7C01 - VC += 1)
+            0x00EE, // 226: return
+            0xA224, // 228: I = 0x224
+            0xF155, // 22A: [I] = V0..V1
+            0x2224, // 22C: call 0x224 (modified code)
+            0xF015, // 22E: DT = V0
+            0xF107, // 230: V1 = DT
+            0x3100, // 232: skip if V1 == 0
+            0x1230, // 234: jump 0x230
+            0x1236, // 236: jump 0x236 (stop)
+    ]
+
+    static final Map<Integer, Integer> SUBROUTINE = [
+            0x300: 0xA500, // I = 0x500
+            0x302: 0xD015, // draw V0, V1, 5
+            0x304: 0xCB0F, // VB = rnd & 0x0F
+            0x306: 0x1224, // jump 0x224 (returns from there, gets the code hot)
+    ]
+
+    def newBoard(CpuEngine engine) {
+        def config = new MutableConfig(cpuEngine: engine, legacyShift: false, legacyLoadStore: true)
+
+        byte[] data = new byte[0x110]
+        PROGRAM.eachWithIndex { int instruction, int i ->
+            data[2 * i] = (byte) (instruction >> 8)
+            data[2 * i + 1] = (byte) instruction
+        }
+        SUBROUTINE.each { int address, int instruction ->
+            data[address - 0x200] = (byte) (instruction >> 8)
+            data[address - 0x200 + 1] = (byte) instruction
+        }
+
+        def random = new Random(42)
+        def board = newBoardFactory(config, Mock(ClockGenerator), { random.nextInt(it) }).newBoard()
+        board.getStoragePort().connect({ ->
+            new StoragePort.Packet() {
+                @Override
+                int getSize() { data.length }
+
+                @Override
+                byte getByte(short address) { data[uint(address)] }
+            }
+        })
+        board.initialize()
+        board
+    }
+
+    static void run(Board board) {
+        for (int i = 0; i < CYCLES; ++i) {
+            board.cpu.cycle()
+
+            if (i % 8 == 0) {
+                board.cpu.delayTick()
+                board.cpu.soundTick()
+            }
+        }
+    }
+
+    static List<Object> state(Board board) {
+        def registers = board.cpu.registers
+        def memory = (0..<0x1000).step(2).collect { board.mmu.getWord(ushort(it)) }
+
+        [
+                registers.variables.collect { it.get() },
+                registers.index.get(),
+                registers.programCounter.get(),
+                registers.memoryAddress.get(),
+                registers.stackPointer.get(),
+                registers.delay.get(),
+                registers.sound.get(),
+                registers.cpuState.get(),
+                memory
+        ]
+    }
+
+    @Unroll
+    def "should leave the board in the same state as interpreter (#engine)"() {
+        given:
+        def expected = newBoard(CpuEngine.INTERPRETER)
+        def actual = newBoard(engine)
+
+        when:
+        run(expected)
+        run(actual)
+
+        then:
+        state(actual) == state(expected)
+        expected.cpu.registers.variables[0xC].getAsInt() == 6 // self modifying code was picked up
+
+        where:
+        engine << CpuEngine.values()
+    }
+}
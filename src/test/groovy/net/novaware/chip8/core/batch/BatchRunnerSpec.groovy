@@ -0,0 +1,141 @@
+package net.novaware.chip8.core.batch
+
+import net.novaware.chip8.core.config.CpuEngine
+import net.novaware.chip8.core.config.MutableConfig
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static net.novaware.chip8.core.batch.BatchResult.StopReason.*
+
+class BatchRunnerSpec extends Specification {
+
+    Path roms = Files.createTempDirectory("roms")
+
+    BatchRunner runner = new BatchRunner(2, 100_000)
+
+    def cleanup() {
+        runner.shutdown()
+        roms.toFile().deleteDir()
+    }
+
+    Path rom(String name, List<Integer> instructions) {
+        def bytes = instructions.collectMany { [(it >> 8) as byte, (it & 0xFF) as byte] } as byte[]
+        return Files.write(roms.resolve(name), bytes)
+    }
+
+    BatchJob job(Path rom) {
+        return new BatchJob(rom, "default", new MutableConfig())
+    }
+
+    def "should stop at exit subroutine"() {
+        when:
+        def result = runner.run(job(rom("exit.ch8", [0x6005, 0x0011])))
+
+        then:
+        result.reason == EXIT
+        result.exitCode == 1
+        result.exception == null
+        result.cycles > 0
+        result.cycles < 1000 // bootloader runs first
+    }
+
+    def "should stop when waiting for input"() {
+        expect:
+        runner.run(job(rom("loop.ch8", [0x1200]))).reason == IDLE
+        runner.run(job(rom("key.ch8", [0xF00A]))).reason == IDLE
+    }
+
+    def "should stop when polling the keys with the delay timer at 0"() {
+        when:
+        def result = runner.run(job(rom("poll.ch8", [0xE09E, 0x1200, 0x0010]))) // skip if key 0 pressed
+
+        then:
+        result.reason == IDLE
+        result.cycles < 1000
+    }
+
+    def "should not stop when polling the delay timer"() {
+        when:
+        def result = runner.run(job(rom("delay.ch8", [0x6010, 0xF015, 0xF107, 0x3100, 0x1204, 0x0010])))
+
+        then:
+        result.reason == EXIT
+        result.exitCode == 0
+    }
+
+    def "should stop at cycle budget"() {
+        when:
+        def result = runner.run(job(rom("count.ch8", [0x7001, 0x1200])))
+
+        then:
+        result.reason == BUDGET
+        result.exitCode == -1
+        result.cycles == 100_000
+    }
+
+    def "should report exception"() {
+        when:
+        def result = runner.run(job(rom("mls.ch8", [0x0123])))
+
+        then:
+        result.reason == EXCEPTION
+        result.exception.contains("Unknown MLS")
+    }
+
+    def "should report missing rom"() {
+        when:
+        def result = runner.run(job(roms.resolve("missing.ch8")))
+
+        then:
+        result.reason == EXCEPTION
+        result.exception.contains("NoSuchFile")
+    }
+
+    def "should hash the last frame deterministically"() {
+        given:
+        def sprite = rom("sprite.ch8", [0xA000 | 0x50, 0xD015, 0x0010]) // I = 0x50, draw, exit
+        def blank = rom("blank.ch8", [0x00E0, 0x0010])
+
+        when:
+        def first = runner.run(job(sprite))
+        def second = runner.run(job(sprite))
+        def empty = runner.run(job(blank))
+
+        then:
+        first.reason == EXIT
+        first.framebufferHash != 0
+        first.framebufferHash == second.framebufferHash
+        first.framebufferHash != empty.framebufferHash
+    }
+
+    def "should run every rom with every config and stream results"() {
+        given:
+        def jobs = BatchJob.combine(
+                [rom("a.ch8", [0x0010]), rom("b.ch8", [0x1200]), rom("c.ch8", [0x7001, 0x1200])],
+                [interpreter: new MutableConfig(cpuEngine: CpuEngine.INTERPRETER), threaded: new MutableConfig(cpuEngine: CpuEngine.THREADED)]
+        )
+        def csv = new StringWriter()
+        def json = new StringWriter()
+
+        when:
+        runner.run(jobs, new BatchResultWriter(csv, BatchResultWriter.Format.CSV))
+        runner.run(jobs, new BatchResultWriter(json, BatchResultWriter.Format.JSON_LINES))
+
+        then:
+        jobs.size() == 6
+
+        def csvLines = csv.toString().readLines()
+        csvLines.size() == 7
+        csvLines[0] == "rom,config,reason,exitCode,cycles,framebufferHash,wallMillis,exception"
+        csvLines.count { it.contains(",EXIT,0,") } == 2
+        csvLines.count { it.contains(",IDLE,-1,") } == 2
+        csvLines.count { it.contains(",BUDGET,-1,100000,") } == 2
+
+        def jsonLines = json.toString().readLines()
+        jsonLines.size() == 6
+        jsonLines.every { it.startsWith('{"rom":"') && it.endsWith('"exception":null}') }
+        jsonLines.count { it.contains('"config":"threaded","reason":"BUDGET","exitCode":-1,"cycles":100000,') } == 1
+    }
+}
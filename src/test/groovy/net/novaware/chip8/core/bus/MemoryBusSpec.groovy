@@ -1,6 +1,8 @@
 package net.novaware.chip8.core.bus
 
+import net.novaware.chip8.core.memory.MappedMemory
 import net.novaware.chip8.core.memory.Memory
+import net.novaware.chip8.core.memory.PhysicalMemory
 import spock.lang.Specification
 
 class MemoryBusSpec extends Specification {
@@ -36,4 +38,67 @@ class MemoryBusSpec extends Specification {
         then:
         1 * memory.setByte(address, data)
     }
+
+    def "should read and write words"() {
+        given:
+        Memory memory = new PhysicalMemory("test", 16)
+        Bus instance = new MemoryBus(memory)
+
+        when:
+        instance.specify(0x4 as short)
+        instance.writeWord(0x1234 as short)
+
+        then:
+        memory.getWord(0x4 as short) == 0x1234 as short
+        instance.readWord() == 0x1234 as short
+    }
+
+    def "should transfer bytes across segments"() {
+        given:
+        def first = new PhysicalMemory("first", 16)
+        def second = new PhysicalMemory("second", 16)
+        def mapped = new MappedMemory("mapped", [
+                new MappedMemory.Entry(0x00 as short, 0x0F as short, first),
+                new MappedMemory.Entry(0x10 as short, 0x1F as short, second)
+        ])
+        Bus instance = new MemoryBus(mapped)
+
+        byte[] source = [1, 2, 3, 4]
+        byte[] destination = new byte[4]
+
+        when:
+        instance.specify(0x0E as short)
+        instance.write(source, 4)
+        instance.read(destination, 4)
+
+        then:
+        destination == source
+        first.getByte(0x0F as short) == 2 as byte
+        second.getByte(0x00 as short) == 3 as byte
+    }
+
+    def "should access leaf memory with segment local address"() {
+        given:
+        Memory leaf = Mock() {
+            getSize() >> 16
+        }
+        def mapped = new MappedMemory("mapped", [
+                new MappedMemory.Entry(0x00 as short, 0x0F as short, Mock(Memory) { getSize() >> 16 }),
+                new MappedMemory.Entry(0x10 as short, 0x1F as short, leaf)
+        ])
+        Bus instance = new MemoryBus(mapped)
+
+        short wordAddress = 0x02
+        short byteAddress = 0x08
+
+        when:
+        instance.specify(0x12 as short)
+        instance.readWord()
+        instance.specify(0x18 as short)
+        instance.readByte()
+
+        then:
+        1 * leaf.getWord(wordAddress)
+        1 * leaf.getByte(byteAddress)
+    }
 }
@@ -0,0 +1,78 @@
+package net.novaware.chip8.core.clock
+
+import spock.lang.Specification
+
+class LatencyHistogramSpec extends Specification {
+
+    def instance = new LatencyHistogram()
+
+    def "should put #lateness ns into bucket #bucket"() {
+        expect:
+        LatencyHistogram.toBucket(lateness) == bucket
+
+        where:
+        lateness       || bucket
+        -5             || 0
+        0              || 0
+        1              || 1
+        2              || 2
+        3              || 2
+        1024           || 11
+        1L << 40       || LatencyHistogram.BUCKETS - 1
+        Long.MAX_VALUE || LatencyHistogram.BUCKETS - 1
+    }
+
+    def "should bound buckets with powers of 2"() {
+        expect:
+        LatencyHistogram.getBucketUpperBound(0) == 1
+        LatencyHistogram.getBucketUpperBound(11) == 2048
+        LatencyHistogram.getBucketUpperBound(LatencyHistogram.BUCKETS - 1) == Long.MAX_VALUE
+    }
+
+    def "should count ticks, missed ticks and max lateness"() {
+        when:
+        instance.record(0)
+        instance.record(500)
+        instance.record(2500)
+        instance.record(100)
+        instance.addMissedTicks(2)
+
+        then:
+        instance.count == 4
+        instance.getBucketCount(0) == 1
+        instance.getBucketCount(9) == 1 // 256 - 511
+        instance.getBucketCount(12) == 1 // 2048 - 4095
+        instance.getBucketCount(7) == 1 // 64 - 127
+        instance.missedTicks == 2
+        instance.maxLateness == 2500
+    }
+
+    def "should estimate percentiles with bucket bounds"() {
+        given:
+        90.times { instance.record(0) }
+        9.times { instance.record(300) }
+        instance.record(5000)
+
+        expect:
+        instance.getPercentile(50) == 0
+        instance.getPercentile(90) == 0
+        instance.getPercentile(99) == 511
+        instance.getPercentile(100) == 5000
+    }
+
+    def "should report zeros when empty"() {
+        expect:
+        LatencyHistogram.EMPTY.count == 0
+        LatencyHistogram.EMPTY.getPercentile(99) == 0
+        LatencyHistogram.EMPTY.maxLateness == 0
+        LatencyHistogram.EMPTY.missedTicks == 0
+    }
+
+    def "should reject bucket out of range"() {
+        when:
+        instance.getBucketCount(LatencyHistogram.BUCKETS)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -1,8 +1,215 @@
 package net.novaware.chip8.core.clock
 
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
 
 class LoopedClockGeneratorSpec extends Specification {
 
+    def conditions = new PollingConditions(timeout: 2, initialDelay: 0.05, factor: 1.5)
+
+    ClockGenerator instance = new LoopedClockGenerator("test")
+
+    def cleanup() {
+        instance.shutdown()
+    }
+
+    def "should execute simple task once on the loop thread"() {
+        given:
+        def threadNames = new CopyOnWriteArrayList<String>()
+
+        when:
+        def handle = instance.schedule({ -> threadNames.add(Thread.currentThread().getName()) })
+
+        then:
+        handle != null
+
+        conditions.eventually {
+            assert threadNames == ["Chip8-test-Clock"]
+        }
+
+        when:
+        sleep(50)
+
+        then:
+        threadNames.size() == 1
+        !handle.cancel(false) // already done
+    }
+
+    def "should repeat tasks with their frequencies"() {
+        given:
+        def fast = new AtomicInteger()
+        def slow = new AtomicInteger()
+        def threadNames = new CopyOnWriteArrayList<String>()
+
+        when:
+        instance.schedule({ -> fast.incrementAndGet(); threadNames.add(Thread.currentThread().getName()) }, 2000)
+        instance.schedule({ -> slow.incrementAndGet() }, 100)
+        sleep(300)
+
+        then:
+        fast.get() > 300
+        slow.get() > 15
+        fast.get() / slow.get() > 10
+        threadNames.toSet() == ["Chip8-test-Clock"] as Set
+    }
+
+    def "should pick up frequency change"() {
+        given:
+        def frequency = new AtomicInteger(100)
+        def ticks = new AtomicInteger()
+
+        instance.schedule({ -> ticks.incrementAndGet() }, frequency.&get)
+        sleep(200)
+
+        when:
+        frequency.set(2000)
+        int before = ticks.get()
+        sleep(200)
+
+        then:
+        before < 40
+        ticks.get() - before > 200
+    }
+
+    def "should stop executing cancelled task"() {
+        given:
+        def ticks = new AtomicInteger()
+        def handle = instance.schedule({ -> ticks.incrementAndGet() }, 1000)
+        sleep(50)
+
+        when:
+        def cancelled = handle.cancel(false)
+        sleep(20)
+        int after = ticks.get()
+        sleep(50)
+
+        then:
+        cancelled
+        ticks.get() == after
+    }
+
+    def "should hold ticks while paused and resume without catching up"() {
+        given:
+        def ticks = new AtomicInteger()
+        instance.schedule({ -> ticks.incrementAndGet() }, 1000)
+        sleep(50)
+
+        when:
+        instance.setPaused(true)
+        sleep(20)
+        int paused = ticks.get()
+        sleep(100)
+
+        then:
+        instance.isPaused()
+        ticks.get() == paused
+
+        when:
+        instance.setPaused(false)
+        sleep(50)
+
+        then:
+        !instance.isPaused()
+        ticks.get() > paused
+        ticks.get() - paused < 100 // the paused period is not caught up
+    }
+
+    def "should stop the loop on shutdown"() {
+        given:
+        def ticks = new AtomicInteger()
+        instance.schedule({ -> ticks.incrementAndGet() }, 1000)
+        sleep(50)
+
+        when:
+        instance.shutdown()
+        sleep(20)
+        int after = ticks.get()
+        sleep(50)
+
+        then:
+        ticks.get() == after
+
+        when:
+        def handle = instance.schedule({ -> ticks.incrementAndGet() })
+        sleep(20)
+
+        then:
+        ticks.get() == after
+        !handle.cancel(false)
+    }
+
+    def "should cancel a failing task and keep running the others"() {
+        given:
+        def failures = new AtomicInteger()
+        def ticks = new AtomicInteger()
+
+        when:
+        instance.schedule({ -> failures.incrementAndGet(); throw new IllegalStateException("test") }, 1000)
+        instance.schedule({ -> ticks.incrementAndGet() }, 1000)
+        sleep(100)
+
+        then:
+        failures.get() == 1
+        ticks.get() > 50
+    }
+
+    def "should record lateness of the ticks"() {
+        given:
+        def runs = new AtomicInteger()
+
+        when:
+        def handle = instance.schedule({ ->
+            if (runs.incrementAndGet() == 2) {
+                sleep(20) // the next ticks run late
+            }
+        }, 1000)
+
+        then:
+        conditions.eventually {
+            assert runs.get() > 30
+        }
+
+        handle.lateness.count >= 30
+        handle.lateness.missedTicks == 0 // caught up
+        handle.lateness.maxLateness >= 10_000_000
+        handle.lateness.getPercentile(100) == handle.lateness.maxLateness
+    }
+
+    def "should count every tick dropped after a stall once"() {
+        given:
+        def runs = new AtomicInteger()
+
+        when:
+        def handle = instance.schedule({ ->
+            if (runs.incrementAndGet() == 2) {
+                sleep(275) // next deadline passes 225ms ago, the 4 after it are dropped
+            }
+        }, 20)
+
+        then:
+        conditions.eventually {
+            assert runs.get() > 5
+        }
+
+        handle.lateness.missedTicks == 4
+    }
+
+    def "should cancel task which never had a valid frequency and keep running the others"() {
+        given:
+        def invalid = new AtomicInteger()
+        def valid = new AtomicInteger()
+
+        when:
+        def handle = instance.schedule({ -> invalid.incrementAndGet() }, 0)
+        instance.schedule({ -> valid.incrementAndGet() }, 100)
+        sleep(200)
 
+        then:
+        invalid.get() == 1
+        valid.get() > 10
+        !handle.cancel(false) // already done
+    }
 }
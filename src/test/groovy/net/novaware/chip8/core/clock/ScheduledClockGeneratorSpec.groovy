@@ -4,6 +4,8 @@ package net.novaware.chip8.core.clock
 import spock.lang.Specification
 import spock.util.concurrent.PollingConditions
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class ScheduledClockGeneratorSpec extends Specification {
 
     String threadName
@@ -56,4 +58,51 @@ class ScheduledClockGeneratorSpec extends Specification {
             assert uniqueThreadNames[0] == "Chip8-test-Clock"
         }
     }
+
+    def "should record lateness of the ticks"() {
+        given:
+        def conditions = new PollingConditions(timeout: 1, initialDelay: 0.1, factor: 2.0)
+
+        ClockGenerator instance = new ScheduledClockGenerator("test")
+
+        when:
+        def fixed = instance.schedule({ -> }, 500)
+        def variable = instance.schedule({ -> }, { -> 500 })
+        def oneShot = instance.schedule({ -> })
+
+        then:
+        conditions.eventually {
+            assert fixed.lateness.count > 30
+            assert variable.lateness.count > 30
+        }
+        oneShot.lateness.is(LatencyHistogram.EMPTY)
+
+        cleanup:
+        instance.shutdown()
+    }
+
+    def "should count every deadline missed in a stall once"() {
+        given:
+        def conditions = new PollingConditions(timeout: 2, initialDelay: 0.1, factor: 2.0)
+        def runs = new AtomicInteger()
+
+        ClockGenerator instance = new ScheduledClockGenerator("test")
+
+        when:
+        def handle = instance.schedule({ ->
+            if (runs.incrementAndGet() == 2) {
+                sleep(275) // next tick runs 225ms late, the 4 deadlines after it are missed
+            }
+        }, 20)
+
+        then:
+        conditions.eventually {
+            assert runs.get() > 10 // caught up and on time again
+        }
+
+        handle.lateness.missedTicks == 4
+
+        cleanup:
+        instance.shutdown()
+    }
 }
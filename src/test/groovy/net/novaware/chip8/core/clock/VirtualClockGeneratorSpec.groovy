@@ -0,0 +1,184 @@
+package net.novaware.chip8.core.clock
+
+import spock.lang.Specification
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS
+import static java.util.concurrent.TimeUnit.SECONDS
+
+class VirtualClockGeneratorSpec extends Specification {
+
+    VirtualClockGenerator instance = new VirtualClockGenerator()
+
+    def "should run targets on the calling thread only when advanced"() {
+        given:
+        def threadNames = []
+
+        when:
+        instance.schedule({ -> threadNames << Thread.currentThread().getName() })
+
+        then:
+        threadNames.isEmpty()
+
+        when:
+        instance.advance(0)
+        instance.advance(SECONDS.toNanos(1))
+
+        then:
+        threadNames == [Thread.currentThread().getName()]
+        instance.getNanoTime() == SECONDS.toNanos(1)
+    }
+
+    def "should fire timers every cpuFrequency / 60 cycles"() {
+        given:
+        def events = []
+        instance.schedule({ -> events << "cpu" }, 600)
+        instance.schedule({ -> events << "timer" }, 60)
+
+        when:
+        instance.advance(SECONDS.toNanos(1) - 1)
+
+        then:
+        events.count { it == "cpu" } == 600
+        events.count { it == "timer" } == 60
+        events.take(12) == ["cpu", "timer"] + ["cpu"] * 10 // timer scheduled after the cpu at the same deadline
+        events.indexed().findAll { i, e -> e == "timer" }.keySet().every { it % 11 == 1 }
+    }
+
+    def "should produce the same sequence every run"() {
+        given:
+        def run = {
+            def events = []
+            def clock = new VirtualClockGenerator()
+            clock.schedule({ -> events << 1 }, 599)
+            clock.schedule({ -> events << 2 }, 61)
+            clock.schedule({ -> events << 3 }, 59)
+            clock.advance(SECONDS.toNanos(2))
+            events
+        }
+
+        expect:
+        run() == run()
+    }
+
+    def "should pick up frequency change"() {
+        given:
+        int frequency = 100
+        int ticks = 0
+        instance.schedule({ -> ticks++ }, { -> frequency })
+        instance.advance(MILLISECONDS.toNanos(100) - 1)
+
+        when:
+        frequency = 1000
+        instance.advance(MILLISECONDS.toNanos(100))
+
+        then:
+        ticks == 10 + 1 + 99 // new frequency applies after the tick scheduled with the old one
+    }
+
+    def "should stop at the target meeting the condition"() {
+        given:
+        int ticks = 0
+        instance.schedule({ -> ticks++ }, 1000)
+
+        when:
+        def met = instance.advanceUntil({ -> ticks == 5 }, SECONDS.toNanos(1))
+
+        then:
+        met
+        ticks == 5
+        instance.getNanoTime() == MILLISECONDS.toNanos(4)
+
+        when:
+        met = instance.advanceUntil({ -> ticks == 5000 }, MILLISECONDS.toNanos(10))
+
+        then:
+        !met
+        ticks == 15
+        instance.getNanoTime() == MILLISECONDS.toNanos(14)
+    }
+
+    def "should not run cancelled or paused targets"() {
+        given:
+        int ticks = 0
+        def handle = instance.schedule({ -> ticks++ }, 1000)
+
+        when:
+        instance.setPaused(true)
+        instance.advance(SECONDS.toNanos(1))
+
+        then:
+        ticks == 0
+        instance.getNanoTime() == 0
+
+        when:
+        instance.setPaused(false)
+        instance.advance(MILLISECONDS.toNanos(2))
+        def cancelled = handle.cancel(false)
+        instance.advance(SECONDS.toNanos(1))
+
+        then:
+        cancelled
+        ticks == 3
+    }
+
+    def "should drop targets after shutdown"() {
+        given:
+        int ticks = 0
+        instance.schedule({ -> ticks++ }, 1000)
+
+        when:
+        instance.shutdown()
+        def handle = instance.schedule({ -> ticks++ })
+        instance.advance(SECONDS.toNanos(1))
+
+        then:
+        ticks == 0
+        !handle.cancel(false)
+    }
+
+    def "should cancel failing target and keep the others"() {
+        given:
+        int failures = 0
+        int ticks = 0
+        instance.schedule({ -> failures++; throw new IllegalStateException("test") }, 1000)
+        instance.schedule({ -> ticks++ }, 1000)
+
+        when:
+        instance.advance(MILLISECONDS.toNanos(10))
+
+        then:
+        failures == 1
+        ticks == 11
+    }
+
+    def "should count the ticks which are never late"() {
+        given:
+        def handle = instance.schedule({ -> }, 60)
+
+        when:
+        instance.advance(SECONDS.toNanos(1) - 1)
+
+        then:
+        handle.lateness.count == 60
+        handle.lateness.getBucketCount(0) == 60
+        handle.lateness.maxLateness == 0
+        handle.lateness.missedTicks == 0
+    }
+
+    def "should not overflow when advanced by the max time twice"() {
+        given:
+        def ticks = 0
+        instance.schedule({ -> ticks++ })
+        instance.advance(SECONDS.toNanos(1))
+
+        when:
+        def first = instance.advanceUntil({ -> false }, Long.MAX_VALUE)
+        def second = instance.advanceUntil({ -> false }, Long.MAX_VALUE)
+
+        then:
+        !first
+        !second
+        ticks == 1
+        instance.getNanoTime() == Long.MAX_VALUE
+    }
+}
@@ -10,6 +10,10 @@ class ImmutableConfigSpec extends Specification {
         when:
         def instance = ImmutableConfig.builder()
             .setCpuFrequency(500)
+            .setCpuEngine(CpuEngine.THREADED)
+            .setDeferredEvents(true)
+            .setProfiling(true)
+            .setTraceSize(1024)
             .setDelayTimerFrequency(61)
             .setSoundTimerFrequency(62)
             .setRenderTimerFrequency(63)
@@ -27,6 +31,10 @@ class ImmutableConfigSpec extends Specification {
         then:
         with(instance) {
             getCpuFrequency() == 500
+            getCpuEngine() == CpuEngine.THREADED
+            isDeferredEvents()
+            isProfiling()
+            getTraceSize() == 1024
             getDelayTimerFrequency() == 61
             getSoundTimerFrequency() == 62
             getRenderTimerFrequency() == 63
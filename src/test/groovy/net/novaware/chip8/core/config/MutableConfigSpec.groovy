@@ -9,6 +9,10 @@ class MutableConfigSpec extends Specification {
         def instance = new MutableConfig()
         with(instance) {
             setCpuFrequency(501)
+            setCpuEngine(CpuEngine.THREADED)
+            setDeferredEvents(true)
+            setProfiling(true)
+            setTraceSize(2048)
             setDelayTimerFrequency(62)
             setSoundTimerFrequency(63)
             setRenderTimerFrequency(64)
@@ -26,6 +30,10 @@ class MutableConfigSpec extends Specification {
         then:
         with(instance) {
             getCpuFrequency() == 501
+            getCpuEngine() == CpuEngine.THREADED
+            isDeferredEvents()
+            isProfiling()
+            getTraceSize() == 2048
             getDelayTimerFrequency() == 62
             getSoundTimerFrequency() == 63
             getRenderTimerFrequency() == 64
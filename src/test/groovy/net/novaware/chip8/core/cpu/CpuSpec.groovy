@@ -1,14 +1,22 @@
 package net.novaware.chip8.core.cpu
 
+import net.novaware.chip8.core.config.CpuEngine
+import net.novaware.chip8.core.cpu.instruction.InstructionType
 import net.novaware.chip8.core.cpu.unit.*
 import net.novaware.chip8.core.gpu.Gpu
 import net.novaware.chip8.core.memory.Memory
+import net.novaware.chip8.core.util.DirtySet
+import net.novaware.chip8.core.util.ExecutionTrace
 import spock.lang.Specification
 
+import static net.novaware.chip8.core.cpu.register.RegisterFile.WS_PROGRAM_COUNTER
 import static net.novaware.chip8.core.cpu.register.RegistersHelper.newRegisters
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
 
 class CpuSpec extends Specification {
 
+    Cpu.Config config = Mock()
+
     Memory memory = Mock()
 
     LoadStore lsu = Mock()
@@ -18,15 +26,25 @@ class CpuSpec extends Specification {
     PowerMgmt powerMgmt = Mock()
     Gpu gpu = Mock()
     ControlUnit cu = Mock()
+    Recompiler recompiler = Mock()
     Timer delay = Mock()
     Timer sound = Mock()
 
     def registers = newRegisters()
 
+    DirtySet events = new DirtySet()
+
+    ExecutionTrace trace = new ExecutionTrace(4)
+
+    ExecutionProfile profile = new ExecutionProfile()
+
     Cpu instance = new Cpu(
-            Mock(Cpu.Config),
+            config,
             memory,
             registers,
+            events,
+            trace,
+            profile,
             lsu,
             alu,
             agu,
@@ -34,6 +52,7 @@ class CpuSpec extends Specification {
             powerMgmt,
             gpu,
             cu,
+            recompiler,
             delay,
             sound
     )
@@ -51,6 +70,7 @@ class CpuSpec extends Specification {
         1 * delay.initialize()
         1 * sound.initialize()
         1 * cu.initialize()
+        1 * recompiler.initialize()
     }
 
     def "should reset the registers"() {
@@ -69,5 +89,136 @@ class CpuSpec extends Specification {
         1 * delay.reset()
         1 * sound.reset()
         1 * cu.reset()
+        1 * recompiler.reset()
+    }
+
+    def "should unpark idle cpu on delay timer change"() {
+        given:
+        registers.getCpuState().set(CpuState.IDLE.value())
+
+        when:
+        instance.delayTick()
+        instance.soundTick()
+
+        then:
+        1 * delay.tick() >> true
+        1 * sound.tick()
+        1 * powerMgmt.unpark()
+    }
+
+    def "should keep idle cpu parked if delay timer did not change"() {
+        given:
+        registers.getCpuState().set(CpuState.IDLE.value())
+
+        when:
+        instance.delayTick()
+
+        then:
+        1 * delay.tick() >> false
+        0 * powerMgmt.unpark()
+    }
+
+    def "should dispatch deferred events at the end of the cycle"() {
+        given:
+        def reported = []
+        registers.getOutput().subscribe({ r -> reported << r.getAsInt() })
+
+        config.isDeferredEvents() >> true
+        instance.initialize()
+
+        registers.getCpuState().set(CpuState.OPERATING.value())
+
+        when:
+        instance.cycle()
+
+        then:
+        1 * cu.fetch() >> {
+            registers.getOutput().set(0x10)
+            registers.getOutput().set(0x11)
+            assert reported.isEmpty()
+        }
+        reported == [0x11]
+    }
+
+    def "should profile executed instructions with #engine engine"() {
+        given:
+        config.getCpuEngine() >> engine
+        config.isProfiling() >> true
+        instance.initialize()
+
+        registers.getCpuState().set(CpuState.OPERATING.value())
+        registers.getWordStore()[WS_PROGRAM_COUNTER] = ushort(0x200)
+
+        when:
+        instance.cycle()
+
+        then:
+        1 * memory.getWord(ushort(0x200)) >> ushort(0x00E0)
+        profile.getInstructionCount(InstructionType.Ox00E0) == 1
+        profile.getAddressHits(0x200) == 1
+
+        where:
+        engine << [CpuEngine.INTERPRETER, CpuEngine.THREADED, CpuEngine.RECOMPILER]
+    }
+
+    def "should run threaded code instead of compiled blocks when profiling"() {
+        given:
+        config.getCpuEngine() >> CpuEngine.RECOMPILER
+        config.isProfiling() >> true
+        instance.initialize()
+
+        registers.getCpuState().set(CpuState.OPERATING.value())
+
+        when:
+        instance.cycle()
+
+        then:
+        0 * recompiler.dispatch(_)
+        1 * cu.dispatch()
+    }
+
+    def "should not touch the profile when profiling is disabled"() {
+        given:
+        config.getCpuEngine() >> CpuEngine.THREADED
+        instance.initialize()
+
+        when:
+        registers.getCpuState().set(CpuState.OPERATING.value())
+        instance.cycle()
+        registers.getCpuState().set(CpuState.HALT.value())
+        instance.cycle()
+
+        then:
+        0 * memory._
+        profile.getAddressHits(0) == 0
+        profile.getStateCycles(CpuState.HALT) == 0
+    }
+
+    def "should count cycles spent in other states when profiling"() {
+        given:
+        config.isProfiling() >> true
+        instance.initialize()
+
+        when:
+        registers.getCpuState().set(CpuState.HALT.value())
+        2.times { instance.cycle() }
+        registers.getCpuState().set(CpuState.SLEEP.value())
+        instance.cycle()
+
+        then:
+        profile.getStateCycles(CpuState.HALT) == 2
+        profile.getStateCycles(CpuState.SLEEP) == 1
+        profile.getStateCycles(CpuState.STOP_CLOCK) == 0
+    }
+
+    def "should clear the profile on recycle"() {
+        given:
+        profile.record(ushort(0x200), ushort(0x00E0))
+
+        when:
+        instance.recycle()
+
+        then:
+        profile.getAddressHits(0x200) == 0
     }
 }
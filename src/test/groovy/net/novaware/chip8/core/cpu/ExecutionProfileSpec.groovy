@@ -0,0 +1,109 @@
+package net.novaware.chip8.core.cpu
+
+import net.novaware.chip8.core.cpu.instruction.InstructionType
+import spock.lang.Specification
+
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
+class ExecutionProfileSpec extends Specification {
+
+    def instance = new ExecutionProfile()
+
+    def "should count instructions per type and address"() {
+        when:
+        instance.record(ushort(0x200), ushort(0x00E0))
+        instance.record(ushort(0x202), ushort(0x1200))
+        instance.record(ushort(0x200), ushort(0x00E0))
+
+        then:
+        instance.getInstructionCount(InstructionType.Ox00E0) == 2
+        instance.getInstructionCount(InstructionType.Ox1MMM) == 1
+        instance.getInstructionCount(InstructionType.Ox00EE) == 0
+        instance.getAddressHits(0x200) == 2
+        instance.getAddressHits(0x202) == 1
+        instance.getUnknownCount() == 0
+    }
+
+    def "should count unknown instructions separately"() {
+        when:
+        instance.record(ushort(0x300), ushort(0xFFFF))
+
+        then:
+        instance.getUnknownCount() == 1
+        instance.getAddressHits(0x300) == 1
+    }
+
+    def "should fold addresses into 4k"() {
+        when:
+        instance.record(ushort(0x1200), ushort(0x00E0))
+
+        then:
+        instance.getAddressHits(0x200) == 1
+    }
+
+    def "should count cycles per state"() {
+        when:
+        [CpuState.HALT, CpuState.HALT, CpuState.STOP_CLOCK, CpuState.SLEEP, CpuState.IDLE].each {
+            instance.recordState(it.value())
+        }
+
+        then:
+        instance.getStateCycles(CpuState.HALT) == 2
+        instance.getStateCycles(CpuState.STOP_CLOCK) == 1
+        instance.getStateCycles(CpuState.SLEEP) == 1
+        instance.getStateCycles(CpuState.IDLE) == 1
+        instance.getStateCycles(CpuState.OPERATING) == 0
+    }
+
+    def "should copy detached counters"() {
+        given:
+        instance.record(ushort(0x200), ushort(0x00E0))
+        instance.recordState(CpuState.HALT.value())
+
+        when:
+        def copy = instance.copy()
+        instance.record(ushort(0x200), ushort(0x00E0))
+
+        then:
+        copy.getAddressHits(0x200) == 1
+        copy.getInstructionCount(InstructionType.Ox00E0) == 1
+        copy.getStateCycles(CpuState.HALT) == 1
+        instance.getAddressHits(0x200) == 2
+    }
+
+    def "should clear all the counters"() {
+        given:
+        instance.record(ushort(0x200), ushort(0xFFFF))
+        instance.recordState(CpuState.HALT.value())
+
+        when:
+        instance.clear()
+
+        then:
+        instance.getAddressHits(0x200) == 0
+        instance.getUnknownCount() == 0
+        instance.getStateCycles(CpuState.HALT) == 0
+    }
+
+    def "should report zeros when disabled"() {
+        given:
+        def disabled = ExecutionProfile.disabled()
+
+        expect:
+        !disabled.enabled
+        instance.enabled
+        disabled.getAddressHits(0x200) == 0
+        disabled.getInstructionCount(InstructionType.Ox00E0) == 0
+        disabled.getUnknownCount() == 0
+        disabled.getStateCycles(CpuState.HALT) == 0
+        disabled.copy().getAddressHits(0) == 0
+    }
+
+    def "should reject address outside 4k"() {
+        when:
+        instance.getAddressHits(0x1000)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
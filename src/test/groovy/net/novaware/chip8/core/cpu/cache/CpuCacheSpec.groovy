@@ -1,7 +1,87 @@
 package net.novaware.chip8.core.cpu.cache
 
+import net.novaware.chip8.core.cpu.instruction.InstructionType
+import net.novaware.chip8.core.memory.MemoryModule
+import net.novaware.chip8.core.memory.PhysicalMemory
+import net.novaware.chip8.core.memory.SplittableMemory
 import spock.lang.Specification
 
+import static net.novaware.chip8.core.util.UnsignedUtil.ubyte
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
 class CpuCacheSpec extends Specification {
 
+    def program = new SplittableMemory(new PhysicalMemory("Program", MemoryModule.PROGRAM_SIZE))
+
+    def instance = new CpuCache(program)
+
+    def setup() {
+        instance.initialize()
+    }
+
+    static CpuCache.Entry entry(int address) {
+        new CpuCache.Entry(ushort(address), 2, CpuCache.typesOf(InstructionType.Ox00E0), 0x00E0 as short, "", {} as Runnable)
+    }
+
+    def "should cache only addresses of program region"() {
+        expect:
+        instance.isCacheable(ushort(address)) == cacheable
+
+        where:
+        address || cacheable
+        0x1FF   || false
+        0x200   || true
+        0xE9E   || true
+        0xE9F   || false
+        0xEA0   || false
+    }
+
+    def "should return previously stored entry"() {
+        given:
+        def entry = entry(0x204)
+
+        when:
+        instance.put(entry)
+
+        then:
+        instance.get(ushort(0x204)).is(entry)
+        instance.get(ushort(0x206)) == null
+        instance.get(ushort(0x100)) == null
+    }
+
+    def "should reject entries outside of program region"() {
+        when:
+        instance.put(entry(0x100))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "should invalidate entries overlapping written program memory"() {
+        given:
+        instance.put(entry(0x200))
+        instance.put(entry(0x201))
+        instance.put(entry(0x202))
+        instance.put(entry(0x204))
+
+        when:
+        program.setByte(ushort(0x002), ubyte(0x12)) // absolute 0x202
+
+        then:
+        instance.get(ushort(0x200)) != null
+        instance.get(ushort(0x201)) == null
+        instance.get(ushort(0x202)) == null
+        instance.get(ushort(0x204)) != null
+    }
+
+    def "should drop all entries on reset"() {
+        given:
+        instance.put(entry(0x200))
+
+        when:
+        instance.reset()
+
+        then:
+        instance.get(ushort(0x200)) == null
+    }
 }
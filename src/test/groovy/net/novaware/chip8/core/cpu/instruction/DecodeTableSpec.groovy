@@ -0,0 +1,57 @@
+package net.novaware.chip8.core.cpu.instruction
+
+import spock.lang.Specification
+
+import static net.novaware.chip8.core.cpu.instruction.InstructionType.*
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
+class DecodeTableSpec extends Specification {
+
+    def "should consult registry only while building the table"() {
+        given:
+        def registry = Mock(InstructionRegistry)
+
+        when:
+        def table = new DecodeTable(registry)
+
+        then:
+        0x10000 * registry.getDefinition(_)
+
+        when:
+        table.lookup(ushort(0x1234))
+
+        then:
+        0 * registry.getDefinition(_)
+    }
+
+    def "should pack instruction type and params"() {
+        given:
+        def entry = DecodeTable.getInstance().lookup(ushort(instruction))
+
+        expect:
+        DecodeTable.type(entry) == type
+        uint(DecodeTable.opcode(entry)) == uint(type.opcode())
+        uint(DecodeTable.param1(entry)) == p1
+        uint(DecodeTable.param2(entry)) == p2
+        uint(DecodeTable.param3(entry)) == p3
+
+        where:
+        instruction || type   | p1    | p2   | p3
+        0x0123      || Ox0MMM | 0x123 | 0x00 | 0x0
+        0x00E0      || Ox00E0 | 0x000 | 0x00 | 0x0
+        0x1FFF      || Ox1MMM | 0xFFF | 0x00 | 0x0
+        0x3AFF      || Ox3XKK | 0xA   | 0xFF | 0x0
+        0x8AB6      || Ox8XY6 | 0xA   | 0x0B | 0x0
+        0xDABF      || OxDXYK | 0xA   | 0x0B | 0xF
+        0xFE65      || OxFX65 | 0xE   | 0x00 | 0x0
+    }
+
+    def "should mark unsupported instructions"() {
+        expect:
+        DecodeTable.getInstance().lookup(ushort(instruction)) == DecodeTable.UNKNOWN
+
+        where:
+        instruction << [0x800F, 0xE000, 0xE123, 0xF0FF]
+    }
+}
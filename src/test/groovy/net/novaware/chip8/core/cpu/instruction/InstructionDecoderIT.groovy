@@ -12,7 +12,7 @@ class InstructionDecoderIT extends Specification {
     InstructionDecoder decoder = new InstructionDecoder(
             registers.getCurrentInstruction(),
             registers.getDecodedInstruction(),
-            new InstructionRegistry()
+            new DecodeTable(new InstructionRegistry())
     )
 
     def "should properly decode an instruction"() {
@@ -24,7 +24,7 @@ class InstructionDecoderIT extends Specification {
 
         then:
         WordRegister[] decoded = registers.getDecodedInstruction()
-        decoded[0].get() == (short)0xD000
+        decoded[0].getAsInt() == InstructionType.OxDXYK.ordinal()
         decoded[1].get() == (short)0x0001
         decoded[2].get() == (short)0x0002
         decoded[3].get() == (short)0x0003
@@ -9,50 +9,40 @@ class InstructionDecoderSpec extends Specification {
 
     def registers = newRegisters()
 
-    def registry = Mock(InstructionRegistry)
+    def registry = Stub(InstructionRegistry) {
+        getDefinition(_) >> { args -> args[0] == (short) 0x1234 ? new AddressOnlyDef(InstructionType.Ox1MMM) : null }
+    }
 
     InstructionDecoder instance = new InstructionDecoder(
             registers.getCurrentInstruction(),
             registers.getDecodedInstruction(),
-            registry
+            new DecodeTable(registry)
     )
 
-    def "should decode unseen instruction"() {
+    def "should decode instruction"() {
         given:
         registers.getCurrentInstruction().set(0x1234)
 
-        def instructionDef = new AddressOnlyDef(InstructionType.Ox1MMM)
-
         when:
         instance.decode()
 
         then:
-        1 * registry.getDefinition(0x1234) >> instructionDef
         with(registers.getDecodedInstruction()) {
-            it[0].getAsInt() == 0x1000
+            it[0].getAsInt() == InstructionType.Ox1MMM.ordinal()
             it[1].getAsInt() == 0x0234
             it[2].getAsInt() == 0x0000
             it[3].getAsInt() == 0x0000
         }
     }
 
-    def "should use cache for previously seen instruction"() {
+    def "should reject instruction missing in decode table"() {
         given:
-        registers.getCurrentInstruction().set(0x1234)
-
-        def instructionDef = new AddressOnlyDef(InstructionType.Ox1MMM)
+        registers.getCurrentInstruction().set(0x1235)
 
         when:
         instance.decode()
-        instance.decode()
 
         then:
-        1 * registry.getDefinition(0x1234) >> instructionDef
-        with(registers.getDecodedInstruction()) {
-            it[0].getAsInt() == 0x1000
-            it[1].getAsInt() == 0x0234
-            it[2].getAsInt() == 0x0000
-            it[3].getAsInt() == 0x0000
-        }
+        thrown(IllegalArgumentException)
     }
 }
@@ -32,4 +32,30 @@ class ByteRegisterSpec extends Specification {
         noExceptionThrown()
         register.get() == 2 as short
     }
+
+    def "should share value with backing store"() {
+        given:
+        byte[] store = new byte[16]
+        def view = new ByteRegister("V3", store, 3)
+
+        when:
+        view.set(0xAB)
+        store[4] = 0x12 as byte
+
+        then:
+        store[3] == 0xAB as byte
+        view.getAsInt() == 0xAB
+        !view.isObservable()
+    }
+
+    def "should reject subscription to store view"() {
+        given:
+        def view = new ByteRegister("V3", new byte[16], 3)
+
+        when:
+        view.subscribe({ r -> })
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
 }
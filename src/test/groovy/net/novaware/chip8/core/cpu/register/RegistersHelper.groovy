@@ -5,15 +5,20 @@ import static net.novaware.chip8.core.cpu.register.RegisterModule.*
 class RegistersHelper {
 
     static RegisterFile newRegisters() {
+        def variableStore = provideVariableStore()
+        def wordStore = provideWordStore()
+
         new RegisterFile(
+                variableStore,
+                wordStore,
                 provideCpuState(),
-                provideVariables(),
+                provideVariables(variableStore),
                 provideStatusType(),
-                provideIndex(),
-                provideMemoryAddress(),
-                provideProgramCounter(),
+                provideIndex(wordStore),
+                provideMemoryAddress(wordStore),
+                provideProgramCounter(wordStore),
                 provideStackSegment(),
-                provideStackPointer(),
+                provideStackPointer(wordStore),
                 provideFontSegment(),
                 provideGraphicSegment(),
                 provideGraphicChange(),
@@ -24,8 +29,8 @@ class RegistersHelper {
                 provideDelay(),
                 provideSound(),
                 provideSoundOn(),
-                provideCurrentInstruction(),
-                provideDecodedInstruction()
+                provideCurrentInstruction(wordStore),
+                provideDecodedInstruction(wordStore)
         )
     }
 }
\ No newline at end of file
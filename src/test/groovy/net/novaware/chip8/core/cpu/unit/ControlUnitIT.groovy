@@ -46,7 +46,7 @@ class ControlUnitIT extends Specification {
         }
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox00E0.opcode())
+        instruction[0].set(Ox00E0.ordinal())
 
         when:
         cu.execute()
@@ -76,7 +76,7 @@ class ControlUnitIT extends Specification {
         given:
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxAMMM.opcode())
+        instruction[0].set(OxAMMM.ordinal())
         instruction[1].set(0x0123)
 
         when:
@@ -91,7 +91,7 @@ class ControlUnitIT extends Specification {
         given:
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox6XKK.opcode())
+        instruction[0].set(Ox6XKK.ordinal())
         instruction[1].set(0x0003)
         instruction[2].set(0x0045)
 
@@ -109,7 +109,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(4).set(0xAA as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox7XKK.opcode())
+        instruction[0].set(Ox7XKK.ordinal())
         instruction[1].set(0x0004)
         instruction[2].set(0x0054)
 
@@ -127,7 +127,7 @@ class ControlUnitIT extends Specification {
         registers.getProgramCounter().set(0x0123)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox1MMM.opcode())
+        instruction[0].set(Ox1MMM.ordinal())
         instruction[1].set(0x0345)
 
         when:
@@ -144,7 +144,7 @@ class ControlUnitIT extends Specification {
         registers.getProgramCounter().set(0x0202)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox1MMM.opcode())
+        instruction[0].set(Ox1MMM.ordinal())
         instruction[1].set(0x0200)
 
         when:
@@ -163,7 +163,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(4).set(0xEE as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX1E.opcode())
+        instruction[0].set(OxFX1E.ordinal())
         instruction[1].set(0x4)
 
         when:
@@ -188,7 +188,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(4).set(0xEE as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX1E.opcode())
+        instruction[0].set(OxFX1E.ordinal())
         instruction[1].set(0x4)
 
         when:
@@ -212,7 +212,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox3XKK.opcode())
+        instruction[0].set(Ox3XKK.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0x45)
 
@@ -230,7 +230,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox3XKK.opcode())
+        instruction[0].set(Ox3XKK.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0x46)
 
@@ -249,7 +249,7 @@ class ControlUnitIT extends Specification {
         registers.getStackSegment().set(0xFE0)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox2MMM.opcode())
+        instruction[0].set(Ox2MMM.ordinal())
         instruction[1].set(0x400)
 
         when:
@@ -269,7 +269,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(4).set(0x56 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY0.opcode())
+        instruction[0].set(Ox8XY0.ordinal())
         instruction[1].set(0x0003)
         instruction[2].set(0x0004)
 
@@ -290,7 +290,7 @@ class ControlUnitIT extends Specification {
         registers.getInput().set(0b01011)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxEXA1.opcode())
+        instruction[0].set(OxEXA1.ordinal())
         instruction[1].set(0xA)
 
         when:
@@ -310,7 +310,7 @@ class ControlUnitIT extends Specification {
         registers.getInput().set(0b11011)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxEXA1.opcode())
+        instruction[0].set(OxEXA1.ordinal())
         instruction[1].set(0xA)
 
         when:
@@ -338,7 +338,7 @@ class ControlUnitIT extends Specification {
         memory.setBytes(0xFFD as short, data, data.length)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX65.opcode())
+        instruction[0].set(OxFX65.ordinal())
         instruction[1].set(0x2)
 
         when:
@@ -371,7 +371,7 @@ class ControlUnitIT extends Specification {
         memory.setByte(0xFE1 as short, 0x22 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox00EE.opcode())
+        instruction[0].set(Ox00EE.ordinal())
 
         when:
         cu.execute()
@@ -386,7 +386,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(6).set(0xAB as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX15.opcode())
+        instruction[0].set(OxFX15.ordinal())
         instruction[1].set(0x6)
 
         when:
@@ -402,7 +402,7 @@ class ControlUnitIT extends Specification {
         registers.getDelay().set(0x12 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX07.opcode())
+        instruction[0].set(OxFX07.ordinal())
         instruction[1].set(0x6)
 
         when:
@@ -421,7 +421,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x56 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY2.opcode())
+        instruction[0].set(Ox8XY2.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -446,7 +446,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(yVal as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY6.opcode())
+        instruction[0].set(Ox8XY6.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -477,7 +477,7 @@ class ControlUnitIT extends Specification {
         registers.getInput().set(0b1000)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxEX9E.opcode())
+        instruction[0].set(OxEX9E.ordinal())
         instruction[1].set(0xA)
 
         when:
@@ -497,7 +497,7 @@ class ControlUnitIT extends Specification {
         registers.getInput().set(0b1111101111111111 as short)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxEX9E.opcode())
+        instruction[0].set(OxEX9E.ordinal())
         instruction[1].set(0xA)
 
         when:
@@ -516,7 +516,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0x56 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY4.opcode())
+        instruction[0].set(Ox8XY4.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -540,7 +540,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0xBB as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY4.opcode())
+        instruction[0].set(Ox8XY4.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -564,7 +564,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0x34 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY5.opcode())
+        instruction[0].set(Ox8XY5.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -588,7 +588,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0xBB as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY5.opcode())
+        instruction[0].set(Ox8XY5.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -611,7 +611,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox4XKK.opcode())
+        instruction[0].set(Ox4XKK.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0x46)
 
@@ -629,7 +629,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox4XKK.opcode())
+        instruction[0].set(Ox4XKK.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0x45)
 
@@ -648,7 +648,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x56 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY3.opcode())
+        instruction[0].set(Ox8XY3.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -667,7 +667,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(6).set(0xAB as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX18.opcode())
+        instruction[0].set(OxFX18.ordinal())
         instruction[1].set(0x6)
 
         when:
@@ -684,7 +684,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(7).set(0x0 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX0A.opcode())
+        instruction[0].set(OxFX0A.ordinal())
         instruction[1].set(0x7)
 
         when:
@@ -703,7 +703,7 @@ class ControlUnitIT extends Specification {
         registers.getInput().set(0b101) //keys 0 and 2 pressed together
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX0A.opcode())
+        instruction[0].set(OxFX0A.ordinal())
         instruction[1].set(0x7)
 
         when:
@@ -722,7 +722,7 @@ class ControlUnitIT extends Specification {
         registers.getIndex().set(0xE90)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX33.opcode())
+        instruction[0].set(OxFX33.ordinal())
         instruction[1].set(0xB)
 
         when:
@@ -746,7 +746,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xC).set((byte)9)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX29.opcode())
+        instruction[0].set(OxFX29.ordinal())
         instruction[1].set(0xC)
 
         when:
@@ -763,7 +763,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set((byte)123)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxCXKK.opcode())
+        instruction[0].set(OxCXKK.ordinal())
         instruction[1].set(0xD)
         instruction[2].set(0x56)
 
@@ -783,7 +783,7 @@ class ControlUnitIT extends Specification {
     def "should call system instruction with given address"() {
         given:
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox0MMM.opcode())
+        instruction[0].set(Ox0MMM.ordinal())
         instruction[1].set(0x400)
 
         when:
@@ -801,7 +801,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox5XY0.opcode())
+        instruction[0].set(Ox5XY0.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -820,7 +820,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x46 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox5XY0.opcode())
+        instruction[0].set(Ox5XY0.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -839,7 +839,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x56 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY1.opcode())
+        instruction[0].set(Ox8XY1.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -866,7 +866,7 @@ class ControlUnitIT extends Specification {
         registers.getIndex().set(0x400)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxFX55.opcode())
+        instruction[0].set(OxFX55.ordinal())
         instruction[1].set(0x2)
 
         when:
@@ -899,7 +899,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0x34 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY7.opcode())
+        instruction[0].set(Ox8XY7.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -922,7 +922,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xD).set(0xBB as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XY7.opcode())
+        instruction[0].set(Ox8XY7.ordinal())
         instruction[1].set(0xC)
         instruction[2].set(0xD)
 
@@ -945,7 +945,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x46 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox9XY0.opcode())
+        instruction[0].set(Ox9XY0.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -964,7 +964,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xB).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox9XY0.opcode())
+        instruction[0].set(Ox9XY0.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -982,7 +982,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0x0).set(0x67 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(OxBMMM.opcode())
+        instruction[0].set(OxBMMM.ordinal())
         instruction[1].set(0x0345)
 
         when:
@@ -1000,7 +1000,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x85 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XYE.opcode())
+        instruction[0].set(Ox8XYE.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
@@ -1022,7 +1022,7 @@ class ControlUnitIT extends Specification {
         registers.getVariable(0xA).set(0x45 as byte)
 
         def instruction = registers.getDecodedInstruction()
-        instruction[0].set(Ox8XYE.opcode())
+        instruction[0].set(Ox8XYE.ordinal())
         instruction[1].set(0xA)
         instruction[2].set(0xB)
 
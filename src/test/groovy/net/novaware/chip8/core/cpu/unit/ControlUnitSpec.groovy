@@ -1,12 +1,16 @@
 package net.novaware.chip8.core.cpu.unit
 
+import net.novaware.chip8.core.cpu.cache.CpuCache
 import net.novaware.chip8.core.cpu.instruction.InstructionDecoder
-import net.novaware.chip8.core.cpu.instruction.InstructionRegistry
+import net.novaware.chip8.core.cpu.instruction.InstructionType
 import net.novaware.chip8.core.gpu.Gpu
 import net.novaware.chip8.core.memory.Memory
 import net.novaware.chip8.core.memory.PhysicalMemory
+import net.novaware.chip8.core.util.ExecutionTrace
 import spock.lang.Specification
 
+import java.util.function.IntUnaryOperator
+
 import static net.novaware.chip8.core.cpu.register.RegistersHelper.newRegisters
 
 class ControlUnitSpec extends Specification {
@@ -15,28 +19,55 @@ class ControlUnitSpec extends Specification {
 
     def registers = newRegisters()
 
+    ExecutionTrace trace = new ExecutionTrace(16)
+
     Memory memory = new PhysicalMemory("test", 4096)
 
+    CpuCache cache = new CpuCache(memory)
+
+    ArithmeticLogic alu = new ArithmeticLogic(
+            Mock(IntUnaryOperator),
+            registers.variableStore,
+            registers.input,
+            registers.inputCheck,
+            registers.statusType
+    )
+
+    PowerMgmt powerMgmt = Mock()
+
     ControlUnit cu = new ControlUnit(
             config,
             new InstructionDecoder(
                     registers.getCurrentInstruction(),
-                    registers.getDecodedInstruction(),
-                    new InstructionRegistry()
+                    registers.getDecodedInstruction()
             ),
+            cache,
+            trace,
             registers,
             memory,
             Mock(LoadStore),
-            Mock(ArithmeticLogic),
+            alu,
             Mock(AddressGen),
-            Mock(StackEngine),
-            Mock(PowerMgmt),
+            new StackEngine(
+                    registers.stackSegment,
+                    registers.wordStore,
+                    registers.variableStore,
+                    memory
+            ),
+            powerMgmt,
             Mock(Gpu),
             Mock(NativeUnit),
             Mock(Timer),
             Mock(Timer)
     )
 
+    def "should provide an operation for every instruction type"() {
+        expect:
+        InstructionType.values().each { type ->
+            assert cu.getOperation(type.ordinal()) != null
+        }
+    }
+
     def "should fetch instruction from memory pointed by PC"() {
         given:
         registers.getProgramCounter().set(0x200)
@@ -52,4 +83,156 @@ class ControlUnitSpec extends Specification {
         registers.getProgramCounter().getAsInt() == 0x202
         registers.getCurrentInstruction().getAsInt() == 0x1234
     }
+
+    def "should execute instruction translated into threaded code"() {
+        given:
+        registers.getProgramCounter().set(0x200)
+
+        memory.setByte(0x200 as short, 0x6A as byte)
+        memory.setByte(0x201 as short, 0x05 as byte)
+
+        when:
+        cu.dispatch()
+
+        then:
+        registers.getVariable(0xA).getAsInt() == 0x05
+        registers.getMemoryAddress().getAsInt() == 0x200
+        registers.getProgramCounter().getAsInt() == 0x202
+        cache.get(0x200 as short) != null
+    }
+
+    def "should reuse translated instruction until invalidated"() {
+        given:
+        registers.getProgramCounter().set(0x200)
+
+        memory.setByte(0x200 as short, 0x6A as byte)
+        memory.setByte(0x201 as short, 0x05 as byte)
+
+        cu.dispatch()
+        memory.setByte(0x201 as short, 0x06 as byte) // bypasses invalidation on purpose
+        registers.getVariable(0xA).set(0)
+
+        when:
+        registers.getProgramCounter().set(0x200)
+        cu.dispatch()
+
+        then:
+        registers.getVariable(0xA).getAsInt() == 0x05
+
+        when:
+        cache.invalidate(0x201, 1)
+        registers.getProgramCounter().set(0x200)
+        cu.dispatch()
+
+        then:
+        registers.getVariable(0xA).getAsInt() == 0x06
+    }
+
+    def "should skip next instruction in threaded code"() {
+        given:
+        registers.getProgramCounter().set(0x200)
+        registers.getVariable(0xA).set(0x05)
+
+        memory.setByte(0x200 as short, 0x3A as byte)
+        memory.setByte(0x201 as short, 0x05 as byte)
+
+        when:
+        cu.dispatch()
+
+        then:
+        registers.getProgramCounter().getAsInt() == 0x204
+    }
+
+    def loadDelayLoop() {
+        memory.setWord(0x200 as short, 0xF107 as short) // V1 = DT
+        memory.setWord(0x202 as short, 0x3100 as short) // skip if V1 == 0
+        memory.setWord(0x204 as short, 0x1200 as short) // jump 0x200
+        registers.getProgramCounter().set(0x204)
+    }
+
+    def "should park cpu in delay timer polling loop"() {
+        given:
+        loadDelayLoop()
+        registers.getDelay().set(5)
+        registers.getVariable(1).set(5)
+
+        when:
+        cu.dispatch()
+
+        then:
+        1 * powerMgmt.park()
+        registers.getProgramCounter().getAsInt() == 0x200
+        registers.getMemoryAddress().getAsInt() == 0x204
+    }
+
+    def "should not park cpu if the loop pass changes registers"() {
+        given:
+        loadDelayLoop()
+        registers.getDelay().set(5)
+        registers.getVariable(1).set(6)
+
+        when:
+        cu.dispatch()
+
+        then:
+        0 * powerMgmt.park()
+    }
+
+    def "should not park cpu if the loop pass exits"() {
+        given:
+        loadDelayLoop()
+        registers.getDelay().set(0)
+        registers.getVariable(1).set(0)
+
+        when:
+        cu.dispatch()
+
+        then:
+        0 * powerMgmt.park()
+    }
+
+    def "should park cpu in input polling loop"() {
+        given:
+        memory.setWord(0x200 as short, 0xE29E as short) // skip if key V2 pressed
+        memory.setWord(0x202 as short, 0x1200 as short) // jump 0x200
+        registers.getProgramCounter().set(0x202)
+        registers.getVariable(2).set(7)
+        registers.getInputCheck().set(7)
+
+        when:
+        cu.dispatch()
+
+        then:
+        1 * powerMgmt.park()
+    }
+
+    def "should record executed instructions in the trace"() {
+        given:
+        memory.setWord(0x200 as short, 0x6F05 as short) // VF = 5
+        memory.setWord(0x202 as short, 0x7F01 as short) // VF += 1
+        registers.getProgramCounter().set(0x200)
+        registers.getIndex().set(0x123)
+        long[] records = new long[4]
+
+        when:
+        cu.dispatch()
+        cu.fetch()
+        cu.decode()
+        cu.execute()
+
+        then:
+        trace.getWritten() == 2
+        trace.copy(0, records, 2) == 0
+
+        ExecutionTrace.memoryAddress(records[0]) == 0x200
+        ExecutionTrace.opcode(records[0]) == 0x6F05
+        ExecutionTrace.programCounter(records[0]) == 0x202
+        ExecutionTrace.vf(records[1]) == 5
+
+        ExecutionTrace.memoryAddress(records[2]) == 0x202
+        ExecutionTrace.opcode(records[2]) == 0x7F01
+        ExecutionTrace.programCounter(records[2]) == 0x204
+        ExecutionTrace.index(records[2]) == 0x123
+        ExecutionTrace.vf(records[3]) == 6
+    }
 }
@@ -167,4 +167,36 @@ class PowerMgmtSpec extends Specification {
         where:
         prevState << [OPERATING, HALT, SLEEP]
     }
+
+    def "should park and unpark operating cpu"() {
+        given:
+        cpuState.set(OPERATING.value())
+
+        when:
+        instance.park()
+
+        then:
+        instance.getState() == IDLE
+
+        when:
+        instance.unpark()
+
+        then:
+        instance.getState() == OPERATING
+    }
+
+    @Unroll
+    def "should not park from #prevState"() {
+        given:
+        cpuState.set(prevState.value())
+
+        when:
+        instance.park()
+
+        then:
+        instance.getState() == prevState
+
+        where:
+        prevState << [HALT, STOP_CLOCK, SLEEP]
+    }
 }
@@ -0,0 +1,223 @@
+package net.novaware.chip8.core.cpu.unit
+
+import net.novaware.chip8.core.cpu.cache.CpuCache
+import net.novaware.chip8.core.cpu.instruction.InstructionDecoder
+import net.novaware.chip8.core.gpu.Gpu
+import net.novaware.chip8.core.memory.Memory
+import net.novaware.chip8.core.memory.PhysicalMemory
+import net.novaware.chip8.core.memory.SplittableMemory
+import net.novaware.chip8.core.util.ExecutionTrace
+import spock.lang.Specification
+
+import java.util.function.IntUnaryOperator
+
+import static net.novaware.chip8.core.cpu.register.RegistersHelper.newRegisters
+
+class RecompilerSpec extends Specification {
+
+    ControlUnit.Config config = Mock()
+
+    def registers = newRegisters()
+
+    ExecutionTrace trace = new ExecutionTrace(16)
+
+    Memory memory = new PhysicalMemory("test", 4096)
+
+    SplittableMemory program = new SplittableMemory(new PhysicalMemory("program", 4096 - 0x200))
+
+    LoadStore lsu = new LoadStore(registers.variableStore, registers.wordStore, registers.input, memory)
+
+    ArithmeticLogic alu = new ArithmeticLogic(
+            Mock(IntUnaryOperator),
+            registers.variableStore,
+            registers.input,
+            registers.inputCheck,
+            registers.statusType
+    )
+
+    AddressGen agu = new AddressGen(
+            Mock(AddressGen.Config),
+            registers.variables,
+            registers.index,
+            registers.status,
+            registers.statusType
+    )
+
+    StackEngine stackEngine = new StackEngine(
+            registers.stackSegment,
+            registers.wordStore,
+            registers.variableStore,
+            memory
+    )
+
+    ControlUnit cu = new ControlUnit(
+            config,
+            new InstructionDecoder(
+                    registers.getCurrentInstruction(),
+                    registers.getDecodedInstruction()
+            ),
+            new CpuCache(memory),
+            trace,
+            registers,
+            memory,
+            lsu,
+            alu,
+            agu,
+            stackEngine,
+            Mock(PowerMgmt),
+            Mock(Gpu),
+            Mock(NativeUnit),
+            Mock(Timer),
+            Mock(Timer)
+    )
+
+    Recompiler recompiler = new Recompiler(
+            registers,
+            memory,
+            program,
+            trace
+    )
+
+    def setup() {
+        recompiler.initialize()
+        registers.getProgramCounter().set(0x200)
+    }
+
+    def load(int address, List<Integer> instructions) {
+        instructions.eachWithIndex { int instruction, int i ->
+            memory.setWord((address + 2 * i) as short, instruction as short)
+        }
+    }
+
+    def cycle(int count) {
+        count.times {
+            if (!recompiler.dispatch(cu)) {
+                cu.dispatch()
+            }
+        }
+    }
+
+    def "should end basic block after control flow instruction"() {
+        given:
+        load(0x200, [0x6A05, 0x7A01, 0x8AB4, 0x1200, 0x6000])
+
+        expect:
+        recompiler.findBlock(0x200).length == 4
+    }
+
+    def "should start a new block at timer access and self jump"() {
+        given:
+        load(0x200, [0x6A05, 0xF107, 0x7101, 0x1206])
+
+        expect:
+        recompiler.findBlock(0x200).length == 1
+        recompiler.findBlock(0x202).length == 2
+        recompiler.findBlock(0x206).length == 1
+    }
+
+    def "should compile hot block and stall for its remaining cycles"() {
+        given:
+        load(0x200, [0x7A01, 0x7B02, 0x1200])
+
+        when:
+        cycle(3 * 100)
+
+        then:
+        recompiler.get(0x200) != null
+        recompiler.size() == 1
+        registers.getVariable(0xA).getAsInt() == 100
+        registers.getVariable(0xB).getAsInt() == 200
+        registers.getProgramCounter().getAsInt() == 0x200
+        registers.getMemoryAddress().getAsInt() == 0x204
+    }
+
+    def "should drop compiled block when program memory is written"() {
+        given:
+        load(0x200, [0x7A01, 0x7B02, 0x1200])
+        cycle(3 * Recompiler.HOT_THRESHOLD)
+
+        when:
+        program.setByte(0x0003 as short, 0x03 as byte)
+
+        then:
+        recompiler.get(0x200) == null
+        recompiler.size() == 0
+    }
+
+    def "should evict least recently used block"() {
+        given:
+        int blocks = Recompiler.CAPACITY + 1
+        def jumps = (0..<blocks).collect { 0x1000 | (0x200 + 2 * (it + 1)) }
+        jumps[blocks - 1] = 0x1200
+        load(0x200, jumps)
+
+        when:
+        cycle(blocks * Recompiler.HOT_THRESHOLD)
+
+        then:
+        recompiler.size() == Recompiler.CAPACITY
+        recompiler.get(0x200) == null
+        recompiler.get(0x202) != null
+        recompiler.get(0x200 + 2 * (blocks - 1)) != null
+    }
+
+    def "should define block classes by a loader dropped on reset"() {
+        given:
+        load(0x200, [0x7A01, 0x1200])
+        cycle(2 * Recompiler.HOT_THRESHOLD)
+        def before = recompiler.get(0x200).getClass()
+
+        when:
+        recompiler.reset()
+        registers.getProgramCounter().set(0x200)
+        cycle(2 * Recompiler.HOT_THRESHOLD)
+        def after = recompiler.get(0x200).getClass()
+
+        then:
+        before.classLoader != CompiledBlock.classLoader
+        after.classLoader != before.classLoader
+    }
+
+    def "should evict all blocks and keep compiling when class limit is reached"() {
+        given:
+        def first = null
+
+        when:
+        (Recompiler.MAX_CLASSES + 1).times { int i ->
+            load(0x200, [0xA000 | i, 0x1200])
+            recompiler.invalidate(0x200, 2)
+            registers.getProgramCounter().set(0x200)
+            cycle(2 * Recompiler.HOT_THRESHOLD)
+            first = first ?: recompiler.get(0x200).getClass().classLoader
+        }
+
+        then:
+        recompiler.get(0x200) != null
+        recompiler.size() == 1
+        recompiler.get(0x200).getClass().classLoader != first
+        registers.getIndex().getAsInt() == Recompiler.MAX_CLASSES
+    }
+
+    def "should record every instruction of compiled block in the trace"() {
+        given:
+        load(0x200, [0x7A01, 0xFA1E, 0x1200])
+        cycle(3 * Recompiler.HOT_THRESHOLD)
+        long written = trace.getWritten()
+        long[] records = new long[3 * 2]
+
+        when:
+        cycle(1)
+
+        then:
+        recompiler.get(0x200) != null
+        trace.getWritten() == written + 3
+        trace.copy(written, records, 3) == written
+
+        ExecutionTrace.opcode(records[0]) == 0x7A01
+        ExecutionTrace.opcode(records[2]) == 0xFA1E
+        ExecutionTrace.index(records[2]) == registers.getIndex().getAsInt()
+        ExecutionTrace.memoryAddress(records[4]) == 0x204
+        ExecutionTrace.opcode(records[4]) == 0x1200
+        ExecutionTrace.programCounter(records[4]) == 0x200
+    }
+}
@@ -16,10 +16,8 @@ class StackEngineSpec extends Specification {
 
     def instance = new StackEngine(
             registers.stackSegment,
-            registers.stackPointer,
-            registers.memoryAddress,
-            registers.programCounter,
-            registers.variables,
+            registers.wordStore,
+            registers.variableStore,
             memory
     )
 
@@ -17,7 +17,9 @@ class GpuSpec extends Specification {
 
     def registers = newRegisters()
 
-    def memory = new PhysicalMemory("GFX", 256)
+    private static final int SPRITE = 0x100
+
+    def memory = new PhysicalMemory("GFX", 512)
 
     def instance = new Gpu(config, registers, memory)
 
@@ -49,9 +51,28 @@ class GpuSpec extends Specification {
         }
     }
 
+    /**
+     * Sprite is placed after the display (graphic segment is 0), then it's drawn at the given position
+     */
+    void drawSprite(int xBit, int yBit, byte[] sprite) {
+        memory.setBytes(SPRITE as short, sprite, sprite.length)
+        registers.getIndex().set(SPRITE)
+        registers.getVariable(0x0).set(xBit)
+        registers.getVariable(0x1).set(yBit)
+
+        instance.drawSprite(0x0 as short, 0x1 as short, sprite.length as short)
+    }
+
+    void assertDisplayBlank() {
+        for (int i in 0 .. 255) {
+            assert memory.getByte(i as short) == 0x0 as byte
+        }
+    }
+
     @Unroll
-    def "should properly extract painted area from memory (byte aligned: #xBit, #yBit, #height)"() {
+    def "should erase painted area drawing the same sprite over it (byte aligned: #xBit, #yBit, #height)"() {
         given:
+        config.isWrapping() >> true
 
         byte[] sprite = [0x12, 0x34, 0x56, 0x78, 0x9A, 0xBC, 0xDE, 0xF3]
 
@@ -63,15 +84,13 @@ class GpuSpec extends Specification {
 
         if (DUMP_MEMORY) dumpGraphicsSegment()
 
-        byte[] buffer = new byte[MAX_SPRITE_HEIGHT]
-
         when:
-        instance.fillPaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(xBit, yBit, Arrays.copyOf(sprite, height))
 
         then:
-        assertBufferContent(buffer, sprite, height)
-
-        if (DUMP_MEMORY) dumpBuffer(buffer, height)
+        assertDisplayBlank()
+        registers.getStatus().getAsInt() == 0x1
+        registers.getGraphicChange().get() == GC_ERASE
 
         where:
         xBit | yBit | height
@@ -100,13 +119,8 @@ class GpuSpec extends Specification {
 
     }
 
-    def "should properly extract painted area from memory (x halved)"() {
+    def "should erase painted area drawing the same sprite over it (x halved)"() {
         given:
-
-        int xBit = 4
-        int yBit = 0
-        int height = 3
-
         byte[] sprite = [0x12, 0x34, 0x56]
 
         memory.setByte(0 as short, 0x01 as byte)
@@ -118,26 +132,16 @@ class GpuSpec extends Specification {
         memory.setByte(16 as short, 0x05 as byte)
         memory.setByte(17 as short, 0x60 as byte)
 
-        if (DUMP_MEMORY) dumpGraphicsSegment()
-
-        byte[] buffer = new byte[MAX_SPRITE_HEIGHT]
-
         when:
-        instance.fillPaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(4, 0, sprite)
 
         then:
-        assertBufferContent(buffer, sprite, height)
-
-        if (DUMP_MEMORY) dumpBuffer(buffer, height)
+        assertDisplayBlank()
+        registers.getGraphicChange().get() == GC_ERASE
     }
 
-    def "should properly extract painted area from memory (x halved, xy wrapped)"() {
+    def "should erase painted area drawing the same sprite over it (x halved, xy wrapped)"() {
         given:
-
-        int xBit = 7 * 8 + 4
-        int yBit = 31
-        int height = 2
-
         byte[] sprite = [0x12, 0x34]
 
         memory.setByte(255 as short, 0x01 as byte)
@@ -146,26 +150,16 @@ class GpuSpec extends Specification {
         memory.setByte(7 as short, 0x03 as byte)
         memory.setByte(0 as short, 0x40 as byte)
 
-        if (DUMP_MEMORY) dumpGraphicsSegment()
-
-        byte[] buffer = new byte[MAX_SPRITE_HEIGHT]
-
         when:
-        instance.fillPaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(7 * 8 + 4, 31, sprite)
 
         then:
-        assertBufferContent(buffer, sprite, height)
-
-        if (DUMP_MEMORY) dumpBuffer(buffer, height)
+        assertDisplayBlank()
+        registers.getGraphicChange().get() == GC_ERASE
     }
 
-    def "should properly extract painted area from memory (x 5/8)"() {
+    def "should erase painted area drawing the same sprite over it (x 5/8)"() {
         given:
-
-        int xBit = 6 * 8 + 5
-        int yBit = 32 - 3
-        int height = 3
-
         byte[] sprite = [0x12, 0x34, 0x56]
 
         // 0x1200 >> 5
@@ -180,31 +174,28 @@ class GpuSpec extends Specification {
         memory.setByte(31 * 8 + 6 as short, 0x02 as byte)
         memory.setByte(31 * 8 + 7 as short, 0xB0 as byte)
 
-        if (DUMP_MEMORY) dumpGraphicsSegment()
-
-        byte[] buffer = new byte[MAX_SPRITE_HEIGHT]
-
         when:
-        instance.fillPaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(6 * 8 + 5, 32 - 3, sprite)
 
         then:
-        assertBufferContent(buffer, sprite, height)
-
-        if (DUMP_MEMORY) dumpBuffer(buffer, height)
+        assertDisplayBlank()
+        registers.getGraphicChange().get() == GC_ERASE
     }
 
     @Unroll
-    def "should xor buffers properly in a #title case"() {
+    def "should xor sprite with the display properly in a #title case"() {
         given:
-        instance.spriteBuffer = sprite;
-        instance.paintBuffer = bg;
+        memory.setByte(0 as short, bg[0] as byte)
+        memory.setByte(8 as short, bg[1] as byte)
 
         when:
-        byte xorResult = instance.xorBuffers(0, 0, 2) //TODO: clipping
+        drawSprite(0, 0, sprite as byte[])
 
         then:
-        assertBufferContent(instance.resultBuffer, result as byte[], 2)
-        xorResult == gfxChange
+        memory.getByte(0 as short) == result[0] as byte
+        memory.getByte(8 as short) == result[1] as byte
+        registers.getGraphicChange().get() == gfxChange
+        registers.getStatus().getAsInt() == (gfxChange == GC_ERASE || gfxChange == GC_MIX ? 1 : 0)
 
         where:
         sprite       | bg           || result       | gfxChange | title
@@ -216,19 +207,47 @@ class GpuSpec extends Specification {
         [0xFF, 0xFF] | [0xFF, 0xFF] || [0x00, 0x00] | GC_ERASE  | "all collision"
     }
 
+    @Unroll
+    def "should classify graphic change of #erased erased and #drawn drawn pixels as #gc"() {
+        expect:
+        Gpu.getGraphicChange(erased, drawn) == gc
+
+        where:
+        erased         | drawn          || gc
+        0L             | 0L             || GC_NOOP
+        1L             | 0L             || GC_ERASE
+        Long.MIN_VALUE | 0L             || GC_ERASE
+        0L             | Long.MIN_VALUE || GC_DRAW
+        0L             | -1L            || GC_DRAW
+        Long.MIN_VALUE | 1L             || GC_MIX
+    }
+
+    @Unroll
+    def "should place sprite row at #left (clipping: #clipping)"() {
+        expect:
+        Gpu.toSpriteRow(0xA5 as byte, left, clipping) == row
+
+        where:
+        left | clipping || row
+        0    | false    || 0xA500000000000000L
+        4    | true     || 0x0A50000000000000L
+        56   | true     || 0xA5L
+        60   | true     || 0xAL
+        60   | false    || 0x500000000000000AL
+    }
+
     @Unroll
     def "should properly store painted area in memory (byte aligned: #xBit, #yBit, #height)"() {
         given:
-
         byte[] paintedBuffer = [0x12, 0x34]
 
         when:
-        instance.storePaintBuffer(xBit, yBit, paintedBuffer, height)
+        drawSprite(xBit, yBit, Arrays.copyOf(paintedBuffer, height))
 
         then:
         if (DUMP_MEMORY) dumpGraphicsSegment()
 
-        for (int i in 0 .. memory.getSize() - 1) {
+        for (int i in 0 .. 255) {
             if (i == 0) {
                 assert memory.getByte(i as short) == 0x12 as byte
             } else if (i == 8) {
@@ -238,6 +257,9 @@ class GpuSpec extends Specification {
             }
         }
 
+        registers.getStatus().getAsInt() == 0x0
+        registers.getGraphicChange().get() == GC_DRAW
+
         where:
         xBit | yBit | height
         0    | 0    | 2
@@ -245,19 +267,15 @@ class GpuSpec extends Specification {
 
     def "should properly store painted area in memory (x 5/8)"() {
         given:
-        int xBit = 6 * 8 + 5
-        int yBit = 32 - 3
-        int height = 3
-
         byte[] buffer = [0x12, 0x34, 0x56]
 
         when:
-        instance.storePaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(6 * 8 + 5, 32 - 3, buffer)
 
         then:
         if (DUMP_MEMORY) dumpGraphicsSegment()
 
-        for (int i in 0 .. memory.getSize() - 1) {
+        for (int i in 0 .. 255) {
 
             if (i == 29 * 8 + 6) {
                 // 0x1200 >> 5 first byte
@@ -289,63 +307,115 @@ class GpuSpec extends Specification {
         }
     }
 
-    def "should properly store painted area in memory (x 5/8) preserving what it already contained"() {
+    def "should properly store painted area in memory (x 5/8) xoring what it already contained"() {
         given:
-        int xBit = 6 * 8 + 5
-        int yBit = 32 - 3
-        int height = 3
-
         byte[] buffer = [0x12, 0x34, 0x56]
 
-        for (int i in 0 .. memory.getSize() - 1) {
+        for (int i in 0 .. 255) {
             memory.setByte(i as short, 0b01010101 as byte)
         }
 
         if (DUMP_MEMORY) dumpGraphicsSegment()
 
         when:
-        instance.storePaintBuffer(xBit, yBit, buffer, height)
+        drawSprite(6 * 8 + 5, 32 - 3, buffer)
 
         then:
         if (DUMP_MEMORY) dumpGraphicsSegment()
 
-        for (int i in 0 .. memory.getSize() - 1) {
+        for (int i in 0 .. 255) {
 
             if (i == 29 * 8 + 6) {
                 // 0x1200 >> 5 first byte
-                assert memory.getByte(i as short) == 0x50 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0x00) as byte
 
             } else if (i == 29 * 8 + 7) {
                 // 0x1200 >> 5 second byte
-                assert memory.getByte(i as short) == 0x95 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0x90) as byte
 
             } else if (i == 30 * 8 + 6) {
                 // 0x3400 >> 5 first byte
-                assert memory.getByte(i as short) == 0x51 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0x01) as byte
 
             } else if (i == 30 * 8 + 7) {
                 // 0x3400 >> 5 second byte
-                assert memory.getByte(i as short) == 0xA5 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0xA0) as byte
 
             } else if (i == 31 * 8 + 6) {
                 // 0x5600 >> 5 first byte
-                assert memory.getByte(i as short) == 0x52 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0x02) as byte
 
             } else if (i == 31 * 8 + 7) {
                 // 0x5600 >> 5 second byte
-                assert memory.getByte(i as short) == 0xB5 as byte
+                assert memory.getByte(i as short) == (0x55 ^ 0xB0) as byte
 
             } else {
                 assert memory.getByte(i as short) == 0x55 as byte
             }
         }
+
+        registers.getGraphicChange().get() == GC_MIX
+    }
+
+    def "should clip sprite at the bottom and right edges"() {
+        given:
+        config.isVerticalClipping() >> true
+        config.isHorizontalClipping() >> true
+
+        when:
+        drawSprite(60, 30, [0xFF, 0xFF, 0xFF, 0xFF] as byte[])
+
+        then:
+        for (int i in 0 .. 255) {
+            def expected = i == 30 * 8 + 7 || i == 31 * 8 + 7 ? 0x0F : 0x0
+            assert memory.getByte(i as short) == expected as byte
+        }
+    }
+
+    def "should not draw out of bounds sprite without wrapping"() {
+        when:
+        drawSprite(64, 0, [0xFF] as byte[])
+
+        then:
+        assertDisplayBlank()
+        registers.getGraphicChange().getAsInt() == 0
+    }
+
+    def "should clear screen and report collision"() {
+        given:
+        config.isClsCollision() >> true
+        memory.setByte(100 as short, 0x10 as byte)
+
+        when:
+        instance.clearScreen()
+
+        then:
+        assertDisplayBlank()
+        registers.getStatus().getAsInt() == 0x1
+        registers.getGraphicChange().get() == GC_ERASE
+    }
+
+    def "should scroll up by n lines"() {
+        given:
+        for (int i in 0 .. 255) {
+            memory.setByte(i as short, (i / 8) as byte)
+        }
+
+        when:
+        instance.scrollUp(3 as short)
+
+        then:
+        for (int i in 0 .. 255) {
+            def expected = i < 29 * 8 ? i / 8 + 3 : 0
+            assert memory.getByte(i as short) == expected as byte
+        }
     }
 
     def "should properly draw byte sprite" () {
         given:
         memory.setByte(0x0 as short, 0xAA as byte)
-        memory.setByte(0x10 as short, 0xAB as byte)
-        registers.getIndex().set(0x10)
+        memory.setByte(SPRITE as short, 0xAB as byte)
+        registers.getIndex().set(SPRITE)
 
         when:
         instance.drawSprite(0 as short, 0 as short, 1 as short)
@@ -404,10 +474,4 @@ class GpuSpec extends Specification {
         println "--"
     }
 
-    static void dumpBuffer(byte[] buffer, int height) {
-        for (int i = 0; i < height; ++i) {
-            print toHexString(buffer[i]) + " "
-        }
-        println "\n"
-    }
 }
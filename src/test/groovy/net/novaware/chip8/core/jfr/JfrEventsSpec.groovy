@@ -0,0 +1,137 @@
+package net.novaware.chip8.core.jfr
+
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import net.novaware.chip8.core.BoardFactory
+import net.novaware.chip8.core.clock.LoopedClockGenerator
+import net.novaware.chip8.core.clock.ScheduledClockGenerator
+import net.novaware.chip8.core.clock.VirtualClockGenerator
+import net.novaware.chip8.core.config.MutableConfig
+import net.novaware.chip8.core.port.DisplayPort
+import net.novaware.chip8.core.port.StoragePort
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.CountDownLatch
+
+import static java.util.concurrent.TimeUnit.SECONDS
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+
+class JfrEventsSpec extends Specification {
+
+    static final List<String> EVENTS = ["BoardLifecycle", "ClockLateness", "Frame", "CoreException", "Throughput"]
+
+    byte[] drawForever = [
+            0xA0, 0x50, // 0x200: I = 0x050
+            0xD0, 0x15, // 0x202: draw
+            0x12, 0x02, // 0x204: jump 0x202
+    ] as byte[]
+
+    List<RecordedEvent> record(Closure action) {
+        def recording = new Recording()
+        EVENTS.each { recording.enable("net.novaware.chip8." + it) }
+
+        recording.start()
+        action()
+        recording.stop()
+
+        def file = Files.createTempFile("chip8", ".jfr")
+        try {
+            recording.dump(file)
+            return RecordingFile.readAllEvents(file)
+        } finally {
+            recording.close()
+            Files.delete(file)
+        }
+    }
+
+    List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        events.findAll { it.eventType.name == "net.novaware.chip8." + name }
+    }
+
+    def "should record board lifecycle, frames and throughput"() {
+        given:
+        def clock = new VirtualClockGenerator()
+        def board = BoardFactory.newBoardFactory(new MutableConfig(), clock, new Random(8).&nextInt).newBoard()
+
+        board.getStoragePort().connect({ -> new StoragePort.Packet() {
+            int getSize() { drawForever.length }
+            byte getByte(short address) { drawForever[uint(address)] }
+        }})
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect({ p -> })
+
+        when:
+        def events = record {
+            board.powerOn()
+            clock.advance(SECONDS.toNanos(1))
+            board.softReset()
+            board.hardReset()
+            board.powerOff(false)
+            clock.advance(SECONDS.toNanos(1))
+        }
+
+        then:
+        named(events, "BoardLifecycle").collect { it.getString("action") } ==
+                [BoardLifecycleEvent.POWER_ON, BoardLifecycleEvent.SOFT_RESET,
+                 BoardLifecycleEvent.HARD_RESET, BoardLifecycleEvent.POWER_OFF]
+
+        named(events, "BoardLifecycle").collect { it.getInt("board") }.unique() == [System.identityHashCode(board)]
+
+        def frames = named(events, "Frame").collect { it.getLong("frameNumber") }
+        !frames.isEmpty()
+        frames == frames.sort(false)
+
+        !named(events, "Throughput").isEmpty()
+        named(events, "Throughput").every { it.getInt("board") == System.identityHashCode(board) }
+    }
+
+    def "should record exceptions reported by the core"() {
+        when:
+        def events = record {
+            CoreExceptionEvent.emit(new IllegalStateException("boom"))
+        }
+
+        then:
+        def exceptions = named(events, "CoreException")
+        exceptions.size() == 1
+        exceptions[0].getClass("exceptionClass").name == IllegalStateException.name
+        exceptions[0].getString("message") == "boom"
+    }
+
+    def "should record late clock ticks of #clock.class.simpleName"() {
+        given:
+        def latch = new CountDownLatch(3)
+
+        when:
+        def events = record {
+            clock.schedule({
+                if (latch.count == 3) {
+                    Thread.sleep(20) // misses the next ticks
+                }
+                latch.countDown()
+            }, 1000)
+
+            assert latch.await(1, SECONDS)
+            clock.shutdown()
+        }
+
+        then:
+        def late = named(events, "ClockLateness")
+        !late.isEmpty()
+        late[0].getString("clock") == "jfr-test"
+        late[0].getInt("frequency") == 1000
+        late[0].getDuration("lateness").toMillis() >= 1
+
+        where:
+        clock << [new LoopedClockGenerator("jfr-test"), new ScheduledClockGenerator("jfr-test")]
+    }
+
+    def "should not emit anything when not recording"() {
+        expect:
+        ClockLatenessEvent.emit("idle", 60, 1, false)
+        ThroughputEvent.emit(this, 500)
+        BoardLifecycleEvent.start(BoardLifecycleEvent.POWER_ON).finish(this)
+        FrameEvent.start().finish(1)
+    }
+}
@@ -8,7 +8,7 @@ import static net.novaware.chip8.core.util.UnsignedUtil.ushort
 
 class MappedMemorySpec extends Specification {
 
-    MappedMemory memory = MappedMemoryHelper.newMappedMemory(RegisterModule.provideVariables())
+    MappedMemory memory = MappedMemoryHelper.newMappedMemory(RegisterModule.provideVariables(RegisterModule.provideVariableStore()))
 
     def "should properly size memory segments" () {
         expect:
@@ -174,4 +174,32 @@ class MappedMemorySpec extends Specification {
         then:
         thrown(IllegalArgumentException)
     }
+
+    def "should use pages aligned to the smallest segment"() {
+        expect:
+        memory.pageShift == 4
+    }
+
+    def "should translate through nested memory map"() {
+        given:
+        def rom = new PhysicalMemory("ROM", 0x1000)
+        def mmu = new MappedMemory("MMU", [
+                new MappedMemory.Entry(0x0000 as short, 0x0FFF as short, memory),
+                new MappedMemory.Entry(0x1000 as short, 0x1FFF as short, rom)
+        ])
+
+        when:
+        mmu.setWord(0x0300 as short, 0x1234 as short)
+        mmu.setByte(0x0EF3 as short, 0x78 as byte)
+        mmu.setByte(0x1FFF as short, 0x56 as byte)
+
+        then:
+        mmu.getSize() == 0x2000
+        mmu.pageShift == 4
+        memory.getWord(0x0300 as short) == 0x1234 as short
+        mmu.getWord(0x0300 as short) == 0x1234 as short
+        memory.getByte(0x0EF3 as short) == 0x78 as byte
+        rom.getByte(0x0FFF as short) == 0x56 as byte
+        mmu.getSegment(0x0EF0 as short).ref.is(memory)
+    }
 }
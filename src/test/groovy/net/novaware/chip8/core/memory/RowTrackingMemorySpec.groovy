@@ -0,0 +1,92 @@
+package net.novaware.chip8.core.memory
+
+import spock.lang.Specification
+
+import static net.novaware.chip8.core.util.UnsignedUtil.ubyte
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
+class RowTrackingMemorySpec extends Specification {
+
+    def instance = new RowTrackingMemory(new PhysicalMemory("test", 32), 4) // 8 rows
+
+    def "should start new reader with all rows dirty"() {
+        given:
+        def reader = instance.addReader()
+
+        expect:
+        instance.takeDirtyRows(reader) == 0xFF
+        instance.takeDirtyRows(reader) == 0
+    }
+
+    def "should mark rows of written addresses"() {
+        given:
+        def reader = instance.addReader()
+        instance.takeDirtyRows(reader)
+
+        when:
+        write(instance)
+
+        then:
+        instance.takeDirtyRows(reader) == rows
+        instance.getByte(ushort(5)) == ubyte(value)
+
+        where:
+        write                                                              | value || rows
+        { m -> m.setByte(ushort(5), ubyte(0xAB)) }                         | 0xAB  || 0b10
+        { m -> m.setWord(ushort(3), ushort(0x1234)) }                      | 0     || 0b11
+        { m -> m.setWord(ushort(4), ushort(0x1234)) }                      | 0x34  || 0b10
+        { m -> m.setBytes(ushort(2), [1, 2, 3, 4, 5, 6, 7, 8, 9, 10] as byte[], 10) } | 4 || 0b111
+        { m -> m.setBytes(ushort(2), new byte[0], 0) }                     | 0     || 0
+        { m -> m.clear() }                                                 | 0     || 0xFF
+    }
+
+    def "should keep dirty rows for each reader"() {
+        given:
+        def first = instance.addReader()
+        def second = instance.addReader()
+        instance.takeDirtyRows(first)
+        instance.takeDirtyRows(second)
+
+        when:
+        instance.setByte(ushort(31), ubyte(1))
+
+        then:
+        instance.takeDirtyRows(first) == 0x80
+
+        when:
+        instance.setByte(ushort(0), ubyte(1))
+
+        then:
+        instance.takeDirtyRows(first) == 0x01
+        instance.takeDirtyRows(second) == 0x81
+    }
+
+    def "should track up to 64 rows"() {
+        given:
+        def wide = new RowTrackingMemory(new PhysicalMemory("test", 64), 1)
+        def reader = wide.addReader()
+
+        expect:
+        wide.takeDirtyRows(reader) == RowTrackingMemory.ALL_ROWS
+
+        when:
+        wide.setByte(ushort(63), ubyte(1))
+
+        then:
+        wide.takeDirtyRows(reader) == Long.MIN_VALUE
+    }
+
+    def "should reject memory not made of rows"() {
+        when:
+        new RowTrackingMemory(new PhysicalMemory("test", size), rowSize)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        size | rowSize
+        10   | 4
+        10   | 0
+        65   | 1
+    }
+}
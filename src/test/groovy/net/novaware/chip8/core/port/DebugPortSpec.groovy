@@ -0,0 +1,41 @@
+package net.novaware.chip8.core.port
+
+import net.novaware.chip8.core.clock.LatencyHistogram
+import spock.lang.Specification
+
+class DebugPortSpec extends Specification {
+
+    /**
+     * Implements only the methods the port had from the start
+     */
+    static class ReceiverPort implements DebugPort {
+        void connect(DebugPort.Receiver receiver) {}
+        void disconnect() {}
+    }
+
+    def port = new ReceiverPort()
+
+    def "should reject profiler by default"() {
+        when:
+        port.connectProfiler({})
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "should ignore profile requests by default"() {
+        when:
+        port.requestProfile()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "should report empty clock lateness by default"() {
+        expect:
+        port.getClockLateness(target) == LatencyHistogram.EMPTY
+
+        where:
+        target << DebugPort.ClockTarget.values()
+    }
+}
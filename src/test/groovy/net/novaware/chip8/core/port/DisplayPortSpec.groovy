@@ -0,0 +1,88 @@
+package net.novaware.chip8.core.port
+
+import spock.lang.Specification
+
+import java.util.function.Consumer
+
+class DisplayPortSpec extends Specification {
+
+    /**
+     * Implements only the methods the packet had from the start
+     */
+    static class PixelPacket implements DisplayPort.Packet {
+        int getColumnCount() { 64 }
+        int getRowCount() { 32 }
+        boolean getPixel(int column, int row) { column == row || column == 63 }
+    }
+
+    /**
+     * Implements only the methods the port had from the start
+     */
+    static class DirectPort implements DisplayPort {
+        DisplayPort.Mode mode = DisplayPort.Mode.DIRECT
+        void connect(Consumer<DisplayPort.Packet> receiver) {}
+        void disconnect() {}
+    }
+
+    def packet = new PixelPacket()
+    def port = new DirectPort()
+
+    def "should pack the rows from the pixels by default"() {
+        expect:
+        packet.getRow(0) == ((1L << 63) | 1L)
+        packet.getRow(1) == ((1L << 62) | 1L)
+        packet.getRow(31) == ((1L << 32) | 1L)
+        packet.getFrameNumber() == 0
+    }
+
+    def "should copy the rows into read only bitmap by default"() {
+        when:
+        def bitmap = packet.getBitmap()
+
+        then:
+        bitmap.readOnly
+        bitmap.remaining() == 32 * 8
+        bitmap.getLong(0) == packet.getRow(0)
+        bitmap.getLong(31 * 8) == packet.getRow(31)
+    }
+
+    def "should reject delta receiver by default"() {
+        when:
+        port.connectDelta({})
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "should ignore key frame settings by default"() {
+        when:
+        port.requestKeyFrame()
+        port.setKeyFrameInterval(10)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "should reject async consumer by default"() {
+        when:
+        port.connectAsync()
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def "should send every frame by default"() {
+        when:
+        port.setCoalesced(false)
+
+        then:
+        !port.isCoalesced()
+
+        when:
+        port.setCoalesced(true)
+
+        then:
+        thrown(UnsupportedOperationException)
+        !port.isCoalesced()
+    }
+}
@@ -1,10 +1,16 @@
 package net.novaware.chip8.core.port.impl
 
+import net.novaware.chip8.core.clock.ClockGenerator
+import net.novaware.chip8.core.clock.LatencyHistogram
+import net.novaware.chip8.core.cpu.CpuState
+import net.novaware.chip8.core.cpu.ExecutionProfile
 import net.novaware.chip8.core.cpu.register.ByteRegister
 import net.novaware.chip8.core.cpu.unit.PowerMgmt
 import net.novaware.chip8.core.port.DebugPort
 import spock.lang.Specification
 
+import static net.novaware.chip8.core.util.UnsignedUtil.ushort
+
 class DebugPortImplSpec extends Specification {
 
     def delay = new ByteRegister("DT")
@@ -15,7 +21,9 @@ class DebugPortImplSpec extends Specification {
 
     def powerMgmt = new PowerMgmt(cpuState)
 
-    def instance = new DebugPortImpl(delay, sound, cpuState, powerMgmt)
+    def profile = new ExecutionProfile()
+
+    def instance = new DebugPortImpl(delay, sound, cpuState, powerMgmt, profile)
 
     def "should connect and disconnect receiver"() {
         given:
@@ -54,6 +62,24 @@ class DebugPortImplSpec extends Specification {
         1 * mockReceiver.onStateChange(true)
     }
 
+    def "should not report parking as state change"() {
+        given:
+        def mockReceiver = Mock(DebugPort.Receiver)
+
+        instance.connect(mockReceiver)
+        instance.attachToRegister()
+        powerMgmt.initialize()
+
+        when:
+        powerMgmt.park()
+        powerMgmt.unpark()
+        powerMgmt.sleep()
+
+        then:
+        1 * mockReceiver.onStateChange(true)
+        0 * mockReceiver.onStateChange(false)
+    }
+
     def "should forward exception and frequency updates"() {
         given:
         def mockReceiver = Mock(DebugPort.Receiver)
@@ -70,4 +96,96 @@ class DebugPortImplSpec extends Specification {
         1 * mockReceiver.onException(e)
         1 * mockReceiver.onCpuFrequencyChange(501)
     }
+
+    def "should send detached profile only when requested"() {
+        given:
+        def mockReceiver = Mock(DebugPort.ProfileReceiver)
+        DebugPort.Profile sent = null
+
+        instance.connectProfiler(mockReceiver)
+        profile.record(ushort(0x200), ushort(0x00E0))
+        profile.recordState(CpuState.HALT.value())
+
+        when:
+        instance.maybeSendProfile()
+
+        then:
+        0 * mockReceiver.onProfile(_)
+
+        when:
+        instance.requestProfile()
+        instance.maybeSendProfile()
+        instance.maybeSendProfile()
+        profile.clear()
+
+        then:
+        1 * mockReceiver.onProfile(_) >> { args -> sent = args[0] }
+        sent.getAddressHits(0x200) == 1
+        sent.getInstructionCount(0x00E0) == 1
+        sent.getInstructionCount(0x00EE) == 0
+        sent.getUnknownCount() == 0
+        sent.getStateCycles(DebugPort.WaitState.HALT) == 1
+        sent.getStateCycles(DebugPort.WaitState.SLEEP) == 0
+    }
+
+    def "should mirror every cpu state other than operating in the wait states"() {
+        expect:
+        DebugPort.WaitState.values()*.name() as Set ==
+                CpuState.getInstances().findAll { it != CpuState.OPERATING }*.name() as Set
+    }
+
+    def "should drop profile request on reset"() {
+        given:
+        def mockReceiver = Mock(DebugPort.ProfileReceiver)
+
+        instance.connectProfiler(mockReceiver)
+        instance.requestProfile()
+
+        when:
+        instance.reset()
+        instance.connectProfiler(mockReceiver)
+        instance.maybeSendProfile()
+
+        then:
+        0 * mockReceiver.onProfile(_)
+    }
+
+    def "should disconnect profile receiver"() {
+        given:
+        def mockReceiver = Mock(DebugPort.ProfileReceiver)
+
+        instance.connectProfiler(mockReceiver)
+        instance.disconnect()
+
+        when:
+        instance.requestProfile()
+        instance.maybeSendProfile()
+
+        then:
+        0 * mockReceiver.onProfile(_)
+    }
+
+    def "should expose lateness of the clock handles until reset"() {
+        given:
+        def handles = (0..3).collect {
+            def lateness = new LatencyHistogram()
+            Stub(ClockGenerator.Handle) { getLateness() >> lateness }
+        }
+
+        expect:
+        instance.getClockLateness(DebugPort.ClockTarget.CPU).is(LatencyHistogram.EMPTY)
+
+        when:
+        instance.attachToClock(*handles)
+
+        then:
+        instance.getClockLateness(DebugPort.ClockTarget.CPU).is(handles[0].lateness)
+        instance.getClockLateness(DebugPort.ClockTarget.RENDER).is(handles[3].lateness)
+
+        when:
+        instance.reset()
+
+        then:
+        DebugPort.ClockTarget.values().every { instance.getClockLateness(it).is(LatencyHistogram.EMPTY) }
+    }
 }
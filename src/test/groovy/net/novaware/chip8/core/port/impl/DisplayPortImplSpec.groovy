@@ -5,10 +5,13 @@ import net.novaware.chip8.core.cpu.register.RegisterFile
 import net.novaware.chip8.core.memory.Memory
 import net.novaware.chip8.core.memory.MemoryModule
 import net.novaware.chip8.core.memory.PhysicalMemory
+import net.novaware.chip8.core.memory.RowTrackingMemory
 import net.novaware.chip8.core.port.DisplayPort
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.ByteBuffer
+
 import static net.novaware.chip8.core.util.UnsignedUtil.*
 
 class DisplayPortImplSpec extends Specification {
@@ -131,4 +134,269 @@ class DisplayPortImplSpec extends Specification {
         then:
         packet.getPixel(0, 0)
     }
-}
\ No newline at end of file
+
+    @Unroll
+    def "should rescan only dirty rows with the same output as a full rescan in #mode"() {
+        given:
+        def random = new Random(8)
+
+        def tracked = new RowTrackingMemory(new PhysicalMemory("Display IO", MemoryModule.DISPLAY_IO_SIZE), 8)
+        def trackedPort = new DisplayPortImpl(graphicChange, tracked)
+        def fullPort = new DisplayPortImpl(graphicChange, displayIo)
+
+        def gcs = [RegisterFile.GC_DRAW, RegisterFile.GC_ERASE, RegisterFile.GC_MIX, RegisterFile.GC_NOOP]
+
+        expect:
+        500.times {
+            def currentMode = mode ?: DisplayPort.Mode.values()[random.nextInt(3)]
+            trackedPort.setMode(currentMode)
+            fullPort.setMode(currentMode)
+
+            def y = random.nextInt(32)
+            def height = Math.min(1 + random.nextInt(5), 32 - y)
+            height.times { row ->
+                def address = ushort((y + row) * 8 + random.nextInt(8))
+                def value = ubyte(random.nextInt(256))
+                tracked.setByte(address, value)
+                displayIo.setByte(address, value)
+            }
+
+            graphicChange.set(gcs[random.nextInt(gcs.size())])
+            trackedPort.onGraphicChange()
+            fullPort.onGraphicChange()
+
+            assert trackedPort.frontBuffer == fullPort.frontBuffer
+            assert trackedPort.backBuffer == fullPort.backBuffer
+            assert trackedPort.prevBuffer == fullPort.prevBuffer
+        }
+
+        where:
+        mode << [DisplayPort.Mode.DIRECT, DisplayPort.Mode.MERGE_FRAME, DisplayPort.Mode.FALLING_EDGE, null]
+    }
+
+    def "should expose the frame in bulk in display IO layout"() {
+        given:
+        instance.attachToRegister()
+        DisplayPort.Packet packet = null
+        instance.connect({ p -> packet = p })
+
+        def random = new Random(8)
+        def frame = new byte[MemoryModule.DISPLAY_IO_SIZE]
+        random.nextBytes(frame)
+        displayIo.setBytes(USHORT_0, frame, frame.length)
+
+        when:
+        graphicChange.set(RegisterFile.GC_DRAW)
+        def bitmap = packet.getBitmap()
+        def copy = new byte[bitmap.remaining()]
+        bitmap.get(copy)
+
+        then:
+        copy == frame
+        packet.getBitmap().isReadOnly()
+        packet.getBitmap().remaining() == frame.length // rewound for every call
+        (0..<32).every { row -> packet.getRow(row) == ByteBuffer.wrap(frame, row * 8, 8).getLong() }
+        (0..<32).every { row ->
+            (0..<64).every { column -> packet.getPixel(column, row) == ((packet.getRow(row) >>> 63 - column & 1) == 1) }
+        }
+    }
+
+    def "should number the frames sent"() {
+        given:
+        instance.attachToRegister()
+        def numbers = []
+        instance.connect({ p -> numbers << p.getFrameNumber() })
+
+        when:
+        graphicChange.set(RegisterFile.GC_DRAW)
+        graphicChange.set(RegisterFile.GC_NOOP)
+        graphicChange.set(RegisterFile.GC_ERASE)
+
+        then:
+        numbers == [1L, 2L]
+
+        when:
+        instance.reset()
+        instance.connect({ p -> numbers << p.getFrameNumber() })
+        graphicChange.set(RegisterFile.GC_DRAW)
+
+        then:
+        numbers == [1L, 2L, 1L]
+    }
+
+    def "should send run length spans of the changed pixels"() {
+        given:
+        instance.attachToRegister()
+        def deltas = []
+        instance.connectDelta({ p ->
+            deltas << [key: p.isKeyFrame(), frame: p.getFrameNumber(),
+                       spans: (0..<p.getSpanCount()).collect { [p.getSpanRow(it), p.getSpanColumn(it), p.getSpanLength(it)] }]
+        })
+
+        when:
+        displayIo.setByte(USHORT_0, ubyte(0xF0))
+        displayIo.setByte(ushort(255), ubyte(0xFF))
+        graphicChange.set(RegisterFile.GC_DRAW)
+
+        displayIo.setByte(USHORT_0, ubyte(0x3C))
+        graphicChange.set(RegisterFile.GC_DRAW)
+
+        graphicChange.set(RegisterFile.GC_DRAW) // nothing changed
+
+        then:
+        deltas == [
+                [key: true, frame: 1L, spans: [[0, 0, 4], [31, 56, 8]]],
+                [key: false, frame: 2L, spans: [[0, 0, 2], [0, 4, 2]]],
+        ]
+    }
+
+    def "should send a key frame periodically and on request"() {
+        given:
+        instance.attachToRegister()
+        instance.setKeyFrameInterval(2)
+        def keys = []
+        instance.connectDelta({ p -> keys << p.isKeyFrame() })
+
+        when:
+        4.times {
+            displayIo.setByte(ushort(it), ubyte(0x80))
+            graphicChange.set(RegisterFile.GC_DRAW)
+        }
+
+        then:
+        keys == [true, false, true, false]
+
+        when:
+        instance.requestKeyFrame()
+        instance.tick()
+
+        then:
+        keys == [true, false, true, false, true]
+    }
+
+    def "should reproduce the frames by applying the spans"() {
+        given:
+        def random = new Random(8)
+        instance.attachToRegister()
+        instance.setKeyFrameInterval(7)
+
+        def screen = new long[32]
+        def frames = 0
+        instance.connectDelta({ p ->
+            if (p.isKeyFrame()) {
+                Arrays.fill(screen, 0)
+            }
+            def spans = p.getSpans()
+            assert spans.isReadOnly() && spans.remaining() == p.getSpanCount() * DisplayPort.DeltaPacket.SPAN_SIZE
+            while (spans.hasRemaining()) {
+                def row = uint(spans.get())
+                def column = uint(spans.get())
+                def length = uint(spans.get())
+                screen[row] ^= (-1L >>> column) & ~(column + length == 64 ? 0L : -1L >>> column + length)
+            }
+            ++frames
+        })
+
+        expect:
+        100.times {
+            3.times { displayIo.setByte(ushort(random.nextInt(256)), ubyte(random.nextInt(256))) }
+            graphicChange.set(RegisterFile.GC_DRAW)
+
+            assert screen == instance.frontBuffer
+        }
+        frames == 100
+    }
+
+    def "should publish frames to the async source"() {
+        given:
+        instance.attachToRegister()
+        def source = instance.connectAsync()
+
+        when:
+        displayIo.setByte(USHORT_0, ubyte(0x80))
+        graphicChange.set(RegisterFile.GC_DRAW)
+        displayIo.setByte(USHORT_0, ubyte(0x40))
+        graphicChange.set(RegisterFile.GC_DRAW)
+
+        def frame = source.take()
+
+        then:
+        frame.getFrameNumber() == 2
+        !frame.getPixel(0, 0)
+        frame.getPixel(1, 0)
+        source.take() == null
+        source.getPublishedFrames() == 2
+        source.getDroppedFrames() == 1
+
+        when:
+        instance.disconnect()
+        graphicChange.set(RegisterFile.GC_DRAW)
+
+        then:
+        source.getPublishedFrames() == 2
+    }
+
+    def "should send coalesced frames only on tick"() {
+        given:
+        instance.attachToRegister()
+        instance.setCoalesced(true)
+        def frames = []
+        instance.connect({ p -> frames << p.getRow(0) })
+
+        when:
+        10.times {
+            displayIo.setByte(USHORT_0, ubyte(it))
+            graphicChange.set(RegisterFile.GC_DRAW)
+        }
+
+        then:
+        frames.isEmpty()
+        graphicChange.getAsInt() == RegisterFile.GC_IDLE
+
+        when:
+        instance.tick()
+        instance.tick() // nothing drawn in between
+
+        then:
+        frames == [9L << 56]
+        instance.isCoalesced()
+    }
+
+    @Unroll
+    def "should compose coalesced frames the same as the last direct one in #mode"() {
+        given:
+        def random = new Random(8)
+
+        def coalescedIo = new RowTrackingMemory(new PhysicalMemory("Display IO", MemoryModule.DISPLAY_IO_SIZE), 8)
+        def coalescedPort = new DisplayPortImpl(graphicChange, coalescedIo)
+        coalescedPort.setCoalesced(true)
+        def directPort = new DisplayPortImpl(graphicChange, displayIo)
+
+        def gcs = [RegisterFile.GC_DRAW, RegisterFile.GC_ERASE, RegisterFile.GC_MIX, RegisterFile.GC_NOOP]
+
+        expect:
+        100.times {
+            coalescedPort.setMode(mode)
+            directPort.setMode(mode)
+
+            random.nextInt(10).times {
+                def address = ushort(random.nextInt(256))
+                def value = ubyte(random.nextInt(256))
+                coalescedIo.setByte(address, value)
+                displayIo.setByte(address, value)
+
+                graphicChange.set(gcs[random.nextInt(gcs.size())])
+                coalescedPort.onGraphicChange()
+                directPort.onGraphicChange()
+            }
+
+            coalescedPort.tick()
+            directPort.tick()
+
+            assert coalescedPort.frontBuffer == directPort.frontBuffer
+        }
+
+        where:
+        mode << [DisplayPort.Mode.DIRECT, DisplayPort.Mode.MERGE_FRAME, DisplayPort.Mode.FALLING_EDGE]
+    }
+}
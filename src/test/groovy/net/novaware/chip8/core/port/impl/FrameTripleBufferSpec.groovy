@@ -0,0 +1,103 @@
+package net.novaware.chip8.core.port.impl
+
+import spock.lang.Specification
+
+class FrameTripleBufferSpec extends Specification {
+
+    def instance = new FrameTripleBuffer(32, 8)
+
+    long[] rows = new long[32]
+    byte[] bitmap = new byte[256]
+
+    def "should have nothing to take before the first frame"() {
+        expect:
+        instance.take() == null
+        instance.getPublishedFrames() == 0
+        instance.getDroppedFrames() == 0
+    }
+
+    def "should hand over a copy of the published frame once"() {
+        given:
+        rows[0] = Long.MIN_VALUE
+        bitmap[0] = 0x80 as byte
+
+        when:
+        instance.publish(rows, bitmap, 1)
+        rows[0] = 0 // port keeps drawing
+        bitmap[0] = 0
+
+        def frame = instance.take()
+
+        then:
+        frame.getFrameNumber() == 1
+        frame.getPixel(0, 0)
+        frame.getRow(0) == Long.MIN_VALUE
+        frame.getBitmap().get(0) == 0x80 as byte
+        frame.getBitmap().isReadOnly()
+
+        instance.take() == null
+        instance.getPublishedFrames() == 1
+        instance.getDroppedFrames() == 0
+    }
+
+    def "should take the newest frame and count the dropped ones"() {
+        when:
+        (1..5).each { instance.publish(rows, bitmap, it) }
+
+        then:
+        instance.take().getFrameNumber() == 5
+        instance.getPublishedFrames() == 5
+        instance.getDroppedFrames() == 4
+    }
+
+    def "should not touch the taken frame while publishing"() {
+        given:
+        instance.publish(rows, bitmap, 1)
+        def frame = instance.take()
+
+        when:
+        (2..10).each { instance.publish(rows, bitmap, it) }
+
+        then:
+        frame.getFrameNumber() == 1
+        instance.take().getFrameNumber() == 10
+    }
+
+    def "should deliver consistent frames in increasing order across threads"() {
+        given:
+        def count = 100_000
+        def writer = new Thread({
+            for (long n = 1; n <= count; ++n) {
+                Arrays.fill(rows, n)
+                Arrays.fill(bitmap, n as byte)
+                instance.publish(rows, bitmap, n)
+            }
+        })
+
+        when:
+        writer.start()
+
+        long last = 0
+        long taken = 0
+        while (last < count) {
+            def frame = instance.take()
+            if (frame == null) {
+                continue
+            }
+
+            def n = frame.getFrameNumber()
+            assert n > last
+            assert frame.getRow(0) == n && frame.getRow(31) == n
+            assert frame.getBitmap().get(255) == (n as byte)
+
+            last = n
+            ++taken
+        }
+
+        writer.join()
+
+        then:
+        instance.getPublishedFrames() == count
+        instance.getDroppedFrames() == count - taken
+    }
+}
@@ -0,0 +1,207 @@
+package net.novaware.chip8.core.rewind
+
+import net.novaware.chip8.core.Board
+import net.novaware.chip8.core.BoardFactory
+import net.novaware.chip8.core.clock.VirtualClockGenerator
+import net.novaware.chip8.core.config.MutableConfig
+import net.novaware.chip8.core.port.DisplayPort
+import net.novaware.chip8.core.port.StoragePort
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+import static java.util.concurrent.TimeUnit.SECONDS
+import static net.novaware.chip8.core.util.UnsignedUtil.uint
+
+class RewindBufferSpec extends Specification {
+
+    static final long FRAME = SECONDS.toNanos(1) / 60 as long
+
+    byte[] rom = [
+            0x7A, 0x01, // 0x200: VA += 1
+            0xA3, 0x00, // 0x202: I = 0x300
+            0xFA, 0x55, // 0x204: store V0..VA at I
+            0xF0, 0x29, // 0x206: I = font of V0
+            0xD1, 0x25, // 0x208: draw at V1, V2
+            0x71, 0x01, // 0x20A: V1 += 1
+            0x12, 0x00, // 0x20C: jump 0x200
+    ] as byte[]
+
+    byte[] pacedRom = [
+            0x65, 0x01, // 0x200: V5 = 1
+            0xF5, 0x15, // 0x202: delay = V5
+            0xF5, 0x07, // 0x204: V5 = delay
+            0x35, 0x00, // 0x206: skip if V5 == 0
+            0x12, 0x04, // 0x208: jump 0x204
+            0x7A, 0x01, // 0x20A: VA += 1
+            0xA3, 0x00, // 0x20C: I = 0x300
+            0xFA, 0x55, // 0x20E: store V0..VA at I
+            0xFA, 0x29, // 0x210: I = font of VA
+            0xD1, 0x25, // 0x212: draw at V1, V2
+            0x71, 0x01, // 0x214: V1 += 1
+            0x12, 0x00, // 0x216: jump 0x200
+    ] as byte[]
+
+    Board board
+    VirtualClockGenerator clock
+
+    def setup() {
+        start(rom)
+    }
+
+    def start(byte[] rom) {
+        clock = new VirtualClockGenerator()
+        board = BoardFactory.newBoardFactory(new MutableConfig(), clock, new Random(8).&nextInt).newBoard()
+
+        board.getStoragePort().connect({ -> new StoragePort.Packet() {
+            int getSize() { rom.length }
+            byte getByte(short address) { rom[uint(address)] }
+        }})
+        board.getKeyPort().connect({ p -> })
+        board.getAudioPort().connect({ p -> })
+        board.getDisplayPort(DisplayPort.Type.PRIMARY).connect({ p -> })
+
+        board.powerOn()
+        clock.advance(FRAME)
+    }
+
+    def "should rewind to recorded frames"() {
+        given:
+        def instance = new RewindBuffer(board, 100, 10, RewindBuffer.DEFAULT_CAPACITY)
+        def states = record(instance, 25)
+
+        expect:
+        instance.getFrameCount() == 25
+
+        when:
+        def rewound = instance.rewind(frames)
+
+        then:
+        rewound == frames
+        snapshot() == states[24 - frames]
+        instance.getFrameCount() == 25 - frames
+
+        where:
+        frames << [0, 1, 9, 10, 11, 24]
+    }
+
+    def "should continue recording after rewind"() {
+        given:
+        def instance = new RewindBuffer(board, 100, 4, RewindBuffer.DEFAULT_CAPACITY)
+        def states = record(instance, 10)
+
+        when:
+        instance.rewind(5)
+        states = states.take(5) + record(instance, 7)
+
+        then:
+        instance.getFrameCount() == 12
+
+        when:
+        instance.rewind(8)
+
+        then:
+        snapshot() == states[3]
+    }
+
+    def "should evict oldest keyframe with its deltas when out of frames"() {
+        given:
+        def instance = new RewindBuffer(board, 10, 4, RewindBuffer.DEFAULT_CAPACITY)
+        def states = record(instance, 23)
+
+        expect: "keyframes at 0, 4, 8, ..., 20 and the oldest one evicted to record 22"
+        instance.getFrameCount() == 7
+
+        when:
+        def rewound = instance.rewind(100)
+
+        then:
+        rewound == 6
+        snapshot() == states[16]
+    }
+
+    def "should evict oldest frames when out of bytes"() {
+        given:
+        def capacity = Board.SNAPSHOT_SIZE * 3
+        def instance = new RewindBuffer(board, 1000, 20, capacity)
+        def states = record(instance, 200)
+
+        expect:
+        instance.getUsedBytes() <= capacity
+        instance.getFrameCount() > 1
+
+        when:
+        def recorded = instance.getFrameCount()
+        def rewound = instance.rewind(1000)
+
+        then:
+        rewound == recorded - 1
+        snapshot() == states[199 - rewound]
+    }
+
+    def "should record only changed pages between keyframes"() {
+        given:
+        def instance = new RewindBuffer(board)
+
+        when:
+        record(instance, 60)
+
+        then:
+        instance.getUsedBytes() < Board.SNAPSHOT_SIZE + 59 * 10 * (RewindBuffer.PAGE_SIZE + 2)
+    }
+
+    def "should fit a minute of a frame paced program at 60 fps into the default capacity"() {
+        given:
+        start(pacedRom)
+        def instance = new RewindBuffer(board)
+
+        when:
+        record(instance, RewindBuffer.DEFAULT_FRAMES)
+
+        then:
+        instance.getFrameCount() == RewindBuffer.DEFAULT_FRAMES
+        instance.getUsedBytes() <= RewindBuffer.DEFAULT_CAPACITY
+    }
+
+    def "should not rewind empty buffer"() {
+        given:
+        def instance = new RewindBuffer(board)
+        def state = snapshot()
+
+        expect:
+        instance.rewind(10) == 0
+        snapshot() == state
+    }
+
+    def "should reject invalid sizes"() {
+        when:
+        new RewindBuffer(board, frames, interval, capacity)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        frames | interval | capacity
+        0      | 1        | Board.SNAPSHOT_SIZE
+        1      | 0        | Board.SNAPSHOT_SIZE
+        1      | 1        | Board.SNAPSHOT_SIZE - 1
+    }
+
+    List<byte[]> record(RewindBuffer instance, int frames) {
+        def states = []
+
+        frames.times {
+            clock.advance(FRAME)
+            instance.record()
+            states << snapshot()
+        }
+
+        return states
+    }
+
+    byte[] snapshot() {
+        def buffer = ByteBuffer.allocate(Board.SNAPSHOT_SIZE)
+        board.snapshot(buffer)
+        return buffer.array()
+    }
+}
@@ -0,0 +1,80 @@
+package net.novaware.chip8.core.util
+
+import spock.lang.Specification
+
+class DirtySetSpec extends Specification {
+
+    def instance = new DirtySet()
+
+    def "should not accept marks while disabled"() {
+        given:
+        def bit = instance.add({ -> })
+
+        expect:
+        !instance.mark(bit)
+        !instance.isDirty()
+    }
+
+    def "should dispatch marked target once"() {
+        given:
+        def dispatched = 0
+        def bit = instance.add({ -> ++dispatched })
+        instance.enabled = true
+
+        when:
+        instance.mark(bit)
+        instance.mark(bit)
+        instance.flush()
+
+        then:
+        dispatched == 1
+        !instance.isDirty()
+    }
+
+    def "should dispatch targets marked during flush"() {
+        given:
+        def order = []
+        int second = -1
+        def first = instance.add({ -> order << 1; instance.mark(second) })
+        second = instance.add({ -> order << 2 })
+        instance.enabled = true
+
+        when:
+        instance.mark(first)
+        instance.flush()
+
+        then:
+        order == [1, 2]
+    }
+
+    def "should limit dispatch rounds of self marking target"() {
+        given:
+        def dispatched = 0
+        int bit = -1
+        bit = instance.add({ -> ++dispatched; instance.mark(bit) })
+        instance.enabled = true
+
+        when:
+        instance.mark(bit)
+        instance.flush()
+
+        then:
+        dispatched == DirtySet.MAX_ROUNDS
+        instance.isDirty()
+    }
+
+    def "should flush pending changes when disabled"() {
+        given:
+        def dispatched = 0
+        def bit = instance.add({ -> ++dispatched })
+        instance.enabled = true
+        instance.mark(bit)
+
+        when:
+        instance.enabled = false
+
+        then:
+        dispatched == 1
+        !instance.enabled
+    }
+}
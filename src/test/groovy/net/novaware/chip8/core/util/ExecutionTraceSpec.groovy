@@ -0,0 +1,77 @@
+package net.novaware.chip8.core.util
+
+import spock.lang.Specification
+
+class ExecutionTraceSpec extends Specification {
+
+    def "should round capacity up to the power of 2"() {
+        expect:
+        new ExecutionTrace(size).capacity == capacity
+        new ExecutionTrace(size).enabled == (capacity > 0)
+
+        where:
+        size || capacity
+        0    || 0
+        1    || 1
+        2    || 2
+        3    || 4
+        1000 || 1024
+        1024 || 1024
+    }
+
+    def "should reject invalid size"() {
+        when:
+        new ExecutionTrace(-1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "should count the cycles of every disabled trace separately"() {
+        given:
+        def first = ExecutionTrace.disabled()
+        def second = ExecutionTrace.disabled()
+
+        when:
+        first.tick()
+
+        then:
+        !first.enabled
+        first.cycle == 1
+        second.cycle == 0
+    }
+
+    def "should pack and unpack the record"() {
+        given:
+        def instance = new ExecutionTrace(4)
+        3.times { instance.tick() }
+        long[] records = new long[2]
+
+        when:
+        instance.record(0x0FFE as short, 0xD12F as short, 0x0F00 as short, 0xFFFF as short, 0x81 as byte)
+
+        then:
+        instance.copy(0, records, 1) == 0
+        ExecutionTrace.memoryAddress(records[0]) == 0x0FFE
+        ExecutionTrace.opcode(records[0]) == 0xD12F
+        ExecutionTrace.programCounter(records[0]) == 0x0F00
+        ExecutionTrace.index(records[0]) == 0xFFFF
+        ExecutionTrace.vf(records[1]) == 0x81
+        ExecutionTrace.cycle(records[1]) == 3
+    }
+
+    def "should report overwritten records"() {
+        given:
+        def instance = new ExecutionTrace(4)
+        10.times { instance.record(it as short, 0 as short, 0 as short, 0 as short, 0 as byte) }
+        long[] records = new long[4 * 2]
+
+        when:
+        def intact = instance.copy(5, records, 4)
+
+        then:
+        instance.written == 10
+        intact == 7 // 4 slots, the oldest one may be torn by the next write
+        ExecutionTrace.memoryAddress(records[(intact - 5) * 2 as int]) == 7
+    }
+}
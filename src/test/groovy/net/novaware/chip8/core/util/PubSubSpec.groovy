@@ -116,4 +116,28 @@ class PubSubSpec extends Specification {
         then:
         thrown(IllegalStateException)
     }
+
+    def "should coalesce deferred publishing"() {
+        given:
+        def dirtySet = new DirtySet()
+        def instance = new PubSub(new Object())
+
+        def published = 0
+        instance.subscribe({ s -> ++published } as Consumer)
+        instance.deferTo(dirtySet)
+        dirtySet.enabled = true
+
+        when:
+        instance.publish()
+        instance.publish()
+
+        then:
+        published == 0
+
+        when:
+        dirtySet.flush()
+
+        then:
+        published == 1
+    }
 }
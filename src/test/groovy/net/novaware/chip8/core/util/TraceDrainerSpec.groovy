@@ -0,0 +1,93 @@
+package net.novaware.chip8.core.util
+
+import spock.lang.Specification
+
+class TraceDrainerSpec extends Specification {
+
+    def trace = new ExecutionTrace(4)
+
+    def bytes = new ByteArrayOutputStream()
+
+    def record(int address) {
+        trace.tick()
+        trace.record(address as short, 0x6001 as short, (address + 2) as short, 0 as short, 1 as byte)
+    }
+
+    DataInputStream input() {
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+    }
+
+    def "should write header and instruction records"() {
+        given:
+        def instance = new TraceDrainer(trace, bytes, 10)
+        record(0x200)
+        record(0x202)
+
+        when:
+        instance.close()
+        def input = input()
+
+        then:
+        input.readInt() == TraceDrainer.MAGIC
+        input.readShort() == TraceDrainer.VERSION
+
+        input.readByte() == TraceDrainer.TAG_INSTRUCTION
+        input.readLong() == 1
+        input.readShort() == 0x200
+        input.readShort() == 0x6001
+        input.readShort() == 0x202
+        input.readShort() == 0
+        input.readByte() == 1
+
+        input.readByte() == TraceDrainer.TAG_INSTRUCTION
+        input.readLong() == 2
+        input.readShort() == 0x202
+
+        input.skip(7) == 7
+        input.available() == 0
+    }
+
+    def "should write gap for records overwritten before draining"() {
+        given:
+        def instance = new TraceDrainer(trace, bytes, 10)
+        10.times { record(0x200 + 2 * it) }
+
+        when:
+        instance.close()
+        def input = input()
+        input.skip(6)
+
+        then:
+        instance.lost == 7
+        input.readByte() == TraceDrainer.TAG_GAP
+        input.readLong() == 7
+
+        input.readByte() == TraceDrainer.TAG_INSTRUCTION
+        input.readLong() == 8
+        input.readShort() == 0x20E
+    }
+
+    def "should drain in the background"() {
+        given:
+        def instance = new TraceDrainer(trace, bytes, 1)
+        instance.start()
+
+        when:
+        record(0x200)
+        sleep(100)
+
+        then:
+        bytes.size() == 6 + 18
+
+        cleanup:
+        instance.close()
+    }
+
+    def "should reject disabled trace"() {
+        when:
+        new TraceDrainer(ExecutionTrace.disabled(), bytes, 10)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}